@@ -5,12 +5,26 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "app")
 @Getter
 @Setter
 public class AppProperties {
     private Pagination pagination = new Pagination();
+    private Streaming streaming = new Streaming();
+    private Suggestions suggestions = new Suggestions();
+    private Rollup rollup = new Rollup();
+    private StatsCache statsCache = new StatsCache();
+    private Distribution distribution = new Distribution();
+    private ReportJobs reportJobs = new ReportJobs();
+    private Replica replica = new Replica();
+    private Dashboard dashboard = new Dashboard();
+    private PdfExport pdfExport = new PdfExport();
+    private ExportCompression exportCompression = new ExportCompression();
+    private Statements statements = new Statements();
 
     @Getter
     @Setter
@@ -19,6 +33,283 @@ public class AppProperties {
         private int maxLimit = 100;
     }
 
+    @Getter
+    @Setter
+    public static class Streaming {
+        /**
+         * Rows fetched per round trip by the server-side cursor.
+         */
+        private int fetchSize = 500;
+
+        /**
+         * Rows written between explicit flushes, so a dropped client is noticed quickly.
+         */
+        private int flushInterval = 100;
+
+        /**
+         * Rows an XLSX export keeps in memory; older rows are written out to a compressed temporary file.
+         */
+        private int xlsxRowWindow = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Suggestions {
+        /**
+         * Upper bound on the estimated heap used by all per-user prefix indexes together.
+         * Least recently used indexes are evicted once it is exceeded.
+         */
+        private long memoryBudgetBytes = 32L * 1024 * 1024;
+
+        private int defaultLimit = 8;
+        private int maxLimit = 20;
+
+        /**
+         * Longer descriptions are truncated before indexing; longer prefixes are rejected.
+         */
+        private int maxTermLength = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Rollup {
+        /**
+         * Serve eligible stats queries from expense_daily_rollup instead of raw expenses.
+         */
+        private boolean enabled = true;
+
+        /**
+         * When the scheduled verification finds drift, rebuild the rollup from expenses.
+         */
+        private boolean autoRepair = true;
+
+        /**
+         * Schedule of the verification job (Spring cron, server time zone).
+         */
+        private String verifyCron = "0 30 3 * * *";
+    }
+
+    @Getter
+    @Setter
+    public static class StatsCache {
+        private boolean enabled = true;
+
+        /**
+         * Upper bound on the estimated heap used by cached stats results.
+         * Least recently used entries are evicted once it is exceeded.
+         */
+        private long memoryBudgetBytes = 16L * 1024 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Distribution {
+        /**
+         * t-digest compression: higher keeps more centroids per sketch and gives tighter percentiles.
+         */
+        private double compression = 100;
+
+        /**
+         * Histogram bucket boundaries used when a request does not pass its own.
+         */
+        private List<BigDecimal> defaultBuckets = List.of(
+                new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"),
+                new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")
+        );
+
+        private int maxBuckets = 50;
+
+        /**
+         * Dirty sketch cells rebuilt per transaction.
+         */
+        private int rebuildBatchSize = 200;
+
+        /**
+         * Delay between background passes that rebuild cells the write path left behind.
+         */
+        private long rebuildDelayMs = 30000;
+    }
+
+    @Getter
+    @Setter
+    public static class ReportJobs {
+        /**
+         * Worker threads running report jobs; bounds the database load asynchronous reports can cause.
+         */
+        private int poolSize = 4;
+
+        /**
+         * Jobs waiting for a worker. Submissions beyond it are rejected with 503.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Queued plus running jobs a single user may have. Submissions beyond it are rejected with 429.
+         */
+        private int maxActivePerUser = 3;
+
+        /**
+         * How long a finished job and its result stay available.
+         */
+        private long resultTtlMs = 15 * 60 * 1000L;
+
+        /**
+         * How long a succeeded export is handed out again for identical requests instead of exporting anew.
+         */
+        private long reuseWindowMs = 60 * 1000L;
+
+        /**
+         * How long a completion subscription (server-sent events) stays open.
+         */
+        private long subscribeTimeoutMs = 5 * 60 * 1000L;
+
+        /**
+         * Where export results are written until they expire.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/expensetracker-reports";
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        /**
+         * JDBC URL of a streaming replica of the primary database. When set, read-only transactions
+         * run against it; when empty, everything uses spring.datasource.
+         */
+        private String url;
+
+        /**
+         * Defaults to the primary's credentials.
+         */
+        private String username;
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        /**
+         * How long a read waits for a replica connection before falling back to the primary.
+         */
+        private long connectionTimeoutMs = 1000;
+
+        /**
+         * How long a user's reads stay on the primary after they commit a write, so they see it
+         * even while the replica lags behind.
+         */
+        private long pinAfterWriteMs = 5000;
+
+        /**
+         * After the replica fails to hand out a connection, reads use the primary for this long
+         * before the replica is tried again.
+         */
+        private long retryAfterFailureMs = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class Dashboard {
+        /**
+         * Worker threads running dashboard queries, shared by all requests. Keep it below the
+         * connection pool size so dashboards cannot starve the other endpoints of connections.
+         */
+        private int poolSize = 6;
+
+        /**
+         * Queries waiting for a worker. A dashboard that does not fit is rejected with 503.
+         */
+        private int queueCapacity = 200;
+
+        /**
+         * Team scopes a single dashboard request may include.
+         */
+        private int maxTeams = 20;
+
+        /**
+         * How long a request waits for all of its queries.
+         */
+        private long timeoutMs = 30000;
+    }
+
+    @Getter
+    @Setter
+    public static class PdfExport {
+        /**
+         * Threads rendering PDF chunks, shared by all exports so they cannot take every core from
+         * request threads. 1 renders each export on its request thread instead.
+         */
+        private int parallelism = 4;
+
+        /**
+         * Rows per chunk rendered as its own PDF before the chunks are merged in order.
+         */
+        private int chunkRows = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class ExportCompression {
+        /**
+         * Compress CSV and JSON Lines exports with gzip or zstd when the client's Accept-Encoding allows it.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 1 (fastest) to 9 (smallest).
+         */
+        private int gzipLevel = 6;
+
+        /**
+         * 1 (fastest) to 19 (smallest); 3 is zstd's own default.
+         */
+        private int zstdLevel = 3;
+
+        /**
+         * Uncompressed bytes buffered ahead of the compressor; every row flush compresses and sends what it holds.
+         */
+        private int bufferSize = 16384;
+    }
+
+    @Getter
+    @Setter
+    public static class Statements {
+        /**
+         * When the previous month's statements are generated; "-" turns the run off.
+         */
+        private String cron = "0 0 2 1 * *";
+
+        /**
+         * How often unfinished partitions (a crashed or interrupted run) are picked up again.
+         */
+        private long resumeDelayMs = 5 * 60 * 1000L;
+
+        /**
+         * Workers per node, each processing one partition at a time with one streaming query.
+         * Keep it below the connection pool size: a worker holds two connections while it runs.
+         */
+        private int workers = 2;
+
+        /**
+         * Width of a partition's user id range.
+         */
+        private int partitionSize = 1000;
+
+        /**
+         * How long a claimed partition may go without progress before another worker takes it over.
+         * Every finished user renews the claim.
+         */
+        private long leaseMs = 10 * 60 * 1000L;
+
+        /**
+         * Claims after which a partition that keeps failing is left alone, with its last error, for inspection.
+         * A failed partition is claimed again once its lease has run out.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Where statements are written, as {@code <yyyy-MM>/<userId>/statement-<yyyy-MM>.csv|pdf}.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/expensetracker-statements";
+    }
+
     public int getPaginationMinLimit() {
         return pagination.getMinLimit();
     }
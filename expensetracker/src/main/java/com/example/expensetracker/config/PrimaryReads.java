@@ -0,0 +1,36 @@
+package com.example.expensetracker.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks reads that must not be served by the replica: results that outlive the request, such as
+ * cached ones, would otherwise keep a lagging replica's answer after the write it missed.
+ * <p>
+ * Only affects connections taken while {@code work} runs, so the work should start its own
+ * transaction. Without a replica there is nothing to route and this just runs {@code work}.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        Boolean previous = REQUIRED.get();
+        REQUIRED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                REQUIRED.remove();
+            } else {
+                REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static boolean required() {
+        return REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.expensetracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Connections for read-only transactions: the replica, unless the current user is pinned to the
+ * primary by {@link ReadYourWritesGuard}, the read runs under {@link PrimaryReads} or the replica is
+ * unavailable.
+ * <p>
+ * When the replica cannot hand out a connection, the read runs on the primary and the replica is
+ * left alone for {@code retryAfterFailureMs}, so an outage costs one connection timeout rather than
+ * one per request.
+ */
+@Slf4j
+public class ReadReplicaDataSource extends AbstractDataSource {
+
+    private static final String METRIC_NAME = "datasource.reads";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWritesGuard guard;
+    private final long retryAfterFailureNanos;
+
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter requiredReads;
+    private final Counter fallbackReads;
+
+    private volatile boolean replicaDown;
+    private volatile long retryAt;
+
+    public ReadReplicaDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReadYourWritesGuard guard,
+            long retryAfterFailureMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        this.replica = replica;
+        this.guard = guard;
+        this.retryAfterFailureNanos = retryAfterFailureMs * 1_000_000L;
+        this.replicaReads = readCounter(meterRegistry, "replica", "none");
+        this.pinnedReads = readCounter(meterRegistry, "primary", "pinned");
+        this.requiredReads = readCounter(meterRegistry, "primary", "required");
+        this.fallbackReads = readCounter(meterRegistry, "primary", "replica_unavailable");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PrimaryReads.required()) {
+            requiredReads.increment();
+            return primaryConnection();
+        }
+        Long userId = ReadYourWritesGuard.currentUserId();
+        if (userId != null && guard.isPinned(userId)) {
+            pinnedReads.increment();
+            return primaryConnection();
+        }
+        if (replicaDown && retryAt - System.nanoTime() > 0) {
+            fallbackReads.increment();
+            return primaryConnection();
+        }
+
+        Connection connection;
+        try {
+            connection = replica.getConnection();
+        } catch (SQLException e) {
+            if (!replicaDown) {
+                log.warn("Read replica unavailable, reading from the primary: {}", e.getMessage());
+            }
+            retryAt = System.nanoTime() + retryAfterFailureNanos;
+            replicaDown = true;
+            fallbackReads.increment();
+            return primaryConnection();
+        }
+        if (replicaDown) {
+            replicaDown = false;
+            log.info("Read replica available again");
+        }
+        replicaReads.increment();
+        return connection;
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        // The pool resets the flag when the connection is returned
+        Connection connection = primary.getConnection();
+        connection.setReadOnly(true);
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing uses the pools' configured credentials");
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder(METRIC_NAME)
+                .description("Connections taken for read-only transactions, by the database that served them")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
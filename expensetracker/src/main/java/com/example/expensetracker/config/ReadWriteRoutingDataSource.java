@@ -0,0 +1,43 @@
+package com.example.expensetracker.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Picks the pool from the current transaction: read-only transactions read through
+ * {@link ReadReplicaDataSource}, everything else (including work outside a transaction) goes to the
+ * primary.
+ * <p>
+ * Meant to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * which only asks for a connection at the transaction's first statement, once the transaction's
+ * read-only flag has been bound.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource writes;
+    private final DataSource reads;
+
+    public ReadWriteRoutingDataSource(DataSource writes, DataSource reads) {
+        this.writes = writes;
+        this.reads = reads;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return reads.getConnection();
+        }
+        return writes.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing uses the pools' configured credentials");
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.expensetracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource when {@code app.replica.url} is set.
+ * <p>
+ * The application sees a {@link LazyConnectionDataSourceProxy}: a transaction only takes a physical
+ * connection at its first statement, by which point its read-only flag is bound. Read-only transactions
+ * ({@code @Transactional(readOnly = true)}) get theirs from {@link ReadReplicaDataSource}, everything
+ * else (writes, Flyway, Hibernate bootstrap) from the primary pool, which is configured from
+ * {@code spring.datasource} as before.
+ * <p>
+ * Hibernate hands the connection back after every transaction. Its default keeps the first connection
+ * for the whole session, which under open-in-view is the whole request: a write following a read in the
+ * same request would then run on the replica, and a read following a write would stay on the primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${app.replica.url:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(AppProperties appProperties) {
+        return new ReadYourWritesGuard(appProperties.getReplica().getPinAfterWriteMs());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            AppProperties appProperties,
+            ReadYourWritesGuard guard,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        AppProperties.Replica config = appProperties.getReplica();
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (StringUtils.hasText(properties.getName())) {
+            primary.setPoolName(properties.getName());
+        }
+        pools.add(primary);
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(config.getUrl());
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setUsername(StringUtils.hasText(config.getUsername()) ? config.getUsername() : properties.determineUsername());
+        replica.setPassword(StringUtils.hasText(config.getUsername()) ? config.getPassword() : properties.determinePassword());
+        replica.setMaximumPoolSize(config.getMaximumPoolSize());
+        replica.setConnectionTimeout(config.getConnectionTimeoutMs());
+        replica.setReadOnly(true);
+        // Start even while the replica is down; reads fall back to the primary meanwhile
+        replica.setInitializationFailTimeout(-1);
+        replica.setMetricRegistry(meterRegistry);
+        pools.add(replica);
+
+        log.info("Routing read-only transactions to replica {}", config.getUrl());
+
+        DataSource reads = new ReadReplicaDataSource(
+                primary, replica, guard, config.getRetryAfterFailureMs(), meterRegistry);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(guard.recordingWrites(primary), reads));
+        // Connections explicitly marked read-only outside a read-only transaction
+        dataSource.setReadOnlyDataSource(reads);
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
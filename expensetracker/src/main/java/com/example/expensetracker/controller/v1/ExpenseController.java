@@ -2,15 +2,23 @@ package com.example.expensetracker.controller.v1;
 
 import com.example.expensetracker.dto.CreateExpenseRequest;
 import com.example.expensetracker.dto.CursorPageResponse;
+import com.example.expensetracker.dto.ExpenseFilterParams;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
 import com.example.expensetracker.dto.ExpenseResponse;
+import com.example.expensetracker.dto.SuggestionDto;
 import com.example.expensetracker.dto.UpdateExpenseRequest;
 import com.example.expensetracker.dto.ReceiptDto;
 import com.example.expensetracker.dto.ReceiptFile;
+import com.example.expensetracker.dto.ReportJobDto;
 import com.example.expensetracker.exception.AppException;
+import com.example.expensetracker.exporters.ExportCompression;
 import com.example.expensetracker.response.ApiResponse;
 import com.example.expensetracker.response.ErrorResponse;
+import com.example.expensetracker.service.BaseService;
 import com.example.expensetracker.service.ExpenseService;
+import com.example.expensetracker.service.ExpenseSuggestionService;
 import com.example.expensetracker.service.ExportService;
+import com.example.expensetracker.service.ReportJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -21,6 +29,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -30,17 +39,27 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/expenses")
 @RequiredArgsConstructor
 @Tag(name = "Expenses", description = "Endpoints for managing expenses")
 @SecurityRequirement(name = "BearerAuth")
-public class ExpenseController {
+public class ExpenseController extends BaseService {
+
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
     private final ExpenseService expenseService;
     private final ExportService exportService;
+    private final ExportCompression exportCompression;
+    private final ExpenseSuggestionService suggestionService;
+    private final ReportJobService reportJobService;
 
     @Operation(
             summary = "Create expense",
@@ -230,6 +249,48 @@ public class ExpenseController {
         );
     }
 
+    @Operation(
+            summary = "Suggest descriptions and categories",
+            description = "Returns the current user's most frequently used descriptions and category names "
+                    + "starting with the given prefix (case-insensitive). Served from an in-memory index.",
+            security = @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "BearerAuth")
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Suggestions retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                {
+                  "success": true,
+                  "message": "Suggestions retrieved successfully",
+                  "data": [
+                    { "text": "Food", "type": "CATEGORY", "count": 14 },
+                    { "text": "Fuel", "type": "DESCRIPTION", "count": 6 }
+                  ]
+                }
+                """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Prefix too long",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<SuggestionDto> suggestions = suggestionService.suggest(prefix, limit);
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Suggestions retrieved successfully", suggestions)
+        );
+    }
+
     @Operation(
             summary = "Update expense",
             description = "Updates an existing expense record by its ID.",
@@ -387,27 +448,117 @@ public class ExpenseController {
                 .body(receiptFile.resource());
     }
     @GetMapping("/export/csv")
-    public void exportToCsv(HttpServletResponse response) {
+    public void exportToCsv(
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        exportService.checkUserExport(request);
         response.setContentType("text/csv; charset=UTF-8");
         response.setCharacterEncoding("UTF-8");
         response.setHeader("Content-Disposition", "attachment; filename=\"expenses.csv\"");
 
-        try (Writer writer = response.getWriter()) {
-            exportService.exportUserExpensesToCsv(writer);
+        try (Writer writer = new OutputStreamWriter(
+                exportCompression.open(response, acceptEncoding, "csv"), StandardCharsets.UTF_8)) {
+            exportService.exportUserExpensesToCsv(request, writer);
+        } catch (AppException e) {
+            throw e;
         } catch (Exception e) {
             throw new AppException("Error exporting expenses to CSV", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/export/pdf")
-    public void exportToPdf(HttpServletResponse response) {
+    public void exportToPdf(
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestParam(defaultValue = "false") boolean totals,
+            HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        exportService.checkUserExport(request);
         response.setContentType("application/pdf");
         response.setHeader("Content-Disposition", "attachment; filename=\"expenses.pdf\"");
 
         try (OutputStream outputStream = response.getOutputStream()) {
-            exportService.exportUserExpensesToPdf(outputStream);
+            exportService.exportUserExpensesToPdf(request, outputStream, totals);
+        } catch (AppException e) {
+            throw e;
         } catch (Exception e) {
             throw new AppException("Error exporting expenses to PDF", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/export/xlsx")
+    public void exportToXlsx(@ParameterObject ExpenseFilterParams filter, HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        exportService.checkUserExport(request);
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"expenses.xlsx\"");
+
+        try (OutputStream outputStream = response.getOutputStream()) {
+            exportService.exportUserExpensesToXlsx(request, outputStream);
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppException("Error exporting expenses to XLSX", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/export/jsonl")
+    public void exportToJsonLines(
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        exportService.checkUserExport(request);
+        response.setContentType("application/x-ndjson");
+        response.setHeader("Content-Disposition", "attachment; filename=\"expenses.jsonl\"");
+
+        try (OutputStream outputStream = exportCompression.open(response, acceptEncoding, "jsonl")) {
+            exportService.exportUserExpensesToJsonLines(request, outputStream);
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppException("Error exporting expenses to JSON Lines", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Operation(
+            summary = "Start a background export of your expenses",
+            description = """
+                    Queues a CSV (gzip-compressed), PDF or XLSX export as a report job and returns it right away (202),
+                    with the job URL in Location. Follow the job with GET /api/v1/report-jobs/{jobId} or its
+                    events stream, then download the file from its resultUrl; the download can be resumed with Range.
+                    With totals=true each PDF page ends with its subtotal and the running total.
+                    Takes the filter parameters of /api/v1/expenses/filter-service/items (except cursor and limit).
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "202",
+                    description = "Export job queued",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported export format",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "429",
+                    description = "Too many unfinished report jobs",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/export/jobs")
+    public ResponseEntity<ApiResponse<ReportJobDto>> submitExportJob(
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean totals) {
+        Long userId = getAuthenticatedUser().getId();
+        ReportJobDto job = reportJobService.submitExport(userId, null, format, totals, filter.toRequest());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/report-jobs/" + job.getId()))
+                .body(new ApiResponse<>(true, "Export job queued", job));
+    }
+}
@@ -1,12 +1,21 @@
 package com.example.expensetracker.controller.v1;
 
+import com.example.expensetracker.dto.AmountDistributionDto;
+import com.example.expensetracker.dto.AmountRange;
 import com.example.expensetracker.dto.CursorPageResponse;
+import com.example.expensetracker.dto.ComparisonStatsDto;
+import com.example.expensetracker.dto.DashboardDto;
+import com.example.expensetracker.dto.DateRange;
 import com.example.expensetracker.dto.ExpenseFilterItemDto;
 import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.dto.ExpenseSearchHitDto;
 import com.example.expensetracker.dto.ExpenseStatsDto;
 import com.example.expensetracker.dto.TimeSeriesStatsDto;
 import com.example.expensetracker.dto.CategoryPieStatsDto;
+import com.example.expensetracker.service.DashboardService;
+import com.example.expensetracker.service.ExpenseDistributionService;
 import com.example.expensetracker.service.ExpenseFilterService;
+import com.example.expensetracker.service.ExpenseSearchService;
 import com.example.expensetracker.response.ApiResponse;
 import com.example.expensetracker.response.ErrorResponse;
 import com.example.expensetracker.service.BaseService;
@@ -17,14 +26,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -34,7 +47,12 @@ import java.time.LocalDate;
 @SecurityRequirement(name = "BearerAuth")
 public class ExpenseFilterController extends BaseService {
 
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
     private final ExpenseFilterService filterService;
+    private final ExpenseSearchService searchService;
+    private final ExpenseDistributionService distributionService;
+    private final DashboardService dashboardService;
 
     @Operation(
             summary = "Get filtered expenses",
@@ -54,7 +72,10 @@ public class ExpenseFilterController extends BaseService {
                     - minAmount/maxAmount: Amount range filter
                     - hasReceipt: true/false to filter by receipt presence
                     - teamId: Filter by team ID
-                    - search: Full-text search on description (case-insensitive LIKE)
+                    - categoryIds / teamIds: Match any of the given IDs (comma-separated or repeated)
+                    - dateRanges: One or more inclusive ranges 'from..to' (either side may be empty), any of which may match
+                    - amountBuckets: One or more half-open buckets 'min-max' or 'min-' ([min, max)), any of which may match
+                    - search: Case-insensitive substring match on description (trigram-indexed; see /search for ranked search)
                     - cursor: Base64-encoded cursor for pagination
                     - limit: Page size (1-100, default: 20)
                     """,
@@ -118,6 +139,10 @@ public class ExpenseFilterController extends BaseService {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
             @RequestParam(required = false) Boolean hasReceipt,
             @RequestParam(required = false) Long teamId,
             @RequestParam(required = false) String search,
@@ -134,6 +159,10 @@ public class ExpenseFilterController extends BaseService {
                 .toDate(toDate)
                 .minAmount(minAmount)
                 .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
                 .hasReceipt(hasReceipt)
                 .teamId(teamId)
                 .search(search)
@@ -148,6 +177,167 @@ public class ExpenseFilterController extends BaseService {
         );
     }
 
+    @Operation(
+            summary = "Stream filtered expenses as NDJSON",
+            description = """
+                    Streams every expense matching the filter as newline-delimited JSON (one item per line).
+                    Intended for integrations that need a user's full history in one request instead of
+                    paging through /items.
+                    
+                    Rows are read through a single server-side cursor in a read-only transaction and written
+                    as they arrive, so the response starts immediately and server memory stays flat.
+                    Ordering is the same as /items (created_at DESC, id DESC).
+                    
+                    Accepts the same filter parameters as /items (except cursor/limit).
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Expense stream started",
+                    content = @Content(
+                            mediaType = NDJSON_MEDIA_TYPE,
+                            examples = @ExampleObject(value = """
+                                    {"id":123,"categoryId":5,"categoryName":"Food","description":"Lunch","amount":12.50,"date":"2025-10-10","hasReceipt":true,"teamId":null,"createdAt":"2025-11-01T12:34:56Z"}
+                                    {"id":122,"categoryId":7,"categoryName":"Transport","description":"Taxi","amount":30.00,"date":"2025-10-09","hasReceipt":false,"teamId":9,"createdAt":"2025-11-01T10:00:00Z"}
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter parameters",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/stream")
+    public void streamFilteredExpenses(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false, defaultValue = "exact") String categoryMatch,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
+            @RequestParam(required = false) Boolean hasReceipt,
+            @RequestParam(required = false) Long teamId,
+            @RequestParam(required = false) String search,
+            HttpServletResponse response
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .categoryId(categoryId)
+                .category(category)
+                .categoryMatch(categoryMatch)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
+                .hasReceipt(hasReceipt)
+                .teamId(teamId)
+                .search(search)
+                .build();
+
+        // A bad filter must still get its 400 as JSON, which the NDJSON content type would rule out
+        filterService.checkStreamRequest(request);
+        response.setContentType(NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding("UTF-8");
+
+        try (OutputStream outputStream = response.getOutputStream()) {
+            filterService.streamFilteredExpenses(userId, request, outputStream);
+        } catch (IOException e) {
+            // The service stops quietly when the client goes away, and closing the stream then fails the same way
+            log.debug("Expense stream for user {} closed after the client went away: {}", userId, e.getMessage());
+        }
+    }
+
+    @Operation(
+            summary = "Search expenses",
+            description = """
+                    Ranked search over expense descriptions and category names together.
+                    
+                    - Every word in the query must match, each as a prefix ("coff sho" finds "Coffee shop")
+                    - Typos are tolerated through trigram similarity ("restarant" finds "Restaurant")
+                    - Matches in the description rank above matches in the category name
+                    
+                    Results are ordered by relevance (score DESC), newest first within equal scores.
+                    
+                    **Parameters**:
+                    - q: Search text (required, max 200 characters)
+                    - teamId: Restrict to expenses shared with this team (optional)
+                    - limit: Maximum number of results (1-100, default: 20)
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Search results retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Search results retrieved successfully",
+                                      "data": [
+                                        {
+                                          "id": 123,
+                                          "categoryId": 5,
+                                          "categoryName": "Food",
+                                          "description": "Coffee shop",
+                                          "amount": 4.50,
+                                          "date": "2025-10-10",
+                                          "hasReceipt": false,
+                                          "teamId": null,
+                                          "createdAt": "2025-11-01T12:34:56Z",
+                                          "score": 1.06
+                                        }
+                                      ]
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Missing or invalid search parameters",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<ExpenseSearchHitDto>>> searchExpenses(
+            @RequestParam String q,
+            @RequestParam(required = false) Long teamId,
+            @RequestParam(required = false, defaultValue = "20") Integer limit
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        List<ExpenseSearchHitDto> hits = searchService.search(userId, q, teamId, limit);
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Search results retrieved successfully", hits)
+        );
+    }
+
     @Operation(
             summary = "Get expense statistics",
             description = """
@@ -160,6 +350,9 @@ public class ExpenseFilterController extends BaseService {
                     - byCategory: Map of categoryId -> total amount
                     - byDate: Array of daily statistics (date, totalAmount, count)
                     
+                    Accepts the same filter parameters as /items, including the multi-value
+                    categoryIds / teamIds / dateRanges / amountBuckets filters.
+                    
                     Uses the same filter parameters as /items endpoint (except cursor/limit).
                     """,
             security = @SecurityRequirement(name = "BearerAuth")
@@ -214,6 +407,10 @@ public class ExpenseFilterController extends BaseService {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
             @RequestParam(required = false) Boolean hasReceipt,
             @RequestParam(required = false) Long teamId,
             @RequestParam(required = false) String search
@@ -228,6 +425,10 @@ public class ExpenseFilterController extends BaseService {
                 .toDate(toDate)
                 .minAmount(minAmount)
                 .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
                 .hasReceipt(hasReceipt)
                 .teamId(teamId)
                 .search(search)
@@ -243,7 +444,7 @@ public class ExpenseFilterController extends BaseService {
     @Operation(
             summary = "Get time series statistics",
             description = """
-                    Retrieves time series statistics grouped by day.
+                    Retrieves time series statistics grouped by day, or by week, month, quarter or year.
                     
                     **Date filtering logic**:
                     - No dates: Returns statistics for all expenses
@@ -253,7 +454,14 @@ public class ExpenseFilterController extends BaseService {
                     **Response format**:
                     - totalAmount: Total sum of all expenses in the period
                     - count: Total number of expenses
-                    - byPeriod: Array of daily statistics (date, totalAmount, count), sorted by date ascending
+                    - granularity: Bucket size that was applied (DAY when not requested)
+                    - byPeriod: Array of per-bucket statistics (date, totalAmount, count), sorted by date ascending
+                    
+                    **Granularity** (optional `granularity`: day, week, month, quarter, year):
+                    - Buckets are computed in the database; `date` is the first day of the bucket (weeks start on Monday)
+                    - Empty buckets from fromDate (or the first bucket with data) to toDate (or today in `timeZone`) are filled with zero totals
+                    - Without it, byPeriod has one entry per day that has expenses
+                    - `timeZone` is an IANA zone such as Europe/Kyiv; defaults to the server zone
                     
                     Uses the same filter parameters as /stats endpoint.
                     """,
@@ -273,6 +481,7 @@ public class ExpenseFilterController extends BaseService {
                                       "data": {
                                         "totalAmount": 150.0,
                                         "count": 5,
+                                        "granularity": "DAY",
                                         "byPeriod": [
                                           {
                                             "date": "2025-10-10",
@@ -310,9 +519,15 @@ public class ExpenseFilterController extends BaseService {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
             @RequestParam(required = false) Boolean hasReceipt,
             @RequestParam(required = false) Long teamId,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String timeZone
     ) {
         Long userId = getAuthenticatedUser().getId();
 
@@ -329,12 +544,16 @@ public class ExpenseFilterController extends BaseService {
                 .toDate(effectiveToDate)
                 .minAmount(minAmount)
                 .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
                 .hasReceipt(hasReceipt)
                 .teamId(teamId)
                 .search(search)
                 .build();
 
-        TimeSeriesStatsDto stats = filterService.getTimeSeriesStatistics(userId, request);
+        TimeSeriesStatsDto stats = filterService.getTimeSeriesStatistics(userId, request, granularity, timeZone);
 
         return ResponseEntity.ok(
                 new ApiResponse<>(true, "Time series statistics retrieved successfully", stats)
@@ -409,6 +628,10 @@ public class ExpenseFilterController extends BaseService {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
             @RequestParam(required = false) Boolean hasReceipt,
             @RequestParam(required = false) Long teamId,
             @RequestParam(required = false) String search
@@ -423,6 +646,10 @@ public class ExpenseFilterController extends BaseService {
                 .toDate(toDate)
                 .minAmount(minAmount)
                 .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
                 .hasReceipt(hasReceipt)
                 .teamId(teamId)
                 .search(search)
@@ -434,5 +661,386 @@ public class ExpenseFilterController extends BaseService {
                 new ApiResponse<>(true, "Category pie chart statistics retrieved successfully", stats)
         );
     }
-}
 
+    @Operation(
+            summary = "Get the dashboard in one request",
+            description = """
+                    Returns what the dashboard otherwise loads with /stats, /time-series-stats, /category-pie-stats,
+                    /items and the team time-series and category-pie endpoints, for one filter, in a single response.
+                    
+                    **Scopes** (`scopes`, repeatable or comma-separated):
+                    - `personal`: stats, time series, category pie and the first page of items (`limit`, default 20)
+                    - `team:<id>`: time series and category pie of the team, as returned by the team endpoints
+                    - Omitted: personal plus every team of the user (at most 20 teams)
+                    
+                    Team membership is checked once for all scopes (403 if any team is not the user's), then the
+                    queries run in parallel. Accepts the same filters as /stats, plus granularity and timeZone
+                    for the time series.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Dashboard retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Dashboard retrieved successfully",
+                                      "data": {
+                                        "personal": {
+                                          "stats": {
+                                            "totalAmount": 500.0,
+                                            "count": 10,
+                                            "byCategory": {"1": 300.0, "2": 200.0},
+                                            "byDate": [{"date": "2025-10-10", "totalAmount": 500.0, "count": 10}]
+                                          },
+                                          "timeSeries": {
+                                            "totalAmount": 500.0,
+                                            "count": 10,
+                                            "granularity": "MONTH",
+                                            "byPeriod": [{"date": "2025-10-01", "totalAmount": 500.0, "count": 10}]
+                                          },
+                                          "categoryPie": {
+                                            "totalAmount": 500.0,
+                                            "totalCount": 10,
+                                            "categories": [
+                                              {"categoryId": 1, "categoryName": "Food", "amount": 300.0, "percentage": 60.00},
+                                              {"categoryId": 2, "categoryName": "Transport", "amount": 200.0, "percentage": 40.00}
+                                            ]
+                                          },
+                                          "items": {
+                                            "items": [],
+                                            "nextCursor": null,
+                                            "hasNext": false,
+                                            "size": 0
+                                          }
+                                        },
+                                        "teams": [
+                                          {
+                                            "teamId": 1,
+                                            "timeSeries": {
+                                              "totalAmount": 120.0,
+                                              "count": 2,
+                                              "granularity": "MONTH",
+                                              "byPeriod": [{"date": "2025-10-01", "totalAmount": 120.0, "count": 2}]
+                                            },
+                                            "categoryPie": {
+                                              "totalAmount": 120.0,
+                                              "totalCount": 2,
+                                              "categories": [
+                                                {"categoryId": 1, "categoryName": "Food", "amount": 120.0, "percentage": 100.00}
+                                              ]
+                                            }
+                                          }
+                                        ]
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter parameters or scopes",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "User is not a member of a requested team",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Too many dashboard requests in progress",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/dashboard")
+    public ResponseEntity<ApiResponse<DashboardDto>> getDashboard(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false, defaultValue = "exact") String categoryMatch,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
+            @RequestParam(required = false) Boolean hasReceipt,
+            @RequestParam(required = false) Long teamId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<String> scopes,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String timeZone,
+            @RequestParam(required = false, defaultValue = "20") Integer limit
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .categoryId(categoryId)
+                .category(category)
+                .categoryMatch(categoryMatch)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
+                .hasReceipt(hasReceipt)
+                .teamId(teamId)
+                .search(search)
+                .build();
+
+        DashboardDto dashboard = dashboardService.getDashboard(userId, request, scopes, granularity, timeZone, limit);
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Dashboard retrieved successfully", dashboard)
+        );
+    }
+
+    @Operation(
+            summary = "Compare a period with the previous one",
+            description = """
+                    Returns current versus previous totals, per category and per time bucket, with deltas
+                    and trailing moving averages, computed in a single query.
+                    
+                    **Periods**:
+                    - fromDate and toDate (required) define the current period
+                    - compareTo=previous (default): the same number of days right before it, or the same number of
+                      calendar months when the period covers whole months (e.g. March vs February)
+                    - compareTo=year: the same dates one year earlier (periods up to one year)
+                    
+                    **Buckets** (`granularity`: day (default), week, month, quarter, year):
+                    - byPeriod has one entry per bucket of the longer of the two periods, including empty ones
+                    - Bucket N of the current period is lined up with bucket N of the previous period; currentDate or
+                      previousDate is null when that period is too short to have the bucket
+                    - currentMovingAverage/previousMovingAverage average the amounts of the last `movingAverageWindow`
+                      buckets (default 7, max 90)
+                    
+                    **Deltas**: deltaAmount = current - previous; deltaPercent is relative to previous and null when previous is 0.
+                    
+                    Accepts the same filters as /stats; other date filters (dateRanges) further restrict both periods.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Comparison statistics retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Comparison statistics retrieved successfully",
+                                      "data": {
+                                        "currentFrom": "2025-10-01",
+                                        "currentTo": "2025-10-31",
+                                        "previousFrom": "2025-09-01",
+                                        "previousTo": "2025-09-30",
+                                        "granularity": "WEEK",
+                                        "movingAverageWindow": 2,
+                                        "currentAmount": 500.0,
+                                        "previousAmount": 400.0,
+                                        "deltaAmount": 100.0,
+                                        "deltaPercent": 25.00,
+                                        "currentCount": 10,
+                                        "previousCount": 8,
+                                        "byCategory": [
+                                          {
+                                            "categoryId": 1,
+                                            "categoryName": "Food",
+                                            "currentAmount": 300.0,
+                                            "previousAmount": 200.0,
+                                            "deltaAmount": 100.0,
+                                            "deltaPercent": 50.00,
+                                            "currentCount": 6,
+                                            "previousCount": 4
+                                          }
+                                        ],
+                                        "byPeriod": [
+                                          {
+                                            "currentDate": "2025-10-01",
+                                            "previousDate": "2025-09-01",
+                                            "currentAmount": 120.0,
+                                            "previousAmount": 0,
+                                            "deltaAmount": 120.0,
+                                            "deltaPercent": null,
+                                            "currentCount": 3,
+                                            "previousCount": 0,
+                                            "currentMovingAverage": 120.00,
+                                            "previousMovingAverage": 0.00
+                                          }
+                                        ]
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Missing period or invalid parameters",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/comparison-stats")
+    public ResponseEntity<ApiResponse<ComparisonStatsDto>> getComparisonStatistics(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false, defaultValue = "exact") String categoryMatch,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> teamIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
+            @RequestParam(required = false) Boolean hasReceipt,
+            @RequestParam(required = false) Long teamId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String compareTo,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) Integer movingAverageWindow
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .categoryId(categoryId)
+                .category(category)
+                .categoryMatch(categoryMatch)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
+                .hasReceipt(hasReceipt)
+                .teamId(teamId)
+                .search(search)
+                .build();
+
+        ComparisonStatsDto stats = filterService.getComparisonStatistics(
+                userId, request, compareTo, granularity, movingAverageWindow
+        );
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Comparison statistics retrieved successfully", stats)
+        );
+    }
+
+    @Operation(
+            summary = "Get amount distribution",
+            description = """
+                    Returns count, total, min, max, median, p90, p99 and a histogram of expense amounts, overall and
+                    per category, for the caller's expenses.
+                    
+                    **Parameters**:
+                    - fromDate/toDate: optional inclusive date range; expenses without a date are only included when both are omitted
+                    - categoryIds: optional category restriction
+                    - buckets: ascending histogram boundaries (e.g. `buckets=20,50,100`); defaults to the configured ones.
+                      Buckets are [from, to) with an open-ended bucket below the first and above the last boundary
+                    
+                    Percentiles and bucket counts are estimated from per-month t-digest sketches and are exact for
+                    small sets; count, totalAmount, min and max are exact. Sketches are refreshed right after each write.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Amount distribution retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Amount distribution retrieved successfully",
+                                      "data": {
+                                        "fromDate": "2025-01-01",
+                                        "toDate": "2025-12-31",
+                                        "count": 4,
+                                        "totalAmount": 190.00,
+                                        "minAmount": 10.00,
+                                        "maxAmount": 120.00,
+                                        "median": 30.00,
+                                        "p90": 120.00,
+                                        "p99": 120.00,
+                                        "histogram": [
+                                          { "from": null, "to": 50, "count": 3 },
+                                          { "from": 50, "to": 100, "count": 0 },
+                                          { "from": 100, "to": null, "count": 1 }
+                                        ],
+                                        "byCategory": [
+                                          {
+                                            "categoryId": 1,
+                                            "categoryName": "Food",
+                                            "count": 4,
+                                            "totalAmount": 190.00,
+                                            "minAmount": 10.00,
+                                            "maxAmount": 120.00,
+                                            "median": 30.00,
+                                            "p90": 120.00,
+                                            "p99": 120.00,
+                                            "histogram": [
+                                              { "from": null, "to": 50, "count": 3 },
+                                              { "from": 50, "to": 100, "count": 0 },
+                                              { "from": 100, "to": null, "count": 1 }
+                                            ]
+                                          }
+                                        ]
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid date range or bucket boundaries",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/distribution-stats")
+    public ResponseEntity<ApiResponse<AmountDistributionDto>> getDistributionStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<BigDecimal> buckets
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        AmountDistributionDto stats = distributionService.getDistribution(
+                userId, fromDate, toDate, categoryIds, buckets
+        );
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Amount distribution retrieved successfully", stats)
+        );
+    }
+}
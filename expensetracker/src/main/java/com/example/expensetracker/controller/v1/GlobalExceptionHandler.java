@@ -18,8 +18,10 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(AppException.class)
     public ResponseEntity<ErrorResponse> handleAppException(AppException ex) {
         log.debug("Application exception: {}", ex.getMessage(), ex);
+        // Fixed, so that clients accepting only a download or stream type still get the error body
         return ResponseEntity
                 .status(ex.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ErrorResponse.of(ex.getStatus().value(), ex.getMessage()));
     }
 
@@ -0,0 +1,225 @@
+package com.example.expensetracker.controller.v1;
+
+import com.example.expensetracker.dto.ReportJobDto;
+import com.example.expensetracker.dto.ReportJobRequest;
+import com.example.expensetracker.enums.ReportType;
+import com.example.expensetracker.response.ApiResponse;
+import com.example.expensetracker.response.ErrorResponse;
+import com.example.expensetracker.service.BaseService;
+import com.example.expensetracker.service.ReportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/report-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Report Jobs", description = "Asynchronous stats and export reports for long date ranges and large teams")
+@SecurityRequirement(name = "BearerAuth")
+public class ReportJobController extends BaseService {
+
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ReportJobService reportJobService;
+
+    @Operation(
+            summary = "Submit a report job",
+            description = """
+                    Queues a stats or export report and returns its job right away (202), with the job URL in Location.
+
+                    **Types**: STATS, TIME_SERIES, CATEGORY_PIE, COMPARISON, MEMBER_STATS (teamId required),
+                    EXPORT_NDJSON, EXPORT_CSV, EXPORT_PDF, EXPORT_XLSX. `filter` takes the same fields as the synchronous endpoints' query
+                    parameters (dateRanges as `{"from", "to"}`, amountBuckets as `{"min", "max"}`); granularity,
+                    timeZone, compareTo, movingAverageWindow and top apply to the reports that use them.
+                    A `teamId` runs the team variant of TIME_SERIES, CATEGORY_PIE, MEMBER_STATS and the CSV,
+                    PDF and XLSX exports (OWNER or ADMIN only); `totals` adds page subtotals and running totals to EXPORT_PDF.
+
+                    **Limits**: submitting a request identical to one of your queued or running jobs returns that job.
+                    An export identical to one that finished moments ago returns the finished job instead of running again.
+                    At most a few jobs per user may be unfinished (429 beyond that); 503 when the queue is full.
+                    Finished jobs and their results expire after a short time (expiresAt).
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "202",
+                    description = "Report job queued",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Report job queued",
+                                      "data": {
+                                        "id": "3f2b8c1e-5d7a-4c1b-9a0e-2b6f4d8e1a90",
+                                        "type": "TIME_SERIES",
+                                        "teamId": null,
+                                        "status": "QUEUED",
+                                        "createdAt": "2025-10-10T20:00:00Z",
+                                        "startedAt": null,
+                                        "finishedAt": null,
+                                        "expiresAt": null,
+                                        "error": null,
+                                        "resultUrl": null
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid report request",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "User is not a member of the team",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "429",
+                    description = "Too many unfinished report jobs",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Report queue is full",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping
+    public ResponseEntity<ApiResponse<ReportJobDto>> submit(@Valid @RequestBody ReportJobRequest request) {
+        Long userId = getAuthenticatedUser().getId();
+        ReportJobDto job = reportJobService.submit(userId, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/report-jobs/" + job.getId()))
+                .body(new ApiResponse<>(true, "Report job queued", job));
+    }
+
+    @Operation(
+            summary = "Get report job status",
+            description = "Returns the job's status (QUEUED, RUNNING, SUCCEEDED, FAILED). "
+                    + "Once SUCCEEDED, resultUrl points to the result; once FAILED, error holds the reason.",
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Report job retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Report job not found or expired",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJobDto>> get(@PathVariable String jobId) {
+        Long userId = getAuthenticatedUser().getId();
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Report job retrieved successfully", reportJobService.get(userId, jobId))
+        );
+    }
+
+    @Operation(
+            summary = "Subscribe to report job completion",
+            description = """
+                    Server-sent events: a `status` event with the current job right away, then one `succeeded` or
+                    `failed` event with the finished job, after which the stream closes.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Report job not found or expired",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable String jobId) {
+        Long userId = getAuthenticatedUser().getId();
+        return reportJobService.subscribe(userId, jobId);
+    }
+
+    @Operation(
+            summary = "Get report job result",
+            description = """
+                    Stats reports return the same payload as their synchronous endpoint, wrapped in the usual response.
+                    Exports return the file as an attachment: NDJSON and CSV gzip-compressed, PDF and XLSX as is.
+                    The file never changes for a given job, so downloads can be resumed with `Range`
+                    (206 Partial Content) and revalidated with `If-None-Match` against the ETag.
+                    A failed job answers with the report's own error status and message.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Report result",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "206",
+                    description = "Requested byte range of an export"
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Report job not found or expired",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "409",
+                    description = "Report job is still queued or running",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> getResult(@PathVariable String jobId) {
+        Long userId = getAuthenticatedUser().getId();
+        ReportJobService.Result result = reportJobService.result(userId, jobId);
+
+        if (result.file() == null) {
+            return ResponseEntity.ok(new ApiResponse<>(true, "Report result retrieved successfully", result.data()));
+        }
+
+        ReportType type = result.type();
+        MediaType mediaType = type.isCompressed()
+                ? MediaType.parseMediaType("application/gzip")
+                : type == ReportType.EXPORT_XLSX ? XLSX : MediaType.APPLICATION_PDF;
+        // Spring answers Range and If-None-Match itself; the ETag names the job, whose file never changes
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .eTag("\"" + result.jobId() + "\"")
+                .lastModified(result.finishedAt())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses-report." + type.artifactExtension() + "\"")
+                .body(new FileSystemResource(result.file()));
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.expensetracker.controller.v1;
 
+import com.example.expensetracker.dto.AmountDistributionDto;
+import com.example.expensetracker.dto.AmountRange;
 import com.example.expensetracker.dto.CreateExpenseRequest;
 import com.example.expensetracker.dto.CursorPageResponse;
+import com.example.expensetracker.dto.DateRange;
+import com.example.expensetracker.dto.ExpenseFilterParams;
 import com.example.expensetracker.dto.ExpenseFilterRequest;
 import com.example.expensetracker.dto.ExpenseResponse;
+import com.example.expensetracker.dto.ReportJobDto;
+import com.example.expensetracker.dto.TeamMemberStatsDto;
 import com.example.expensetracker.dto.TimeSeriesStatsDto;
 import com.example.expensetracker.dto.CategoryPieStatsDto;
 import com.example.expensetracker.exception.AppException;
+import com.example.expensetracker.exporters.ExportCompression;
+import com.example.expensetracker.service.ExpenseDistributionService;
 import com.example.expensetracker.service.ExpenseFilterService;
 import com.example.expensetracker.response.ApiResponse;
 import com.example.expensetracker.response.ErrorResponse;
 import com.example.expensetracker.service.BaseService;
 import com.example.expensetracker.service.ExportService;
+import com.example.expensetracker.service.ReportJobService;
 import com.example.expensetracker.service.TeamExpenseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -23,15 +32,21 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/teams/{teamId}/expenses")
@@ -40,9 +55,15 @@ import java.time.LocalDate;
 @SecurityRequirement(name = "BearerAuth")
 public class TeamExpenseController extends BaseService {
 
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     private final TeamExpenseService teamExpenseService;
     private final ExportService exportService;
+    private final ExportCompression exportCompression;
     private final ExpenseFilterService expenseFilterService;
+    private final ExpenseDistributionService distributionService;
+    private final ReportJobService reportJobService;
 
     @Operation(
             summary = "List team expenses",
@@ -147,7 +168,10 @@ public class TeamExpenseController extends BaseService {
 
     @Operation(
             summary = "Export team expenses to CSV",
-            description = "Exports all team expenses to CSV format. Requires OWNER or ADMIN role.",
+            description = "Exports team expenses to CSV format. Requires OWNER or ADMIN role. "
+                    + "Takes the filter parameters of /api/v1/expenses/filter-service/items (except cursor, limit and teamId); "
+                    + "the applied filter is printed at the top of the file. "
+                    + "Sent zstd- or gzip-compressed when Accept-Encoding allows it.",
             security = @SecurityRequirement(name = "BearerAuth")
     )
     @ApiResponses(value = {
@@ -170,14 +194,21 @@ public class TeamExpenseController extends BaseService {
     @GetMapping("/export/csv")
     public void exportToCsv(
             @PathVariable Long teamId,
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
             HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        Long userId = getAuthenticatedUser().getId();
+        exportService.checkTeamExport(userId, teamId, request);
         response.setContentType("text/csv; charset=UTF-8");
         response.setCharacterEncoding("UTF-8");
         response.setHeader("Content-Disposition", "attachment; filename=\"team-expenses.csv\"");
 
-        try (Writer writer = response.getWriter()) {
-            Long userId = getAuthenticatedUser().getId();
-            exportService.exportTeamExpensesToCsv(userId, teamId, writer);
+        try (Writer writer = new OutputStreamWriter(
+                exportCompression.open(response, acceptEncoding, "csv"), StandardCharsets.UTF_8)) {
+            exportService.exportTeamExpensesToCsv(userId, teamId, request, writer);
+        } catch (AppException e) {
+            throw e;
         } catch (Exception e) {
             throw new AppException("Error exporting team expenses to CSV", HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -185,7 +216,10 @@ public class TeamExpenseController extends BaseService {
 
     @Operation(
             summary = "Export team expenses to PDF",
-            description = "Exports all team expenses to PDF format. Requires OWNER or ADMIN role.",
+            description = "Exports team expenses to PDF format. Requires OWNER or ADMIN role. "
+                    + "Takes the filter parameters of /api/v1/expenses/filter-service/items (except cursor, limit and teamId); "
+                    + "the applied filter is printed at the top of the file. "
+                    + "With totals=true each page ends with its subtotal and the running total.",
             security = @SecurityRequirement(name = "BearerAuth")
     )
     @ApiResponses(value = {
@@ -208,22 +242,166 @@ public class TeamExpenseController extends BaseService {
     @GetMapping("/export/pdf")
     public void exportToPdf(
             @PathVariable Long teamId,
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestParam(defaultValue = "false") boolean totals,
             HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        Long userId = getAuthenticatedUser().getId();
+        exportService.checkTeamExport(userId, teamId, request);
         response.setContentType("application/pdf");
         response.setHeader("Content-Disposition", "attachment; filename=\"team-expenses.pdf\"");
 
         try (OutputStream outputStream = response.getOutputStream()) {
-            Long userId = getAuthenticatedUser().getId();
-            exportService.exportTeamExpensesToPdf(userId, teamId, outputStream);
+            exportService.exportTeamExpensesToPdf(userId, teamId, request, outputStream, totals);
+        } catch (AppException e) {
+            throw e;
         } catch (Exception e) {
             throw new AppException("Error exporting team expenses to PDF", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @Operation(
+            summary = "Export team expenses to XLSX",
+            description = "Exports team expenses to an XLSX workbook with typed date and amount cells and a totals row. "
+                    + "Takes the filter parameters of /api/v1/expenses/filter-service/items (except cursor, limit and teamId); "
+                    + "the applied filter is printed at the top of the file. "
+                    + "Requires OWNER or ADMIN role.",
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Team expenses exported successfully",
+                    content = @Content(mediaType = XLSX_CONTENT_TYPE)
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "Insufficient permissions - requires OWNER or ADMIN role",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Team not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/export/xlsx")
+    public void exportToXlsx(
+            @PathVariable Long teamId,
+            @ParameterObject ExpenseFilterParams filter,
+            HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        Long userId = getAuthenticatedUser().getId();
+        exportService.checkTeamExport(userId, teamId, request);
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"team-expenses.xlsx\"");
+
+        try (OutputStream outputStream = response.getOutputStream()) {
+            exportService.exportTeamExpensesToXlsx(userId, teamId, request, outputStream);
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppException("Error exporting team expenses to XLSX", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Operation(
+            summary = "Export team expenses to JSON Lines",
+            description = "Exports team expenses as JSON Lines, one expense per line. "
+                    + "Takes the filter parameters of /api/v1/expenses/filter-service/items (except cursor, limit and teamId); "
+                    + "a filtered export starts with a {\"filter\": ...} line. "
+                    + "Sent zstd- or gzip-compressed when Accept-Encoding allows it. "
+                    + "Requires OWNER or ADMIN role.",
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Team expenses exported successfully",
+                    content = @Content(mediaType = "application/x-ndjson")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "Insufficient permissions - requires OWNER or ADMIN role",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Team not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/export/jsonl")
+    public void exportToJsonLines(
+            @PathVariable Long teamId,
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        ExpenseFilterRequest request = filter.toRequest();
+        Long userId = getAuthenticatedUser().getId();
+        exportService.checkTeamExport(userId, teamId, request);
+        response.setContentType("application/x-ndjson");
+        response.setHeader("Content-Disposition", "attachment; filename=\"team-expenses.jsonl\"");
+
+        try (OutputStream outputStream = exportCompression.open(response, acceptEncoding, "jsonl")) {
+            exportService.exportTeamExpensesToJsonLines(userId, teamId, request, outputStream);
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppException("Error exporting team expenses to JSON Lines", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Operation(
+            summary = "Start a background export of team expenses",
+            description = """
+                    Queues a CSV (gzip-compressed), PDF or XLSX export as a report job and returns it right away (202),
+                    with the job URL in Location. Follow the job with GET /api/v1/report-jobs/{jobId} or its
+                    events stream, then download the file from its resultUrl; the download can be resumed with Range.
+                    With totals=true each PDF page ends with its subtotal and the running total. Requires OWNER or ADMIN role.
+                    Takes the filter parameters of /api/v1/expenses/filter-service/items (except cursor, limit and teamId).
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "202",
+                    description = "Export job queued",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported export format",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "Insufficient permissions - requires OWNER or ADMIN role",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "429",
+                    description = "Too many unfinished report jobs",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/export/jobs")
+    public ResponseEntity<ApiResponse<ReportJobDto>> submitExportJob(
+            @PathVariable Long teamId,
+            @ParameterObject ExpenseFilterParams filter,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean totals) {
+        Long userId = getAuthenticatedUser().getId();
+        ReportJobDto job = reportJobService.submitExport(userId, teamId, format, totals, filter.toRequest());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/report-jobs/" + job.getId()))
+                .body(new ApiResponse<>(true, "Export job queued", job));
+    }
+
     @Operation(
             summary = "Get team time series statistics",
             description = """
-                    Retrieves time series statistics for team expenses grouped by day.
+                    Retrieves time series statistics for team expenses grouped by day, or by week, month, quarter or year.
                     
                     **Date filtering logic**:
                     - No dates: Returns statistics for all team expenses
@@ -233,7 +411,14 @@ public class TeamExpenseController extends BaseService {
                     **Response format**:
                     - totalAmount: Total sum of all expenses in the period
                     - count: Total number of expenses
-                    - byPeriod: Array of daily statistics (date, totalAmount, count), sorted by date ascending
+                    - granularity: Bucket size that was applied (DAY when not requested)
+                    - byPeriod: Array of per-bucket statistics (date, totalAmount, count), sorted by date ascending
+                    
+                    **Granularity** (optional `granularity`: day, week, month, quarter, year):
+                    - Buckets are computed in the database; `date` is the first day of the bucket (weeks start on Monday)
+                    - Empty buckets from fromDate (or the first bucket with data) to toDate (or today in `timeZone`) are filled with zero totals
+                    - Without it, byPeriod has one entry per day that has expenses
+                    - `timeZone` is an IANA zone such as Europe/Kyiv; defaults to the server zone
                     
                     Requires team membership.
                     """,
@@ -253,6 +438,7 @@ public class TeamExpenseController extends BaseService {
                                       "data": {
                                         "totalAmount": 150.0,
                                         "count": 5,
+                                        "granularity": "DAY",
                                         "byPeriod": [
                                           {
                                             "date": "2025-10-10",
@@ -296,8 +482,13 @@ public class TeamExpenseController extends BaseService {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
             @RequestParam(required = false) Boolean hasReceipt,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String timeZone
     ) {
         Long userId = getAuthenticatedUser().getId();
 
@@ -314,11 +505,14 @@ public class TeamExpenseController extends BaseService {
                 .toDate(effectiveToDate)
                 .minAmount(minAmount)
                 .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
                 .hasReceipt(hasReceipt)
                 .search(search)
                 .build();
 
-        TimeSeriesStatsDto stats = expenseFilterService.getTeamTimeSeriesStatistics(userId, teamId, request);
+        TimeSeriesStatsDto stats = expenseFilterService.getTeamTimeSeriesStatistics(userId, teamId, request, granularity, timeZone);
 
         return ResponseEntity.ok(
                 new ApiResponse<>(true, "Team time series statistics retrieved successfully", stats)
@@ -400,6 +594,9 @@ public class TeamExpenseController extends BaseService {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
             @RequestParam(required = false) Boolean hasReceipt,
             @RequestParam(required = false) String search
     ) {
@@ -413,6 +610,9 @@ public class TeamExpenseController extends BaseService {
                 .toDate(toDate)
                 .minAmount(minAmount)
                 .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
                 .hasReceipt(hasReceipt)
                 .search(search)
                 .build();
@@ -423,5 +623,215 @@ public class TeamExpenseController extends BaseService {
                 new ApiResponse<>(true, "Team category pie chart statistics retrieved successfully", stats)
         );
     }
-}
 
+    @Operation(
+            summary = "Get team amount distribution",
+            description = """
+                    Returns count, total, min, max, median, p90, p99 and a histogram of expense amounts, overall and
+                    per category, for all expenses recorded in the team by any member.
+                    
+                    Accepts fromDate/toDate, categoryIds and buckets with the same meaning as
+                    /api/v1/expenses/filter-service/distribution-stats. Requires team membership.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Team amount distribution retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Team amount distribution retrieved successfully",
+                                      "data": {
+                                        "fromDate": null,
+                                        "toDate": null,
+                                        "count": 12,
+                                        "totalAmount": 840.00,
+                                        "minAmount": 5.00,
+                                        "maxAmount": 310.00,
+                                        "median": 42.50,
+                                        "p90": 180.00,
+                                        "p99": 310.00,
+                                        "histogram": [
+                                          { "from": null, "to": 100, "count": 10 },
+                                          { "from": 100, "to": null, "count": 2 }
+                                        ],
+                                        "byCategory": []
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid date range or bucket boundaries",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "User is not a member of the team",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Team not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/distribution-stats")
+    public ResponseEntity<ApiResponse<AmountDistributionDto>> getTeamDistributionStatistics(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<BigDecimal> buckets
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        AmountDistributionDto stats = distributionService.getTeamDistribution(
+                userId, teamId, fromDate, toDate, categoryIds, buckets
+        );
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Team amount distribution retrieved successfully", stats)
+        );
+    }
+
+    @Operation(
+            summary = "Get per-member team spend",
+            description = """
+                    Returns who spent what in the team: total amount, expense count, share of the team total and
+                    category split for each member, computed in a single grouped query.
+                    
+                    **Top N**: members are ranked by amount; the first `top` (default 10, max 100) are listed in
+                    `members`, everyone else is combined into `others` (null when nobody is left out), whose
+                    memberCount says how many members it holds.
+                    
+                    Covers the expenses of all members in the team and supports the same filters as the other team
+                    stats endpoints. Category percentages are relative to the member's own amount.
+                    Requires the OWNER or ADMIN role.
+                    """,
+            security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Team member statistics retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponse.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "success": true,
+                                      "message": "Team member statistics retrieved successfully",
+                                      "data": {
+                                        "teamId": 1,
+                                        "totalAmount": 1000.00,
+                                        "totalCount": 20,
+                                        "memberCount": 3,
+                                        "members": [
+                                          {
+                                            "userId": 2,
+                                            "username": "Bob",
+                                            "memberCount": 1,
+                                            "amount": 600.00,
+                                            "count": 12,
+                                            "percentage": 60.00,
+                                            "categories": [
+                                              {
+                                                "categoryId": 1,
+                                                "categoryName": "Food",
+                                                "amount": 450.00,
+                                                "percentage": 75.00
+                                              },
+                                              {
+                                                "categoryId": 2,
+                                                "categoryName": "Transport",
+                                                "amount": 150.00,
+                                                "percentage": 25.00
+                                              }
+                                            ]
+                                          }
+                                        ],
+                                        "others": {
+                                          "userId": null,
+                                          "username": null,
+                                          "memberCount": 2,
+                                          "amount": 400.00,
+                                          "count": 8,
+                                          "percentage": 40.00,
+                                          "categories": [
+                                            {
+                                              "categoryId": 1,
+                                              "categoryName": "Food",
+                                              "amount": 400.00,
+                                              "percentage": 100.00
+                                            }
+                                          ]
+                                        }
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter parameters or top",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "403",
+                    description = "User is not an owner or admin of the team",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Team not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/member-stats")
+    public ResponseEntity<ApiResponse<TeamMemberStatsDto>> getTeamMemberStatistics(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false, defaultValue = "exact") String categoryMatch,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<String> dateRanges,
+            @RequestParam(required = false) List<String> amountBuckets,
+            @RequestParam(required = false) Boolean hasReceipt,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer top
+    ) {
+        Long userId = getAuthenticatedUser().getId();
+
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .categoryId(categoryId)
+                .category(category)
+                .categoryMatch(categoryMatch)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
+                .hasReceipt(hasReceipt)
+                .search(search)
+                .build();
+
+        TeamMemberStatsDto stats = expenseFilterService.getTeamMemberStatistics(userId, teamId, request, top);
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, "Team member statistics retrieved successfully", stats)
+        );
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.expensetracker.controller.v1;
 
 import com.example.expensetracker.dto.UserDto;
+import com.example.expensetracker.exception.AppException;
 import com.example.expensetracker.response.ApiResponse;
 import com.example.expensetracker.response.ErrorResponse;
+import com.example.expensetracker.service.AccountExportService;
 import com.example.expensetracker.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +12,17 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -25,7 +32,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
-
+    private final AccountExportService accountExportService;
 
     @Operation(summary = "Get current user", description = "Retrieves information about the currently authenticated user.")
     @ApiResponses(value = {
@@ -65,6 +72,51 @@ public class UserController {
         );
     }
 
+    @Operation(
+            summary = "Export all of your account data",
+            description = """
+                    Streams a ZIP archive with account.json, your expenses (expenses.csv, or expenses.jsonl with
+                    format=jsonl), categories.json, teams.json and every receipt file under receipts/, named after
+                    the expense it belongs to. Receipts whose file is missing from storage are left out.
+                    """
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Archive streamed",
+                    content = @Content(mediaType = "application/zip")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported expense format",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/me/export")
+    public void exportAccount(
+            Authentication auth,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        AccountExportService.Format expenseFormat = AccountExportService.Format.of(format);
+        UserDto current = userService.getCurrentUser(auth);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"expensetracker-" + LocalDate.now() + ".zip\"");
+
+        try (OutputStream outputStream = response.getOutputStream()) {
+            accountExportService.exportAccount(current, expenseFormat, outputStream);
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppException("Error exporting account data", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @Operation(summary = "Get all users", description = "Retrieves all registered users. Requires admin privileges.")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -0,0 +1,28 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmountDistributionDto {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Long count;
+    private BigDecimal totalAmount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private BigDecimal median;
+    private BigDecimal p90;
+    private BigDecimal p99;
+    private List<HistogramBucket> histogram;
+    private List<DistributionStat> byCategory;
+}
@@ -0,0 +1,52 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Half-open amount bucket {@code [min, max)}. A null {@code max} means no upper bound, so
+ * adjacent buckets such as {@code 0-50} and {@code 50-100} never count an expense twice.
+ * Query parameter form is {@code min-max} or {@code min-}.
+ */
+public record AmountRange(BigDecimal min, BigDecimal max) {
+
+    public AmountRange {
+        if (min == null || min.signum() < 0) {
+            throw new ValidationException("Amount bucket needs a non-negative lower bound");
+        }
+        if (max != null && max.compareTo(min) <= 0) {
+            throw new ValidationException("Amount bucket upper bound must be greater than its lower bound: " + min + "-" + max);
+        }
+    }
+
+    public static AmountRange parse(String value) {
+        int separator = value == null ? -1 : value.indexOf('-');
+        if (separator <= 0) {
+            throw new ValidationException("Amount bucket must have the form min-max or min-: " + value);
+        }
+        BigDecimal min = parseBound(value.substring(0, separator));
+        BigDecimal max = parseBound(value.substring(separator + 1));
+        return new AmountRange(min, max);
+    }
+
+    public static List<AmountRange> parseAll(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().map(AmountRange::parse).toList();
+    }
+
+    private static BigDecimal parseBound(String bound) {
+        String trimmed = bound.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(trimmed);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid amount in amount bucket: " + trimmed);
+        }
+    }
+}
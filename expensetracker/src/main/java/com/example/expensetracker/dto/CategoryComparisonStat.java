@@ -0,0 +1,23 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryComparisonStat {
+    private Long categoryId;
+    private String categoryName;
+    private BigDecimal currentAmount;
+    private BigDecimal previousAmount;
+    private BigDecimal deltaAmount;
+    private BigDecimal deltaPercent; // null when the previous amount is zero
+    private Long currentCount;
+    private Long previousCount;
+}
@@ -0,0 +1,32 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.enums.TimeGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComparisonStatsDto {
+    private LocalDate currentFrom;
+    private LocalDate currentTo;
+    private LocalDate previousFrom;
+    private LocalDate previousTo;
+    private TimeGranularity granularity;
+    private Integer movingAverageWindow;
+    private BigDecimal currentAmount;
+    private BigDecimal previousAmount;
+    private BigDecimal deltaAmount;
+    private BigDecimal deltaPercent; // null when the previous amount is zero
+    private Long currentCount;
+    private Long previousCount;
+    private List<CategoryComparisonStat> byCategory;
+    private List<PeriodComparisonStat> byPeriod;
+}
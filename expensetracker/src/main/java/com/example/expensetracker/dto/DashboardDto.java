@@ -0,0 +1,17 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    private PersonalDashboardDto personal; // null when the personal scope was not requested
+    private List<TeamDashboardDto> teams;
+}
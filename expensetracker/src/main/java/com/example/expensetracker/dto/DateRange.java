@@ -0,0 +1,78 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.exception.ValidationException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Inclusive date range used by multi-range filters. Either bound may be null (open-ended).
+ * Query parameter form is {@code from..to}, e.g. {@code 2025-01-01..2025-01-31} or {@code ..2024-12-31}.
+ */
+public record DateRange(LocalDate from, LocalDate to) {
+
+    private static final String SEPARATOR = "..";
+
+    public DateRange {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("Date range start cannot be after its end: " + from + SEPARATOR + to);
+        }
+    }
+
+    public static DateRange parse(String value) {
+        int separator = value == null ? -1 : value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new ValidationException("Date range must have the form from..to: " + value);
+        }
+        LocalDate from = parseBound(value.substring(0, separator));
+        LocalDate to = parseBound(value.substring(separator + SEPARATOR.length()));
+        if (from == null && to == null) {
+            throw new ValidationException("Date range needs at least one bound: " + value);
+        }
+        return new DateRange(from, to);
+    }
+
+    public static List<DateRange> parseAll(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().map(DateRange::parse).toList();
+    }
+
+    /**
+     * Sorts the ranges and merges overlapping or adjacent ones, so the resulting OR-list is
+     * disjoint and as short as possible.
+     */
+    public static List<DateRange> merge(List<DateRange> ranges) {
+        List<DateRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparing(DateRange::from, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        List<DateRange> merged = new ArrayList<>(sorted.size());
+        for (DateRange range : sorted) {
+            DateRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && (last.to == null || range.from == null || !range.from.isAfter(last.to.plusDays(1)))) {
+                LocalDate to = last.to == null || range.to == null ? null
+                        : (range.to.isAfter(last.to) ? range.to : last.to);
+                merged.set(merged.size() - 1, new DateRange(last.from, to));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    private static LocalDate parseBound(String bound) {
+        String trimmed = bound.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid date in date range: " + trimmed);
+        }
+    }
+}
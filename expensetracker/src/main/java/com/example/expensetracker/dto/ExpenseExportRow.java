@@ -0,0 +1,10 @@
+package com.example.expensetracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One exported expense, projected straight from the query so exports never hold managed entities.
+ */
+public record ExpenseExportRow(Long id, LocalDate date, String categoryName, BigDecimal amount, String description) {
+}
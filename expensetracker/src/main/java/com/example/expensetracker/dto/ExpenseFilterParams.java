@@ -0,0 +1,48 @@
+package com.example.expensetracker.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The filter query parameters of {@code /api/v1/expenses/filter-service/items}, without cursor and limit,
+ * bound in one piece for endpoints that take the whole filter (exports).
+ */
+public record ExpenseFilterParams(
+        Long categoryId,
+        String category,
+        String categoryMatch,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        List<Long> categoryIds,
+        List<Long> teamIds,
+        List<String> dateRanges,
+        List<String> amountBuckets,
+        Boolean hasReceipt,
+        Long teamId,
+        String search
+) {
+
+    public ExpenseFilterRequest toRequest() {
+        return ExpenseFilterRequest.builder()
+                .categoryId(categoryId)
+                .category(category)
+                .categoryMatch(categoryMatch)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .categoryIds(categoryIds)
+                .teamIds(teamIds)
+                .dateRanges(DateRange.parseAll(dateRanges))
+                .amountBuckets(AmountRange.parseAll(amountBuckets))
+                .hasReceipt(hasReceipt)
+                .teamId(teamId)
+                .search(search)
+                .build();
+    }
+}
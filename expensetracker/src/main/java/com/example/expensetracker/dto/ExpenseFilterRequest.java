@@ -8,9 +8,12 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExpenseFilterRequest {
@@ -41,6 +44,19 @@ public class ExpenseFilterRequest {
     
     @Positive(message = "Team ID must be positive")
     private Long teamId;
+
+    // Multi-value filters: each list is OR-ed internally and AND-ed with every other filter
+    @Size(max = 100, message = "At most 100 category IDs are allowed")
+    private List<@Positive Long> categoryIds;
+
+    @Size(max = 100, message = "At most 100 team IDs are allowed")
+    private List<@Positive Long> teamIds;
+
+    @Size(max = 24, message = "At most 24 date ranges are allowed")
+    private List<DateRange> dateRanges;
+
+    @Size(max = 24, message = "At most 24 amount buckets are allowed")
+    private List<AmountRange> amountBuckets;
     
     @Size(max = 200, message = "Search term must not exceed 200 characters")
     private String search;
@@ -50,5 +66,47 @@ public class ExpenseFilterRequest {
     @Min(value = 1, message = "Limit must be at least 1")
     @Max(value = 100, message = "Limit must not exceed 100")
     private Integer limit;
+
+    /**
+     * The filters that are set, as {@code name=value} pairs in query parameter form, e.g.
+     * {@code fromDate=2025-01-01, categoryIds=[3, 7], amountBuckets=[0-50, 100-]}; null when nothing
+     * is filtered. Paging fields are not filters and are left out. Printed at the top of exports.
+     */
+    public String describeFilters() {
+        StringJoiner filters = new StringJoiner(", ");
+        addFilter(filters, "categoryId", categoryId);
+        addFilter(filters, "category", category);
+        if (category != null && !category.isBlank()) {
+            addFilter(filters, "categoryMatch", categoryMatch);
+        }
+        addFilter(filters, "fromDate", fromDate);
+        addFilter(filters, "toDate", toDate);
+        addFilter(filters, "minAmount", minAmount);
+        addFilter(filters, "maxAmount", maxAmount);
+        addFilter(filters, "hasReceipt", hasReceipt);
+        addFilter(filters, "teamId", teamId);
+        addFilter(filters, "categoryIds", categoryIds);
+        addFilter(filters, "teamIds", teamIds);
+        addFilter(filters, "dateRanges", dateRanges == null ? null : dateRanges.stream()
+                .map(range -> Objects.toString(range.from(), "") + ".." + Objects.toString(range.to(), ""))
+                .toList());
+        addFilter(filters, "amountBuckets", amountBuckets == null ? null : amountBuckets.stream()
+                .map(bucket -> bucket.min().toPlainString() + "-"
+                        + (bucket.max() != null ? bucket.max().toPlainString() : ""))
+                .toList());
+        addFilter(filters, "search", search);
+        return filters.length() == 0 ? null : filters.toString();
+    }
+
+    private static void addFilter(StringJoiner filters, String name, Object value) {
+        if (value == null
+                || value instanceof String text && text.isBlank()
+                || value instanceof List<?> values && values.isEmpty()) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        // Kept to one line, so it cannot break out of a CSV comment or a spreadsheet cell
+        filters.add(name + "=" + text.trim().replaceAll("\\s+", " "));
+    }
 }
 
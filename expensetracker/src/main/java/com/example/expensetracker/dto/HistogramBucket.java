@@ -0,0 +1,18 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistogramBucket {
+    private BigDecimal from; // inclusive; null for the open-ended first bucket
+    private BigDecimal to; // exclusive; null for the open-ended last bucket
+    private Long count;
+}
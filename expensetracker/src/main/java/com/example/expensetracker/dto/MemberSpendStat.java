@@ -0,0 +1,23 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSpendStat {
+    private Long userId; // null for the others bucket
+    private String username; // null for the others bucket
+    private Integer memberCount;
+    private BigDecimal amount;
+    private Long count;
+    private BigDecimal percentage; // share of the team total
+    private List<CategoryPieStat> categories; // percentages are of this member's amount
+}
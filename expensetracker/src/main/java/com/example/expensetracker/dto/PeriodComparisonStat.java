@@ -0,0 +1,26 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodComparisonStat {
+    private LocalDate currentDate;
+    private LocalDate previousDate;
+    private BigDecimal currentAmount;
+    private BigDecimal previousAmount;
+    private BigDecimal deltaAmount;
+    private BigDecimal deltaPercent; // null when the previous amount is zero
+    private Long currentCount;
+    private Long previousCount;
+    private BigDecimal currentMovingAverage;
+    private BigDecimal previousMovingAverage;
+}
@@ -0,0 +1,17 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonalDashboardDto {
+    private ExpenseStatsDto stats;
+    private TimeSeriesStatsDto timeSeries;
+    private CategoryPieStatsDto categoryPie;
+    private CursorPageResponse<ExpenseFilterItemDto> items; // first page; continue with /items?cursor=
+}
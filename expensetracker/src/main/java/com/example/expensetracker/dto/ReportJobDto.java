@@ -0,0 +1,27 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.enums.ReportJobStatus;
+import com.example.expensetracker.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDto {
+    private String id;
+    private ReportType type;
+    private Long teamId;
+    private ReportJobStatus status;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Instant expiresAt; // set once finished
+    private String error; // set when failed
+    private String resultUrl; // set when succeeded
+}
@@ -0,0 +1,36 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.enums.ReportType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequest {
+    @NotNull(message = "Report type is required")
+    private ReportType type;
+
+    // Runs the team variant of the report; required for MEMBER_STATS
+    @Positive(message = "Team ID must be positive")
+    private Long teamId;
+
+    @Valid
+    private ExpenseFilterRequest filter;
+
+    // Report-specific options, same meaning as on the synchronous endpoints
+    private String granularity;
+    private String timeZone;
+    private String compareTo;
+    private Integer movingAverageWindow;
+    private Integer top;
+
+    // EXPORT_PDF only: page subtotals and running totals
+    private Boolean totals;
+}
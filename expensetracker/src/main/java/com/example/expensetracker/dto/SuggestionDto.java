@@ -0,0 +1,17 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.enums.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+    private String text;
+    private SuggestionType type;
+    private Integer count;
+}
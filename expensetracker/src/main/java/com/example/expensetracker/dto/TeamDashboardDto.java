@@ -0,0 +1,16 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamDashboardDto {
+    private Long teamId;
+    private TimeSeriesStatsDto timeSeries;
+    private CategoryPieStatsDto categoryPie;
+}
@@ -0,0 +1,22 @@
+package com.example.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamMemberStatsDto {
+    private Long teamId;
+    private BigDecimal totalAmount;
+    private Long totalCount;
+    private Integer memberCount;
+    private List<MemberSpendStat> members;
+    private MemberSpendStat others; // null when every member fits in the top N
+}
@@ -0,0 +1,7 @@
+package com.example.expensetracker.dto;
+
+/**
+ * A distinct term and the number of expenses using it, as returned by aggregate projections.
+ */
+public record TermCount(String term, Long count) {
+}
@@ -1,5 +1,6 @@
 package com.example.expensetracker.dto;
 
+import com.example.expensetracker.enums.TimeGranularity;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +16,7 @@ import java.util.List;
 public class TimeSeriesStatsDto {
     private BigDecimal totalAmount;
     private Long count;
+    private TimeGranularity granularity;
     private List<PeriodStat> byPeriod;
 }
 
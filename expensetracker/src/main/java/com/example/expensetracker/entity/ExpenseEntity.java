@@ -40,10 +40,20 @@ public class ExpenseEntity {
     @OneToOne(mappedBy = "expense", cascade = CascadeType.ALL)
     private ReceiptEntity receipt;
 
+    /**
+     * Denormalized copy of {@code receipt != null}, kept in sync by the receipt write paths so
+     * filters and list queries never have to probe the receipts table.
+     */
+    @Column(name = "has_receipt", nullable = false)
+    private Boolean hasReceipt;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
             createdAt = Instant.now();
         }
+        if (hasReceipt == null) {
+            hasReceipt = receipt != null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.expensetracker.enums;
+
+/**
+ * Reports that can run as asynchronous jobs, with whether they take a {@code teamId}.
+ * Stats reports produce the same payload as their synchronous endpoints; exports produce a file,
+ * gzip-compressed for the text formats (PDF and XLSX content is compressed already).
+ */
+public enum ReportType {
+    STATS(TeamScope.NONE, null, false),
+    TIME_SERIES(TeamScope.OPTIONAL, null, false),
+    CATEGORY_PIE(TeamScope.OPTIONAL, null, false),
+    COMPARISON(TeamScope.NONE, null, false),
+    MEMBER_STATS(TeamScope.REQUIRED, null, false),
+    EXPORT_NDJSON(TeamScope.NONE, "ndjson", true),
+    EXPORT_CSV(TeamScope.OPTIONAL, "csv", true),
+    EXPORT_PDF(TeamScope.OPTIONAL, "pdf", false),
+    EXPORT_XLSX(TeamScope.OPTIONAL, "xlsx", false);
+
+    public enum TeamScope {
+        NONE,
+        OPTIONAL,
+        REQUIRED
+    }
+
+    private final TeamScope teamScope;
+    private final String fileExtension;
+    private final boolean compressed;
+
+    ReportType(TeamScope teamScope, String fileExtension, boolean compressed) {
+        this.teamScope = teamScope;
+        this.fileExtension = fileExtension;
+        this.compressed = compressed;
+    }
+
+    public TeamScope teamScope() {
+        return teamScope;
+    }
+
+    public boolean isExport() {
+        return fileExtension != null;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Extension of the stored file, e.g. {@code csv.gz}.
+     */
+    public String artifactExtension() {
+        return compressed ? fileExtension + ".gz" : fileExtension;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.expensetracker.enums;
+
+public enum SuggestionType {
+    DESCRIPTION,
+    CATEGORY
+}
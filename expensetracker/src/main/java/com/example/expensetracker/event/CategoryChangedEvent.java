@@ -0,0 +1,7 @@
+package com.example.expensetracker.event;
+
+/**
+ * Published when a user creates, renames or deletes one of their categories.
+ */
+public record CategoryChangedEvent(Long userId) {
+}
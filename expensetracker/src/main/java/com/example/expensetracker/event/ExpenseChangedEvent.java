@@ -0,0 +1,20 @@
+package com.example.expensetracker.event;
+
+/**
+ * Published by the expense write paths after a row is created, updated or deleted.
+ * {@code before} is null for creates and {@code after} is null for deletes.
+ */
+public record ExpenseChangedEvent(ExpenseSnapshot before, ExpenseSnapshot after) {
+
+    public static ExpenseChangedEvent created(ExpenseSnapshot after) {
+        return new ExpenseChangedEvent(null, after);
+    }
+
+    public static ExpenseChangedEvent updated(ExpenseSnapshot before, ExpenseSnapshot after) {
+        return new ExpenseChangedEvent(before, after);
+    }
+
+    public static ExpenseChangedEvent deleted(ExpenseSnapshot before) {
+        return new ExpenseChangedEvent(before, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.expensetracker.event;
+
+/**
+ * Published when something other than an expense row changes what a user's expenses aggregate
+ * to, such as a category rename or a team deletion nulling {@code team_id}.
+ * A null {@code userId} means any user may be affected.
+ */
+public record ExpenseScopeChangedEvent(Long userId) {
+
+    public static ExpenseScopeChangedEvent user(Long userId) {
+        return new ExpenseScopeChangedEvent(userId);
+    }
+
+    public static ExpenseScopeChangedEvent everyone() {
+        return new ExpenseScopeChangedEvent(null);
+    }
+}
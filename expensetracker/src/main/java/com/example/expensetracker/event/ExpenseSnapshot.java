@@ -0,0 +1,34 @@
+package com.example.expensetracker.event;
+
+import com.example.expensetracker.entity.ExpenseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the expense fields that derived data (indexes, aggregates) depends on.
+ * Taken inside the writing transaction so listeners never touch lazy associations.
+ */
+public record ExpenseSnapshot(
+        Long id,
+        Long userId,
+        Long teamId,
+        Long categoryId,
+        String categoryName,
+        BigDecimal amount,
+        LocalDate date,
+        String description
+) {
+    public static ExpenseSnapshot of(ExpenseEntity expense) {
+        return new ExpenseSnapshot(
+                expense.getId(),
+                expense.getUser() != null ? expense.getUser().getId() : null,
+                expense.getTeam() != null ? expense.getTeam().getId() : null,
+                expense.getCategory() != null ? expense.getCategory().getId() : null,
+                expense.getCategory() != null ? expense.getCategory().getName() : null,
+                expense.getAmount(),
+                expense.getDate(),
+                expense.getDescription()
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.expensetracker.exception;
+
+public class JsonLinesExportException extends RuntimeException {
+    public JsonLinesExportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
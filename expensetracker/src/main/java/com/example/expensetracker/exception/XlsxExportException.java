@@ -0,0 +1,7 @@
+package com.example.expensetracker.exception;
+
+public class XlsxExportException extends RuntimeException {
+    public XlsxExportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,48 +1,199 @@
 package com.example.expensetracker.exporters;
 
-import com.example.expensetracker.entity.ExpenseEntity;
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
 import com.example.expensetracker.exception.CsvExportException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @Component
+@RequiredArgsConstructor
 public class CsvExporter {
 
     private static final String CSV_EXPENSES_HEADER = "ID,Date,Category,Amount,Description\n";
+    private static final String CSV_FILTER_PREFIX = "# Filter: ";
+    // Chars collected before they are passed to the writer
+    private static final int DRAIN_THRESHOLD = 8192;
 
-    public void exportExpenses(Writer writer, List<ExpenseEntity> expenses) {
+    private final AppProperties appProperties;
+
+    public long exportExpenses(Writer writer, Stream<ExpenseExportRow> expenses) {
+        return exportExpenses(writer, expenses, null);
+    }
+
+    /**
+     * Writes rows as they come off the stream, flushing every {@code app.streaming.flush-interval} rows.
+     *
+     * @param filter applied filter, written as a {@code # Filter:} comment line above the header; none when null
+     * @return number of rows written
+     */
+    public long exportExpenses(Writer writer, Stream<ExpenseExportRow> expenses, String filter) {
+        int flushInterval = Math.max(1, appProperties.getStreaming().getFlushInterval());
+        long written = 0;
         try {
-            writer.write(CSV_EXPENSES_HEADER);
-            for (ExpenseEntity expense : expenses) {
-                writer.write(formatExpenseAsCsvLine(expense));
+            LineBuffer buffer = new LineBuffer(writer);
+            if (filter != null) {
+                buffer.append(CSV_FILTER_PREFIX).append(filter).append('\n');
             }
+            buffer.append(CSV_EXPENSES_HEADER);
+            Iterator<ExpenseExportRow> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                appendExpense(buffer, iterator.next());
+                written++;
+                if (written % flushInterval == 0) {
+                    buffer.drain();
+                    writer.flush();
+                } else if (buffer.isFull()) {
+                    buffer.drain();
+                }
+            }
+            buffer.drain();
+            writer.flush();
         } catch (IOException e) {
             throw new CsvExportException("Error writing CSV data", e);
         }
+        return written;
     }
 
-    private String formatExpenseAsCsvLine(ExpenseEntity expense) {
-        String[] data = {
-                expense.getId().toString(),
-                expense.getDate() != null ? expense.getDate().toString() : "",
-                escapeCsvField(expense.getCategory().getName()),
-                expense.getAmount().toPlainString(),
-                escapeCsvField(expense.getDescription())
-        };
-        return String.join(",", data) + "\n";
+    private static void appendExpense(LineBuffer buffer, ExpenseExportRow expense) {
+        buffer.append(expense.id().longValue()).append(',');
+        if (expense.date() != null) {
+            buffer.append(expense.date());
+        }
+        buffer.append(',');
+        buffer.appendField(expense.categoryName()).append(',');
+        buffer.append(expense.amount().toPlainString()).append(',');
+        buffer.appendField(expense.description()).append('\n');
     }
 
-    private String escapeCsvField(String field) {
-        if (field == null) {
-            return "";
+    /**
+     * Rows are formatted straight into one char array per export and handed to the writer in blocks of
+     * about {@link #DRAIN_THRESHOLD} chars, so a row costs no intermediate strings beyond the amount's.
+     */
+    private static final class LineBuffer {
+        private final Writer writer;
+        private char[] chars = new char[DRAIN_THRESHOLD + 256];
+        private int length;
+
+        private LineBuffer(Writer writer) {
+            this.writer = writer;
+        }
+
+        LineBuffer append(char c) {
+            ensureCapacity(1);
+            chars[length++] = c;
+            return this;
+        }
+
+        LineBuffer append(String value) {
+            ensureCapacity(value.length());
+            value.getChars(0, value.length(), chars, length);
+            length += value.length();
+            return this;
         }
-        String escapedField = field.replace("\"", "\"\"");
-        if (escapedField.contains(",") || escapedField.contains("\"") || escapedField.contains("\n")) {
-            return "\"" + escapedField + "\"";
+
+        LineBuffer append(long value) {
+            if (value < 0) {
+                // Long.MIN_VALUE cannot be negated
+                return append(Long.toString(value));
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ensureCapacity(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+            return this;
+        }
+
+        // Same text as LocalDate.toString(), which only needs a sign or more digits outside years 0-9999
+        LineBuffer append(LocalDate date) {
+            int year = date.getYear();
+            if (year < 0 || year > 9999) {
+                return append(date.toString());
+            }
+            ensureCapacity(10);
+            appendDigits(year, 4);
+            chars[length++] = '-';
+            appendDigits(date.getMonthValue(), 2);
+            chars[length++] = '-';
+            appendDigits(date.getDayOfMonth(), 2);
+            return this;
+        }
+
+        /**
+         * Appends a field, quoted when it contains a comma, quote or newline, with quotes doubled.
+         * The field is scanned once: characters before the first one that needs quoting are copied
+         * in bulk, the rest one by one.
+         */
+        LineBuffer appendField(String field) {
+            if (field == null) {
+                return this;
+            }
+            int n = field.length();
+            int special = 0;
+            while (special < n && !needsQuoting(field.charAt(special))) {
+                special++;
+            }
+            if (special == n) {
+                return append(field);
+            }
+
+            // Worst case every remaining character is a quote
+            ensureCapacity(n + (n - special) + 2);
+            chars[length++] = '"';
+            field.getChars(0, special, chars, length);
+            length += special;
+            for (int i = special; i < n; i++) {
+                char c = field.charAt(i);
+                if (c == '"') {
+                    chars[length++] = '"';
+                }
+                chars[length++] = c;
+            }
+            chars[length++] = '"';
+            return this;
+        }
+
+        boolean isFull() {
+            return length >= DRAIN_THRESHOLD;
+        }
+
+        void drain() throws IOException {
+            if (length > 0) {
+                writer.write(chars, 0, length);
+                length = 0;
+            }
+        }
+
+        private void appendDigits(int value, int width) {
+            for (int i = length + width - 1; i >= length; i--) {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            length += width;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > chars.length) {
+                // Only a row far longer than usual gets here; the array stays at its size for the export
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + extra));
+            }
+        }
+
+        private static boolean needsQuoting(char c) {
+            return c == ',' || c == '"' || c == '\n';
         }
-        return escapedField;
     }
 }
@@ -0,0 +1,206 @@
+package com.example.expensetracker.exporters;
+
+import com.example.expensetracker.config.AppProperties;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-Encoding for streamed exports. The encoding is negotiated from the request's Accept-Encoding:
+ * zstd when the client takes it (and the native library loads), otherwise gzip, otherwise none.
+ * <p>
+ * Compression happens on the way out, so a flush from an exporter still reaches the client right away:
+ * gzip runs with sync flush and zstd ends its current block. Memory per export is the input buffer plus
+ * the compressor's own fixed-size state, however large the export gets.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExportCompression {
+
+    private static final String METRIC_NAME = "export.bytes";
+
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    public enum Encoding {
+        ZSTD("zstd"),
+        GZIP("gzip"),
+        IDENTITY("identity");
+
+        private final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+
+        public String token() {
+            return token;
+        }
+    }
+
+    /**
+     * Picks the encoding to send for the given Accept-Encoding header, honouring q-values
+     * ({@code q=0} rules an encoding out). zstd wins a tie with gzip. No header means no compression.
+     */
+    public Encoding negotiate(String acceptEncoding) {
+        if (!appProperties.getExportCompression().isEnabled() || acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Encoding.IDENTITY;
+        }
+        double zstd = -1;
+        double gzip = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(fields);
+            switch (coding) {
+                case "zstd" -> zstd = quality;
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, quality);
+                case "*" -> any = quality;
+                default -> {
+                    // identity and encodings we cannot produce
+                }
+            }
+        }
+        // "*" covers the encodings not listed by name
+        zstd = zstd < 0 ? any : zstd;
+        gzip = gzip < 0 ? any : gzip;
+
+        if (zstd > 0 && zstd >= gzip && ZstdSupport.AVAILABLE) {
+            return Encoding.ZSTD;
+        }
+        return gzip > 0 ? Encoding.GZIP : Encoding.IDENTITY;
+    }
+
+    /**
+     * Sets Content-Encoding and Vary on the response and returns its body stream, compressed as negotiated.
+     * Call before anything is written; closing the returned stream finishes the compressed stream, closes
+     * the response stream and records how many bytes the export produced and sent.
+     *
+     * @param format export format, used to tag the metrics
+     */
+    public OutputStream open(HttpServletResponse response, String acceptEncoding, String format) throws IOException {
+        Encoding encoding = negotiate(acceptEncoding);
+        if (appProperties.getExportCompression().isEnabled()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (encoding != Encoding.IDENTITY) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token());
+        }
+
+        CountingOutputStream sent = new CountingOutputStream(response.getOutputStream());
+        OutputStream compressed = compress(sent, encoding);
+        return new CountingOutputStream(compressed) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    summary(format, encoding, "uncompressed").record(count());
+                    summary(format, encoding, "compressed").record(sent.count());
+                }
+            }
+        };
+    }
+
+    private OutputStream compress(OutputStream out, Encoding encoding) throws IOException {
+        AppProperties.ExportCompression config = appProperties.getExportCompression();
+        int bufferSize = Math.max(512, config.getBufferSize());
+        return switch (encoding) {
+            case GZIP -> new BufferedOutputStream(
+                    new LeveledGzipOutputStream(out, bufferSize, config.getGzipLevel()), bufferSize);
+            case ZSTD -> new BufferedOutputStream(new ZstdOutputStream(out, config.getZstdLevel()), bufferSize);
+            case IDENTITY -> new BufferedOutputStream(out, bufferSize);
+        };
+    }
+
+    private DistributionSummary summary(String format, Encoding encoding, String stage) {
+        return DistributionSummary.builder(METRIC_NAME)
+                .description("Size of streamed exports before and after Content-Encoding")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .tag("encoding", encoding.token())
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static double quality(String[] fields) {
+        for (int i = 1; i < fields.length; i++) {
+            String parameter = fields[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static final class ZstdSupport {
+        private static final boolean AVAILABLE = load();
+
+        private static boolean load() {
+            try {
+                Native.load();
+                return true;
+            } catch (LinkageError e) {
+                log.warn("zstd native library not available, exports fall back to gzip: {}", e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream out, int bufferSize, int level) throws IOException {
+            // Sync flush, so an exporter's periodic flush sends the rows compressed so far
+            super(out, bufferSize, true);
+            def.setLevel(level);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.expensetracker.exporters;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exception.JsonLinesExportException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * One JSON object per line, with the CSV export's fields: amounts as JSON numbers (exact decimals),
+ * dates as ISO strings. A filtered export starts with a {@code {"filter": "..."}} line.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonLinesExporter {
+
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+
+    public long exportExpenses(OutputStream outputStream, Stream<ExpenseExportRow> expenses) {
+        return exportExpenses(outputStream, expenses, null);
+    }
+
+    /**
+     * Writes rows as they come off the stream, flushing every {@code app.streaming.flush-interval} rows.
+     *
+     * @param filter applied filter, written on a line of its own before the rows; none when null
+     * @return number of rows written
+     */
+    public long exportExpenses(OutputStream outputStream, Stream<ExpenseExportRow> expenses, String filter) {
+        int flushInterval = Math.max(1, appProperties.getStreaming().getFlushInterval());
+        long written = 0;
+        // Not closed: that would close the caller's stream
+        try {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            // Lines are separated explicitly below; Jackson would otherwise prefix each root value with a space.
+            generator.setRootValueSeparator(null);
+            if (filter != null) {
+                generator.writeStartObject();
+                generator.writeStringField("filter", filter);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+            Iterator<ExpenseExportRow> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                writeExpense(generator, iterator.next());
+                generator.writeRaw('\n');
+                written++;
+                if (written % flushInterval == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new JsonLinesExportException("Error writing JSON Lines data", e);
+        }
+        return written;
+    }
+
+    private static void writeExpense(JsonGenerator generator, ExpenseExportRow expense) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", expense.id());
+        generator.writeStringField("date", expense.date() != null ? expense.date().toString() : null);
+        generator.writeStringField("category", expense.categoryName());
+        generator.writeNumberField("amount", expense.amount());
+        generator.writeStringField("description", expense.description());
+        generator.writeEndObject();
+    }
+}
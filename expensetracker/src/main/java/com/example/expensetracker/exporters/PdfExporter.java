@@ -1,42 +1,277 @@
 package com.example.expensetracker.exporters;
 
-import com.example.expensetracker.entity.ExpenseEntity;
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
 import com.example.expensetracker.exception.PdfExportException;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.events.Event;
+import com.itextpdf.kernel.events.IEventHandler;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.renderer.CellRenderer;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+/**
+ * Writes expenses as a PDF table in iText's large-table mode: the table is added to the document
+ * before its rows, and every {@code app.streaming.flush-interval} rows the rows added so far are laid
+ * out, written and dropped. Memory use depends on the flush interval, not on the number of rows.
+ * <p>
+ * Exports longer than {@code app.pdf-export.chunk-rows} are cut into chunks of that many rows. The
+ * chunks are rendered to separate PDFs on a pool of {@code app.pdf-export.parallelism} threads shared
+ * by all exports, and merged into the response in order, at most one chunk per thread ahead of the
+ * merge. Page numbers are added while merging and running totals are carried into each chunk, so the
+ * result reads as one document.
+ * <p>
+ * The Helvetica font programs are parsed once and shared; each document only wraps them in its own
+ * {@link PdfFont}, which cannot be shared between documents.
+ */
 @Component
 public class PdfExporter {
-    public void exportExpenses(OutputStream outputStream, List<ExpenseEntity> expenses) {
+
+    private static final float[] COLUMN_WIDTHS = {1, 3, 3, 3, 5};
+    private static final float FOOTER_MARGIN = 56;
+    private static final float FOOTER_FONT_SIZE = 9;
+
+    private final AppProperties appProperties;
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+    private final ForkJoinPool renderPool;
+
+    public PdfExporter(AppProperties appProperties) {
+        this.appProperties = appProperties;
+        try {
+            this.regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        } catch (IOException e) {
+            throw new PdfExportException("Failed to load PDF fonts", e);
+        }
+
+        int parallelism = appProperties.getPdfExport().getParallelism();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renderPool = parallelism > 1
+                ? new ForkJoinPool(parallelism, pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("pdf-render-" + threadNumber.incrementAndGet());
+                    return thread;
+                }, null, false)
+                : null;
+    }
+
+    /**
+     * @return number of rows written
+     */
+    public long exportExpenses(OutputStream outputStream, Stream<ExpenseExportRow> expenses) {
+        return exportExpenses(outputStream, expenses, false);
+    }
+
+    /**
+     * @param pageTotals print the subtotal of each page and the running total at its foot
+     * @return number of rows written
+     */
+    public long exportExpenses(OutputStream outputStream, Stream<ExpenseExportRow> expenses, boolean pageTotals) {
+        return exportExpenses(outputStream, expenses, pageTotals, null);
+    }
+
+    /**
+     * @param pageTotals print the subtotal of each page and the running total at its foot
+     * @param filter     applied filter, printed under the title; none when null
+     * @return number of rows written
+     */
+    public long exportExpenses(
+            OutputStream outputStream,
+            Stream<ExpenseExportRow> expenses,
+            boolean pageTotals,
+            String filter
+    ) {
+        Iterator<ExpenseExportRow> iterator = expenses.iterator();
+        if (renderPool == null) {
+            return render(outputStream, iterator, true, filter, true, pageTotals, BigDecimal.ZERO);
+        }
+
+        int chunkRows = Math.max(1, appProperties.getPdfExport().getChunkRows());
+        List<ExpenseExportRow> firstChunk = nextChunk(iterator, chunkRows);
+        if (!iterator.hasNext()) {
+            // Nothing to gain from splitting a single chunk
+            return render(outputStream, firstChunk.iterator(), true, filter, true, pageTotals, BigDecimal.ZERO);
+        }
+        return renderInChunks(outputStream, firstChunk, iterator, chunkRows, pageTotals, filter);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renderPool != null) {
+            renderPool.shutdownNow();
+        }
+    }
+
+    private long renderInChunks(
+            OutputStream outputStream,
+            List<ExpenseExportRow> firstChunk,
+            Iterator<ExpenseExportRow> iterator,
+            int chunkRows,
+            boolean pageTotals,
+            String filter
+    ) {
+        Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+        long written = 0;
+        try (
+                PdfWriter writer = new PdfWriter(outputStream);
+                PdfDocument pdf = new PdfDocument(writer)
+        ) {
+            pdf.addEventHandler(PdfDocumentEvent.END_PAGE,
+                    new PageNumbers(PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI)));
+            PdfMerger merger = new PdfMerger(pdf, false, false);
+
+            // Rows are read in order on this thread, so each chunk knows the total of the rows before it
+            BigDecimal totalBefore = BigDecimal.ZERO;
+            List<ExpenseExportRow> chunk = firstChunk;
+            boolean first = true;
+            while (!chunk.isEmpty()) {
+                List<ExpenseExportRow> rows = chunk;
+                boolean title = first;
+                BigDecimal runningTotal = totalBefore;
+                pending.add(CompletableFuture.supplyAsync(
+                        () -> renderChunk(rows, title, filter, pageTotals, runningTotal), renderPool));
+                written += rows.size();
+                totalBefore = totalBefore.add(sum(rows));
+                first = false;
+
+                // Reading stops while the merge is a full pool behind, which bounds memory
+                while (pending.size() > renderPool.getParallelism()) {
+                    merge(merger, pdf, pending.removeFirst());
+                }
+                chunk = nextChunk(iterator, chunkRows);
+            }
+            while (!pending.isEmpty()) {
+                merge(merger, pdf, pending.removeFirst());
+            }
+        } catch (IOException e) {
+            throw new PdfExportException("Failed to generate PDF document", e);
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+        }
+        return written;
+    }
+
+    private byte[] renderChunk(
+            List<ExpenseExportRow> rows,
+            boolean title,
+            String filter,
+            boolean pageTotals,
+            BigDecimal runningTotal
+    ) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        render(out, rows.iterator(), title, filter, false, pageTotals, runningTotal);
+        return out.toByteArray();
+    }
+
+    private void merge(PdfMerger merger, PdfDocument pdf, CompletableFuture<byte[]> chunk) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = chunk.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PdfExportException("Failed to generate PDF document", e.getCause());
+        }
+
+        try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(bytes)))) {
+            int firstPage = pdf.getNumberOfPages() + 1;
+            merger.merge(source, 1, source.getNumberOfPages());
+            for (int page = firstPage; page <= pdf.getNumberOfPages(); page++) {
+                pdf.getPage(page).flush(true);
+            }
+            // The writer otherwise remembers every object copied from the chunk, and the chunk with it
+            pdf.flushCopiedObjects(source);
+        }
+    }
+
+    private long render(
+            OutputStream outputStream,
+            Iterator<ExpenseExportRow> expenses,
+            boolean title,
+            String filter,
+            boolean pageNumbers,
+            boolean pageTotals,
+            BigDecimal runningTotal
+    ) {
+        int flushInterval = Math.max(1, appProperties.getStreaming().getFlushInterval());
+        long written = 0;
         try (
                 PdfWriter writer = new PdfWriter(outputStream);
                 PdfDocument pdf = new PdfDocument(writer);
                 Document document = new Document(pdf)
         ) {
+            PdfFont regularFont = PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI);
+            PdfFont boldFont = PdfFontFactory.createFont(boldFontProgram, PdfEncodings.WINANSI);
+            document.setFont(regularFont);
+            document.setBottomMargin(FOOTER_MARGIN);
 
-            document.add(new Paragraph("Expenses Report")
-                    .setFontSize(18)
-                    .setBold()
-                    .setMarginBottom(10));
+            if (pageNumbers) {
+                pdf.addEventHandler(PdfDocumentEvent.END_PAGE, new PageNumbers(regularFont));
+            }
+            PageTotals totals = null;
+            if (pageTotals) {
+                totals = new PageTotals(boldFont, document.getLeftMargin(), document.getRightMargin(), runningTotal);
+                pdf.addEventHandler(PdfDocumentEvent.END_PAGE, totals);
+            }
 
-            float[] columnWidths = {1, 3, 3, 3, 5};
-            Table table = new Table(UnitValue.createPercentArray(columnWidths));
-            table.setWidth(UnitValue.createPercentValue(100));
+            if (title) {
+                document.add(new Paragraph("Expenses Report")
+                        .setFontSize(18)
+                        .setBold()
+                        .setMarginBottom(10));
+                if (filter != null) {
+                    document.add(new Paragraph("Filter: " + filter)
+                            .setFontSize(9)
+                            .setMarginTop(-6)
+                            .setMarginBottom(10));
+                }
+            }
 
-            PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            Table table = new Table(UnitValue.createPercentArray(COLUMN_WIDTHS), true);
+            table.setWidth(UnitValue.createPercentValue(100));
 
             table.addHeaderCell(createHeaderCell("ID", boldFont));
             table.addHeaderCell(createHeaderCell("Date", boldFont));
@@ -44,26 +279,46 @@ public class PdfExporter {
             table.addHeaderCell(createHeaderCell("Amount", boldFont));
             table.addHeaderCell(createHeaderCell("Description", boldFont));
 
-            for (ExpenseEntity expense : expenses) {
-                table.addCell(createCell(expense.getId() != null ? expense.getId().toString() : ""));
-                table.addCell(createCell(expense.getDate() != null ? expense.getDate().toString() : ""));
-
-                String categoryName = (expense.getCategory() != null && expense.getCategory().getName() != null)
-                        ? expense.getCategory().getName()
-                        : "";
-                table.addCell(createCell(categoryName));
-
-                table.addCell(createCell(expense.getAmount() != null ? expense.getAmount().toPlainString() : ""));
+            // Large tables are added first and laid out as rows arrive
+            document.add(table);
 
-                String description = expense.getDescription() != null ? expense.getDescription() : "";
-                table.addCell(createCell(description));
+            while (expenses.hasNext()) {
+                ExpenseExportRow expense = expenses.next();
+                table.addCell(createCell(expense.id() != null ? expense.id().toString() : ""));
+                table.addCell(createCell(expense.date() != null ? expense.date().toString() : ""));
+                table.addCell(createCell(expense.categoryName() != null ? expense.categoryName() : ""));
+                table.addCell(createAmountCell(expense.amount(), totals));
+                table.addCell(createCell(expense.description() != null ? expense.description() : ""));
+                written++;
+                if (written % flushInterval == 0) {
+                    table.flush();
+                }
             }
 
-            document.add(table);
+            table.complete();
 
         } catch (IOException e) {
             throw new PdfExportException("Failed to generate PDF document", e);
         }
+        return written;
+    }
+
+    private static List<ExpenseExportRow> nextChunk(Iterator<ExpenseExportRow> iterator, int chunkRows) {
+        List<ExpenseExportRow> chunk = new ArrayList<>(chunkRows);
+        while (chunk.size() < chunkRows && iterator.hasNext()) {
+            chunk.add(iterator.next());
+        }
+        return chunk;
+    }
+
+    private static BigDecimal sum(List<ExpenseExportRow> rows) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (ExpenseExportRow row : rows) {
+            if (row.amount() != null) {
+                sum = sum.add(row.amount());
+            }
+        }
+        return sum;
     }
 
     private Cell createHeaderCell(String text, PdfFont font) {
@@ -73,4 +328,118 @@ public class PdfExporter {
     private Cell createCell(String text) {
         return new Cell().add(new Paragraph(text));
     }
-}
\ No newline at end of file
+
+    private Cell createAmountCell(BigDecimal amount, PageTotals totals) {
+        Cell cell = createCell(amount != null ? amount.toPlainString() : "");
+        if (totals != null && amount != null) {
+            // Rows only get a page once they are laid out, so the amount is counted when it is drawn
+            cell.setNextRenderer(new AmountCellRenderer(cell, new CountedAmount(amount), totals));
+        }
+        return cell;
+    }
+
+    private static final class CountedAmount {
+        private final BigDecimal amount;
+        private boolean counted;
+
+        private CountedAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    private static final class AmountCellRenderer extends CellRenderer {
+        private final CountedAmount amount;
+        private final PageTotals totals;
+
+        private AmountCellRenderer(Cell cell, CountedAmount amount, PageTotals totals) {
+            super(cell);
+            this.amount = amount;
+            this.totals = totals;
+        }
+
+        @Override
+        public void draw(DrawContext drawContext) {
+            super.draw(drawContext);
+            // A row split across pages draws its cells twice; the amount belongs to the first page
+            if (!amount.counted) {
+                amount.counted = true;
+                totals.add(getOccupiedArea().getPageNumber(), amount.amount);
+            }
+        }
+
+        @Override
+        public IRenderer getNextRenderer() {
+            return new AmountCellRenderer((Cell) modelElement, amount, totals);
+        }
+    }
+
+    /**
+     * Sums the amounts drawn on each page and prints them when the page is finished. Pages are
+     * finished in order, so the running total is the sum of every page up to the current one.
+     */
+    private static final class PageTotals implements IEventHandler {
+        private final PdfFont font;
+        private final float leftMargin;
+        private final float rightMargin;
+        private final Map<Integer, BigDecimal> openPages = new HashMap<>();
+        private BigDecimal runningTotal;
+
+        private PageTotals(PdfFont font, float leftMargin, float rightMargin, BigDecimal runningTotal) {
+            this.font = font;
+            this.leftMargin = leftMargin;
+            this.rightMargin = rightMargin;
+            this.runningTotal = runningTotal;
+        }
+
+        private void add(int pageNumber, BigDecimal amount) {
+            openPages.merge(pageNumber, amount, BigDecimal::add);
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+            PdfDocumentEvent pageEvent = (PdfDocumentEvent) event;
+            PdfPage page = pageEvent.getPage();
+            int pageNumber = pageEvent.getDocument().getPageNumber(page);
+
+            BigDecimal subtotal = openPages.getOrDefault(pageNumber, BigDecimal.ZERO);
+            openPages.remove(pageNumber);
+            runningTotal = runningTotal.add(subtotal);
+
+            Rectangle pageSize = page.getPageSize();
+            float y = pageSize.getBottom() + FOOTER_MARGIN / 2;
+            try (Canvas canvas = new Canvas(new PdfCanvas(page), pageSize)) {
+                canvas.setFont(font).setFontSize(FOOTER_FONT_SIZE);
+                canvas.showTextAligned("Page subtotal: " + subtotal.toPlainString(),
+                        pageSize.getLeft() + leftMargin, y, TextAlignment.LEFT);
+                canvas.showTextAligned("Running total: " + runningTotal.toPlainString(),
+                        pageSize.getRight() - rightMargin, y, TextAlignment.RIGHT);
+            }
+        }
+    }
+
+    /**
+     * Prints the page number at the foot of each page of the document the client receives.
+     */
+    private static final class PageNumbers implements IEventHandler {
+        private final PdfFont font;
+
+        private PageNumbers(PdfFont font) {
+            this.font = font;
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+            PdfDocumentEvent pageEvent = (PdfDocumentEvent) event;
+            PdfPage page = pageEvent.getPage();
+            int pageNumber = pageEvent.getDocument().getPageNumber(page);
+
+            Rectangle pageSize = page.getPageSize();
+            try (Canvas canvas = new Canvas(new PdfCanvas(page), pageSize)) {
+                canvas.setFont(font).setFontSize(FOOTER_FONT_SIZE);
+                canvas.showTextAligned("Page " + pageNumber,
+                        pageSize.getLeft() + pageSize.getWidth() / 2, pageSize.getBottom() + FOOTER_MARGIN / 2,
+                        TextAlignment.CENTER);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.expensetracker.exporters;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exception.XlsxExportException;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Spreadsheet exports with typed cells: numeric ID, date, and amount with two decimals, followed by
+ * a totals row whose formula stays live when rows are edited.
+ * <p>
+ * Only the last {@code app.streaming.xlsx-row-window} rows are kept in memory; older rows go to a
+ * compressed temporary file that is deleted once the workbook has been written. Exports longer than
+ * a sheet allows continue on further sheets, and the totals row then sums all of them. A filtered
+ * export has a line describing the filter above the header of each sheet.
+ */
+@Component
+@RequiredArgsConstructor
+public class XlsxExporter {
+
+    private static final String SHEET_NAME = "Expenses";
+    private static final String[] HEADERS = {"ID", "Date", "Category", "Amount", "Description"};
+    private static final int[] COLUMN_WIDTHS = {12, 12, 24, 14, 48};
+    private static final int AMOUNT_COLUMN = 3;
+    private static final String AMOUNT_COLUMN_LETTER = "D";
+    // The last row of a full sheet is left free for the totals row
+    private static final int LAST_DATA_ROW_INDEX = SpreadsheetVersion.EXCEL2007.getLastRowIndex() - 1;
+
+    private final AppProperties appProperties;
+
+    private record Styles(CellStyle header, CellStyle date, CellStyle amount, CellStyle total) {
+    }
+
+    public long exportExpenses(OutputStream outputStream, Stream<ExpenseExportRow> expenses) {
+        return exportExpenses(outputStream, expenses, null);
+    }
+
+    /**
+     * @param filter applied filter, written above the header; none when null
+     * @return number of rows written, not counting the header and totals rows
+     */
+    public long exportExpenses(OutputStream outputStream, Stream<ExpenseExportRow> expenses, String filter) {
+        // Closing the workbook deletes its temp files
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(Math.max(1, appProperties.getStreaming().getXlsxRowWindow()))) {
+            workbook.setCompressTempFiles(true);
+            Styles styles = createStyles(workbook);
+            List<String> amountRanges = new ArrayList<>();
+            SXSSFSheet sheet = createSheet(workbook, styles, filter);
+            int firstDataRow = filter == null ? 1 : 2;
+            int rowIndex = firstDataRow;
+            long written = 0;
+            BigDecimal total = BigDecimal.ZERO;
+
+            Iterator<ExpenseExportRow> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                if (rowIndex > LAST_DATA_ROW_INDEX) {
+                    amountRanges.add(amountRange(sheet, firstDataRow, rowIndex));
+                    sheet = createSheet(workbook, styles, filter);
+                    rowIndex = firstDataRow;
+                }
+                ExpenseExportRow expense = iterator.next();
+                writeRow(sheet.createRow(rowIndex++), expense, styles);
+                total = total.add(expense.amount());
+                written++;
+            }
+            if (rowIndex > firstDataRow) {
+                amountRanges.add(amountRange(sheet, firstDataRow, rowIndex));
+            }
+
+            writeTotalsRow(sheet.createRow(rowIndex), amountRanges, total, styles);
+            workbook.setForceFormulaRecalculation(true);
+            workbook.write(outputStream);
+            outputStream.flush();
+            return written;
+        } catch (IOException e) {
+            throw new XlsxExportException("Error writing XLSX data", e);
+        }
+    }
+
+    private static SXSSFSheet createSheet(SXSSFWorkbook workbook, Styles styles, String filter) {
+        int number = workbook.getNumberOfSheets() + 1;
+        SXSSFSheet sheet = workbook.createSheet(number == 1 ? SHEET_NAME : SHEET_NAME + " " + number);
+        for (int column = 0; column < COLUMN_WIDTHS.length; column++) {
+            sheet.setColumnWidth(column, COLUMN_WIDTHS[column] * 256);
+        }
+        int headerRow = 0;
+        if (filter != null) {
+            sheet.createRow(headerRow++).createCell(0).setCellValue("Filter: " + filter);
+        }
+        sheet.createFreezePane(0, headerRow + 1);
+
+        Row header = sheet.createRow(headerRow);
+        for (int column = 0; column < HEADERS.length; column++) {
+            Cell cell = header.createCell(column);
+            cell.setCellValue(HEADERS[column]);
+            cell.setCellStyle(styles.header());
+        }
+        return sheet;
+    }
+
+    private static void writeRow(Row row, ExpenseExportRow expense, Styles styles) {
+        row.createCell(0).setCellValue(expense.id());
+
+        Cell date = row.createCell(1);
+        if (expense.date() != null) {
+            date.setCellValue(expense.date());
+            date.setCellStyle(styles.date());
+        }
+
+        row.createCell(2).setCellValue(expense.categoryName());
+
+        Cell amount = row.createCell(AMOUNT_COLUMN);
+        amount.setCellValue(expense.amount().doubleValue());
+        amount.setCellStyle(styles.amount());
+
+        if (expense.description() != null) {
+            row.createCell(4).setCellValue(expense.description());
+        }
+    }
+
+    private static void writeTotalsRow(Row row, List<String> amountRanges, BigDecimal total, Styles styles) {
+        Cell label = row.createCell(2);
+        label.setCellValue("Total");
+        label.setCellStyle(styles.header());
+
+        Cell amount = row.createCell(AMOUNT_COLUMN);
+        if (!amountRanges.isEmpty()) {
+            amount.setCellFormula(amountRanges.stream()
+                    .map(range -> "SUM(" + range + ")")
+                    .reduce((left, right) -> left + "+" + right)
+                    .orElseThrow());
+        }
+        // Cached result, for readers that show formulas without recalculating them
+        amount.setCellValue(total.doubleValue());
+        amount.setCellStyle(styles.total());
+    }
+
+    // The sheet's data rows in A1 (1-based) notation, qualified by sheet name
+    private static String amountRange(SXSSFSheet sheet, int firstDataRow, int nextRowIndex) {
+        return "'" + sheet.getSheetName() + "'!"
+                + AMOUNT_COLUMN_LETTER + (firstDataRow + 1) + ":" + AMOUNT_COLUMN_LETTER + nextRowIndex;
+    }
+
+    private static Styles createStyles(SXSSFWorkbook workbook) {
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        short dateFormat = workbook.createDataFormat().getFormat("yyyy-mm-dd");
+        short amountFormat = workbook.createDataFormat().getFormat("#,##0.00");
+
+        CellStyle header = workbook.createCellStyle();
+        header.setFont(bold);
+
+        CellStyle date = workbook.createCellStyle();
+        date.setDataFormat(dateFormat);
+
+        CellStyle amount = workbook.createCellStyle();
+        amount.setDataFormat(amountFormat);
+
+        CellStyle total = workbook.createCellStyle();
+        total.setDataFormat(amountFormat);
+        total.setFont(bold);
+
+        return new Styles(header, date, amount, total);
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.expensetracker.repository;
 
+import com.example.expensetracker.dto.TermCount;
 import com.example.expensetracker.entity.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +13,13 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
     List<CategoryEntity> findByUserId(Long userId);
     Optional<CategoryEntity> findByIdAndUserId(Long id, Long userId);
     boolean existsByNameAndUserId(String name, Long userId);
+
+    @Query("""
+        SELECT new com.example.expensetracker.dto.TermCount(c.name, COUNT(e))
+        FROM CategoryEntity c
+        LEFT JOIN ExpenseEntity e ON e.category = c AND e.user.id = :userId
+        WHERE c.user.id = :userId
+        GROUP BY c.name
+        """)
+    List<TermCount> countCategoryUsageByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
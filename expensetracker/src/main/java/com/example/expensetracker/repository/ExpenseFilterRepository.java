@@ -1,13 +0,0 @@
-package com.example.expensetracker.repository;
-
-import com.example.expensetracker.entity.ExpenseEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.stereotype.Repository;
-
-@Repository
-public interface ExpenseFilterRepository extends 
-        JpaRepository<ExpenseEntity, Long>, 
-        JpaSpecificationExecutor<ExpenseEntity> {
-}
-
@@ -1,5 +1,6 @@
 package com.example.expensetracker.repository;
 
+import com.example.expensetracker.dto.TermCount;
 import com.example.expensetracker.entity.ExpenseEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -93,14 +94,12 @@ public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Long>, J
     );
 
     @Query("""
-        SELECT DISTINCT e FROM ExpenseEntity e
-        LEFT JOIN FETCH e.category
-        LEFT JOIN FETCH e.user
-        LEFT JOIN FETCH e.team
-        WHERE e.team.id = :teamId
-        ORDER BY e.createdAt DESC, e.id DESC
+        SELECT new com.example.expensetracker.dto.TermCount(e.description, COUNT(e))
+        FROM ExpenseEntity e
+        WHERE e.user.id = :userId AND e.description IS NOT NULL
+        GROUP BY e.description
         """)
-    List<ExpenseEntity> findAllByTeamId(@Param("teamId") Long teamId);
+    List<TermCount> countDescriptionsByUserId(@Param("userId") Long userId);
 
     boolean existsByIdAndUserId(Long id, Long userId);
 
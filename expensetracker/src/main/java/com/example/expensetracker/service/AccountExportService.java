@@ -0,0 +1,213 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.CategoryDto;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.dto.TeamDto;
+import com.example.expensetracker.dto.UserDto;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.mapper.CategoryMapper;
+import com.example.expensetracker.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Everything a user owns in one ZIP archive, streamed straight to the caller:
+ * <ul>
+ *     <li>{@code account.json}: the user and when the archive was made</li>
+ *     <li>{@code expenses.csv} or {@code expenses.jsonl}: all expenses, read through the export cursor</li>
+ *     <li>{@code categories.json} and {@code teams.json}</li>
+ *     <li>{@code receipts/expense-<id>.<ext>}: each receipt file as stored</li>
+ * </ul>
+ * Receipt files are copied with {@link FileChannel#transferTo}, a bounded chunk at a time, and stored
+ * without compression since the allowed receipt types are compressed already. Memory per export is the
+ * output buffer, the deflater and one transfer chunk, whatever the size of the archive.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountExportService {
+
+    private static final String RECEIPTS_QUERY = """
+            select e.id, r.fileUrl
+            from ReceiptEntity r join r.expense e
+            where e.user.id = :userId
+            order by e.id
+            """;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final AppProperties appProperties;
+    private final ExportService exportService;
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final TeamService teamService;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("expenses.csv"),
+        JSONL("expenses.jsonl");
+
+        private final String entryName;
+
+        Format(String entryName) {
+            this.entryName = entryName;
+        }
+
+        /**
+         * @throws ValidationException for anything but {@code csv} or {@code jsonl}
+         */
+        public static Format of(String format) {
+            return switch (format == null ? "" : format.trim().toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "jsonl" -> JSONL;
+                default -> throw new ValidationException(
+                        "Invalid export format '" + format + "': expected 'csv' or 'jsonl'");
+            };
+        }
+    }
+
+    /**
+     * Writes the archive for the given user. The stream is finished but not closed.
+     *
+     * @return number of receipt files written
+     */
+    @Transactional(readOnly = true)
+    public int exportAccount(UserDto user, Format format, OutputStream outputStream) throws IOException {
+        ObjectWriter json = objectMapper.writerWithDefaultPrettyPrinter()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+
+        zip.putNextEntry(new ZipEntry("account.json"));
+        json.writeValue(zip, new AccountSummary(user, Instant.now()));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(format.entryName));
+        writeExpenses(user.getId(), format, zip);
+        zip.closeEntry();
+
+        List<CategoryDto> categories = categoryRepository.findByUserId(user.getId()).stream()
+                .map(categoryMapper::toDto)
+                .toList();
+        zip.putNextEntry(new ZipEntry("categories.json"));
+        json.writeValue(zip, categories);
+        zip.closeEntry();
+
+        List<TeamDto> teams = teamService.listMyTeams(user.getId());
+        zip.putNextEntry(new ZipEntry("teams.json"));
+        json.writeValue(zip, teams);
+        zip.closeEntry();
+
+        int receipts = writeReceipts(user.getId(), zip);
+        zip.finish();
+        zip.flush();
+
+        log.info("Exported account of user {} with {} receipts", user.getId(), receipts);
+        return receipts;
+    }
+
+    private void writeExpenses(Long userId, Format format, OutputStream zip) throws IOException {
+        ExpenseFilterRequest everything = new ExpenseFilterRequest();
+        if (format == Format.CSV) {
+            // Not closed: that would close the archive
+            Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            exportService.exportUserExpensesToCsv(userId, everything, writer);
+            writer.flush();
+        } else {
+            exportService.exportUserExpensesToJsonLines(userId, everything, zip);
+        }
+    }
+
+    private int writeReceipts(Long userId, ZipOutputStream zip) throws IOException {
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        // Not closed either; writes go through to the current zip entry
+        WritableByteChannel target = Channels.newChannel(zip);
+        int written = 0;
+        try (Stream<Object[]> rows = entityManager.createQuery(RECEIPTS_QUERY, Object[].class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, appProperties.getStreaming().getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                if (writeReceipt((Long) row[0], (String) row[1], zip, target)) {
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    private boolean writeReceipt(Long expenseId, String fileUrl, ZipOutputStream zip, WritableByteChannel target)
+            throws IOException {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            return false;
+        }
+        Path path = fileStorageService.load(fileUrl);
+        FileChannel source;
+        try {
+            source = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // The row outlived its file; the rest of the archive is still worth having
+            log.warn("Receipt file {} of expense {} is missing, leaving it out of the export", fileUrl, expenseId);
+            return false;
+        }
+
+        try (source) {
+            ZipEntry entry = new ZipEntry("receipts/expense-" + expenseId + extension(fileUrl));
+            entry.setLastModifiedTime(Files.getLastModifiedTime(path));
+            zip.putNextEntry(entry);
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = source.transferTo(position, Math.min(BUFFER_SIZE, size - position), target);
+                if (transferred <= 0) {
+                    throw new IOException("Receipt file " + fileUrl + " shrank while copying");
+                }
+                position += transferred;
+            }
+            zip.closeEntry();
+        }
+        return true;
+    }
+
+    private static String extension(String fileUrl) {
+        int dot = fileUrl.lastIndexOf('.');
+        return dot >= 0 ? fileUrl.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private record AccountSummary(UserDto user, Instant exportedAt) {
+    }
+}
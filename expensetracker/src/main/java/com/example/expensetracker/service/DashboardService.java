@@ -0,0 +1,263 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.CategoryPieStatsDto;
+import com.example.expensetracker.dto.CursorPageResponse;
+import com.example.expensetracker.dto.DashboardDto;
+import com.example.expensetracker.dto.ExpenseFilterItemDto;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.dto.ExpenseStatsDto;
+import com.example.expensetracker.dto.PersonalDashboardDto;
+import com.example.expensetracker.dto.TeamDashboardDto;
+import com.example.expensetracker.dto.TimeSeriesStatsDto;
+import com.example.expensetracker.enums.TimeGranularity;
+import com.example.expensetracker.exception.AppException;
+import com.example.expensetracker.exception.ForbiddenException;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.util.TeamAcl;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Everything the dashboard shows for one filter, across the personal scope and any number of teams,
+ * in a single call.
+ * <p>
+ * Team membership is checked once for all requested teams, then the aggregate queries (personal stats,
+ * time series, category pie and first page of items, plus time series and category pie per team) run
+ * in parallel on a bounded pool ({@code app.dashboard.pool-size} workers). The response time is that
+ * of the slowest query rather than the sum of all of them.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    private static final String PERSONAL_SCOPE = "personal";
+    private static final String TEAM_SCOPE_PREFIX = "team:";
+
+    private final ExpenseFilterService filterService;
+    private final TeamAcl teamAcl;
+    private final AppProperties appProperties;
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService queryExecutor;
+
+    private record Scopes(boolean personal, List<Long> teamIds) {
+    }
+
+    /**
+     * The queries of one request. {@link CompletableFuture#cancel} does not interrupt a running task,
+     * so the pool's own futures are kept to stop the queries nobody will wait for any more.
+     */
+    private final class Queries {
+        private final List<Future<?>> tasks = new ArrayList<>();
+
+        private <T> CompletableFuture<T> submit(Supplier<T> query) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            try {
+                tasks.add(queryExecutor.submit(() -> {
+                    try {
+                        result.complete(query.get());
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                cancel();
+                throw new AppException("Too many dashboard requests, try again shortly", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return result;
+        }
+
+        private void cancel() {
+            tasks.forEach(task -> task.cancel(true));
+            // Frees the queue slots of the ones that had not started
+            executor.purge();
+        }
+    }
+
+    public DashboardService(ExpenseFilterService filterService, TeamAcl teamAcl, AppProperties appProperties) {
+        this.filterService = filterService;
+        this.teamAcl = teamAcl;
+        this.appProperties = appProperties;
+
+        AppProperties.Dashboard properties = appProperties.getDashboard();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        // Queries run as the caller, so read-your-writes routing still knows whose read it is
+        this.queryExecutor = new DelegatingSecurityContextExecutorService(executor);
+    }
+
+    /**
+     * @param scopes {@code personal} and/or {@code team:<id>} entries; all of the user's scopes when empty
+     * @param limit  size of the first page of personal items (default 20)
+     * @throws ForbiddenException when a requested team is not one of the user's
+     * @throws AppException       503 when the query pool is saturated or the queries time out
+     */
+    public DashboardDto getDashboard(
+            Long userId,
+            ExpenseFilterRequest request,
+            List<String> scopes,
+            String granularity,
+            String timeZone,
+            Integer limit
+    ) {
+        // Parsed up front so a bad parameter fails once instead of in every query
+        TimeGranularity timeGranularity = TimeGranularity.from(granularity);
+        ZoneId zone = ExpenseFilterService.resolveZone(timeZone);
+        Scopes resolved = resolveScopes(userId, scopes);
+
+        Queries queries = new Queries();
+        CompletableFuture<PersonalDashboardDto> personal = CompletableFuture.completedFuture(null);
+        if (resolved.personal()) {
+            ExpenseFilterRequest itemsRequest = request.toBuilder().cursor(null).limit(limit).build();
+            CompletableFuture<ExpenseStatsDto> stats = queries.submit(() ->
+                    filterService.getStatistics(userId, request));
+            CompletableFuture<TimeSeriesStatsDto> timeSeries = queries.submit(() ->
+                    filterService.getTimeSeriesStatistics(userId, request, timeGranularity, zone));
+            CompletableFuture<CategoryPieStatsDto> categoryPie = queries.submit(() ->
+                    filterService.getCategoryPieStatistics(userId, request));
+            CompletableFuture<CursorPageResponse<ExpenseFilterItemDto>> items = queries.submit(() ->
+                    filterService.getFilteredExpenses(userId, itemsRequest));
+            personal = CompletableFuture.allOf(stats, timeSeries, categoryPie, items)
+                    .thenApply(ignored -> PersonalDashboardDto.builder()
+                            .stats(stats.join())
+                            .timeSeries(timeSeries.join())
+                            .categoryPie(categoryPie.join())
+                            .items(items.join())
+                            .build());
+        }
+
+        List<CompletableFuture<TeamDashboardDto>> teams = new ArrayList<>();
+        for (Long teamId : resolved.teamIds()) {
+            CompletableFuture<TimeSeriesStatsDto> timeSeries = queries.submit(() ->
+                    filterService.getCheckedTeamTimeSeriesStatistics(userId, teamId, request, timeGranularity, zone));
+            CompletableFuture<CategoryPieStatsDto> categoryPie = queries.submit(() ->
+                    filterService.getCheckedTeamCategoryPieStatistics(userId, teamId, request));
+            teams.add(timeSeries.thenCombine(categoryPie, (series, pie) -> TeamDashboardDto.builder()
+                    .teamId(teamId)
+                    .timeSeries(series)
+                    .categoryPie(pie)
+                    .build()));
+        }
+
+        List<CompletableFuture<?>> all = new ArrayList<>(teams);
+        all.add(personal);
+        await(CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)), queries);
+
+        return DashboardDto.builder()
+                .personal(personal.join())
+                .teams(teams.stream().map(CompletableFuture::join).toList())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Scopes resolveScopes(Long userId, List<String> scopes) {
+        // One membership query covers every requested team
+        Set<Long> myTeamIds = new LinkedHashSet<>(teamAcl.listMyTeamIds(userId));
+        if (scopes == null || scopes.isEmpty()) {
+            return new Scopes(true, limitTeams(new ArrayList<>(myTeamIds)));
+        }
+
+        boolean personal = false;
+        Set<Long> teamIds = new LinkedHashSet<>();
+        for (String scope : scopes) {
+            String value = scope == null ? "" : scope.trim().toLowerCase();
+            if (value.equals(PERSONAL_SCOPE)) {
+                personal = true;
+            } else if (value.startsWith(TEAM_SCOPE_PREFIX)) {
+                teamIds.add(parseTeamId(value.substring(TEAM_SCOPE_PREFIX.length())));
+            } else {
+                throw new ValidationException("Invalid scope '" + scope + "': expected 'personal' or 'team:<id>'");
+            }
+        }
+
+        Set<Long> foreign = new HashSet<>(teamIds);
+        foreign.removeAll(myTeamIds);
+        if (!foreign.isEmpty()) {
+            throw new ForbiddenException("User is not a member of the team");
+        }
+        return new Scopes(personal, limitTeams(new ArrayList<>(teamIds)));
+    }
+
+    private List<Long> limitTeams(List<Long> teamIds) {
+        int maxTeams = appProperties.getDashboard().getMaxTeams();
+        if (teamIds.size() > maxTeams) {
+            throw new ValidationException("A dashboard covers at most " + maxTeams + " teams; select them with scopes");
+        }
+        return teamIds;
+    }
+
+    private static Long parseTeamId(String value) {
+        try {
+            long teamId = Long.parseLong(value);
+            if (teamId > 0) {
+                return teamId;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new ValidationException("Invalid team scope 'team:" + value + "'");
+    }
+
+    private void await(CompletableFuture<Void> all, Queries queries) {
+        try {
+            all.get(appProperties.getDashboard().getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            queries.cancel();
+            throw new AppException("Dashboard queries timed out", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            queries.cancel();
+            Thread.currentThread().interrupt();
+            throw new AppException("Dashboard request interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        log.error("Dashboard query failed", cause);
+        return new AppException("Dashboard query failed", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.AmountDistributionDto;
+import com.example.expensetracker.dto.DistributionStat;
+import com.example.expensetracker.dto.HistogramBucket;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.util.NativeQueryUtil;
+import com.example.expensetracker.util.TDigest;
+import com.example.expensetracker.util.TeamAcl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Amount distribution (percentiles and histogram) backed by {@code expense_amount_sketches}.
+ * <p>
+ * Every (user, team, category, month) cell keeps a serialized {@link TDigest} of its amounts.
+ * A request merges the digests of the whole months it covers, so its cost depends on the number
+ * of categories and months, not on the number of expenses. Partial months at either end of the
+ * range are read from {@code expenses} directly, which bounds the raw rows to at most two months.
+ * <p>
+ * A digest cannot remove a value, so writes do not patch sketches in place: a trigger (migration
+ * V8) queues the cells a write touches and this service rebuilds them from {@code expenses}, right
+ * after the write commits and again on a fixed delay for anything that pass left behind.
+ */
+@Slf4j
+@Service
+public class ExpenseDistributionService {
+
+    private static final int AMOUNT_SCALE = 2;
+
+    private static final String CLAIM_DIRTY_CELLS = """
+            DELETE FROM expense_amount_sketch_dirty
+            WHERE ctid IN (
+                SELECT ctid FROM expense_amount_sketch_dirty
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING user_id, team_id, category_id, month
+            """;
+
+    private final EntityManager entityManager;
+    private final TeamAcl teamAcl;
+    private final AppProperties appProperties;
+    private final TransactionTemplate rebuildTransaction;
+
+    private record Cell(Long userId, Long teamId, Long categoryId, LocalDate month) {
+    }
+
+    private static final class CategoryDistribution {
+        private final Long categoryId;
+        private final String categoryName;
+        private final TDigest digest;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+
+        private CategoryDistribution(Long categoryId, String categoryName, double compression) {
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.digest = new TDigest(compression);
+        }
+    }
+
+    public ExpenseDistributionService(
+            EntityManager entityManager,
+            TeamAcl teamAcl,
+            AppProperties appProperties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.entityManager = entityManager;
+        this.teamAcl = teamAcl;
+        this.appProperties = appProperties;
+        // Rebuilds also run from after-commit listeners, where the writer's transaction is finished
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Distribution of the caller's own expenses, personal and team ones alike.
+     *
+     * @param buckets ascending histogram boundaries; the configured defaults when empty
+     */
+    @Transactional(readOnly = true)
+    public AmountDistributionDto getDistribution(
+            Long userId,
+            LocalDate fromDate,
+            LocalDate toDate,
+            List<Long> categoryIds,
+            List<BigDecimal> buckets
+    ) {
+        return distribution("user_id", userId, fromDate, toDate, categoryIds, buckets);
+    }
+
+    /**
+     * Distribution of all expenses in the team, whoever recorded them.
+     */
+    @Transactional(readOnly = true)
+    public AmountDistributionDto getTeamDistribution(
+            Long userId,
+            Long teamId,
+            LocalDate fromDate,
+            LocalDate toDate,
+            List<Long> categoryIds,
+            List<BigDecimal> buckets
+    ) {
+        teamAcl.requireMembership(userId, teamId);
+        return distribution("team_id", teamId, fromDate, toDate, categoryIds, buckets);
+    }
+
+    /**
+     * Rebuilds queued cells until the queue is empty.
+     *
+     * @return number of cells rebuilt
+     */
+    public int rebuildDirtyCells() {
+        int total = 0;
+        int rebuilt;
+        do {
+            Integer batch = rebuildTransaction.execute(status -> rebuildBatch());
+            rebuilt = batch != null ? batch : 0;
+            total += rebuilt;
+        } while (rebuilt >= appProperties.getDistribution().getRebuildBatchSize());
+        return total;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        try {
+            rebuildDirtyCells();
+        } catch (RuntimeException e) {
+            // The write has committed and its cells stay queued; the scheduled pass retries them
+            log.warn("Could not rebuild amount sketches after expense write", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        int rebuilt = rebuildDirtyCells();
+        if (rebuilt > 0) {
+            log.info("Rebuilt {} amount sketch cells on startup", rebuilt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.distribution.rebuild-delay-ms:30000}")
+    public void rebuildScheduled() {
+        int rebuilt = rebuildDirtyCells();
+        if (rebuilt > 0) {
+            log.debug("Rebuilt {} amount sketch cells", rebuilt);
+        }
+    }
+
+    private int rebuildBatch() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(CLAIM_DIRTY_CELLS)
+                .setParameter("batchSize", appProperties.getDistribution().getRebuildBatchSize())
+                .getResultList();
+
+        for (Object[] row : rows) {
+            rebuildCell(new Cell(
+                    NativeQueryUtil.toLong(row[0]),
+                    NativeQueryUtil.toLong(row[1]),
+                    NativeQueryUtil.toLong(row[2]),
+                    NativeQueryUtil.toLocalDate(row[3])
+            ));
+        }
+        return rows.size();
+    }
+
+    private void rebuildCell(Cell cell) {
+        // Serializes rebuilds of one cell, so an older read can never overwrite a newer sketch
+        entityManager.createNativeQuery("SELECT pg_advisory_xact_lock(hashtext('expense_amount_sketches'), hashtext(:key))")
+                .setParameter("key", cell.toString())
+                .getSingleResult();
+
+        Query amountsQuery = entityManager.createNativeQuery("""
+                SELECT amount FROM expenses
+                WHERE user_id = :userId AND category_id = :categoryId AND amount IS NOT NULL
+                  AND %s AND %s
+                """.formatted(
+                cell.teamId() != null ? "team_id = :teamId" : "team_id IS NULL",
+                cell.month() != null ? "date >= :month AND date < :nextMonth" : "date IS NULL"
+        ));
+        bindCell(amountsQuery, cell);
+        if (cell.month() != null) {
+            amountsQuery.setParameter("nextMonth", cell.month().plusMonths(1));
+        }
+        @SuppressWarnings("unchecked")
+        List<Object> amounts = amountsQuery.getResultList();
+
+        if (amounts.isEmpty()) {
+            Query delete = entityManager.createNativeQuery("""
+                    DELETE FROM expense_amount_sketches
+                    WHERE user_id = :userId AND category_id = :categoryId AND %s AND %s
+                    """.formatted(
+                    cell.teamId() != null ? "team_id = :teamId" : "team_id IS NULL",
+                    cell.month() != null ? "month = :month" : "month IS NULL"
+            ));
+            bindCell(delete, cell);
+            delete.executeUpdate();
+            return;
+        }
+
+        TDigest digest = new TDigest(appProperties.getDistribution().getCompression());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Object value : amounts) {
+            BigDecimal amount = NativeQueryUtil.toBigDecimal(value);
+            digest.add(amount.doubleValue());
+            total = total.add(amount);
+        }
+
+        Query upsert = entityManager.createNativeQuery("""
+                INSERT INTO expense_amount_sketches
+                    (user_id, team_id, category_id, month, expense_count, total_amount, digest, updated_at)
+                VALUES (:userId, %s, :categoryId, %s, :count, :total, :digest, CURRENT_TIMESTAMP)
+                ON CONFLICT ON CONSTRAINT uq_expense_amount_sketches DO UPDATE
+                SET expense_count = EXCLUDED.expense_count,
+                    total_amount = EXCLUDED.total_amount,
+                    digest = EXCLUDED.digest,
+                    updated_at = EXCLUDED.updated_at
+                """.formatted(
+                cell.teamId() != null ? ":teamId" : "NULL",
+                cell.month() != null ? ":month" : "NULL"
+        ));
+        bindCell(upsert, cell);
+        upsert.setParameter("count", (long) amounts.size())
+                .setParameter("total", total)
+                .setParameter("digest", digest.toBytes())
+                .executeUpdate();
+    }
+
+    private static void bindCell(Query query, Cell cell) {
+        query.setParameter("userId", cell.userId());
+        query.setParameter("categoryId", cell.categoryId());
+        if (cell.teamId() != null) {
+            query.setParameter("teamId", cell.teamId());
+        }
+        if (cell.month() != null) {
+            query.setParameter("month", cell.month());
+        }
+    }
+
+    private AmountDistributionDto distribution(
+            String scopeColumn,
+            Long scopeId,
+            LocalDate fromDate,
+            LocalDate toDate,
+            List<Long> categoryIds,
+            List<BigDecimal> buckets
+    ) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new ValidationException("fromDate cannot be after toDate");
+        }
+        List<BigDecimal> bounds = resolveBuckets(buckets);
+        boolean filterCategories = categoryIds != null && !categoryIds.isEmpty();
+        double compression = appProperties.getDistribution().getCompression();
+
+        // Whole months in [firstMonth, endMonth) come from sketches; the rest of the range from expenses
+        LocalDate firstMonth = fromDate == null ? null
+                : fromDate.getDayOfMonth() == 1 ? fromDate : fromDate.withDayOfMonth(1).plusMonths(1);
+        LocalDate endMonth = toDate == null ? null
+                : toDate.equals(toDate.withDayOfMonth(toDate.lengthOfMonth()))
+                ? toDate.withDayOfMonth(1).plusMonths(1) : toDate.withDayOfMonth(1);
+        boolean useSketches = firstMonth == null || endMonth == null || firstMonth.isBefore(endMonth);
+
+        Map<Long, CategoryDistribution> byCategory = new LinkedHashMap<>();
+
+        if (useSketches) {
+            List<String> conditions = new ArrayList<>(List.of("s." + scopeColumn + " = :scopeId"));
+            if (firstMonth != null) {
+                conditions.add("s.month >= :firstMonth");
+            }
+            if (endMonth != null) {
+                conditions.add("s.month < :endMonth");
+            }
+            if (filterCategories) {
+                conditions.add("s.category_id IN (:categoryIds)");
+            }
+            Query sketchQuery = entityManager.createNativeQuery("""
+                    SELECT s.category_id, c.name, s.total_amount, s.digest
+                    FROM expense_amount_sketches s
+                    JOIN categories c ON c.id = s.category_id
+                    WHERE %s
+                    """.formatted(String.join(" AND ", conditions)))
+                    .setParameter("scopeId", scopeId);
+            if (firstMonth != null) {
+                sketchQuery.setParameter("firstMonth", firstMonth);
+            }
+            if (endMonth != null) {
+                sketchQuery.setParameter("endMonth", endMonth);
+            }
+            if (filterCategories) {
+                sketchQuery.setParameter("categoryIds", categoryIds);
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = sketchQuery.getResultList();
+            for (Object[] row : rows) {
+                CategoryDistribution category = byCategory.computeIfAbsent(
+                        NativeQueryUtil.toLong(row[0]),
+                        id -> new CategoryDistribution(id, (String) row[1], compression)
+                );
+                category.totalAmount = category.totalAmount.add(NativeQueryUtil.toBigDecimal(row[2]));
+                category.digest.merge(TDigest.fromBytes((byte[]) row[3]));
+            }
+        }
+
+        Map<String, Object> edgeParameters = new HashMap<>();
+        List<String> edges = new ArrayList<>();
+        if (!useSketches) {
+            edges.add("(e.date >= :fromDate AND e.date <= :toDate)");
+            edgeParameters.put("fromDate", fromDate);
+            edgeParameters.put("toDate", toDate);
+        } else {
+            if (firstMonth != null && firstMonth.isAfter(fromDate)) {
+                edges.add("(e.date >= :fromDate AND e.date < :firstMonth)");
+                edgeParameters.put("fromDate", fromDate);
+                edgeParameters.put("firstMonth", firstMonth);
+            }
+            if (endMonth != null && !endMonth.isAfter(toDate)) {
+                edges.add("(e.date >= :endMonth AND e.date <= :toDate)");
+                edgeParameters.put("endMonth", endMonth);
+                edgeParameters.put("toDate", toDate);
+            }
+        }
+        if (!edges.isEmpty()) {
+            Query edgeQuery = entityManager.createNativeQuery("""
+                    SELECT e.category_id, c.name, e.amount
+                    FROM expenses e
+                    JOIN categories c ON c.id = e.category_id
+                    WHERE e.%s = :scopeId AND e.amount IS NOT NULL AND (%s)%s
+                    """.formatted(
+                    scopeColumn,
+                    String.join(" OR ", edges),
+                    filterCategories ? " AND e.category_id IN (:categoryIds)" : ""
+            )).setParameter("scopeId", scopeId);
+            edgeParameters.forEach(edgeQuery::setParameter);
+            if (filterCategories) {
+                edgeQuery.setParameter("categoryIds", categoryIds);
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = edgeQuery.getResultList();
+            for (Object[] row : rows) {
+                CategoryDistribution category = byCategory.computeIfAbsent(
+                        NativeQueryUtil.toLong(row[0]),
+                        id -> new CategoryDistribution(id, (String) row[1], compression)
+                );
+                BigDecimal amount = NativeQueryUtil.toBigDecimal(row[2]);
+                category.totalAmount = category.totalAmount.add(amount);
+                category.digest.add(amount.doubleValue());
+            }
+        }
+
+        TDigest overall = new TDigest(compression);
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<DistributionStat> categoryStats = new ArrayList<>();
+        for (CategoryDistribution category : byCategory.values()) {
+            overall.merge(category.digest);
+            totalAmount = totalAmount.add(category.totalAmount);
+            categoryStats.add(DistributionStat.builder()
+                    .categoryId(category.categoryId)
+                    .categoryName(category.categoryName)
+                    .count(category.digest.size())
+                    .totalAmount(category.totalAmount)
+                    .minAmount(toAmount(category.digest.min()))
+                    .maxAmount(toAmount(category.digest.max()))
+                    .median(toAmount(category.digest.quantile(0.5)))
+                    .p90(toAmount(category.digest.quantile(0.9)))
+                    .p99(toAmount(category.digest.quantile(0.99)))
+                    .histogram(histogram(category.digest, bounds))
+                    .build());
+        }
+        categoryStats.sort((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()));
+
+        return AmountDistributionDto.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .count(overall.size())
+                .totalAmount(totalAmount)
+                .minAmount(toAmount(overall.min()))
+                .maxAmount(toAmount(overall.max()))
+                .median(toAmount(overall.quantile(0.5)))
+                .p90(toAmount(overall.quantile(0.9)))
+                .p99(toAmount(overall.quantile(0.99)))
+                .histogram(histogram(overall, bounds))
+                .byCategory(categoryStats)
+                .build();
+    }
+
+    private List<BigDecimal> resolveBuckets(List<BigDecimal> buckets) {
+        if (buckets == null || buckets.isEmpty()) {
+            return appProperties.getDistribution().getDefaultBuckets();
+        }
+        int maxBuckets = appProperties.getDistribution().getMaxBuckets();
+        if (buckets.size() > maxBuckets) {
+            throw new ValidationException("buckets cannot have more than " + maxBuckets + " boundaries");
+        }
+        for (int i = 1; i < buckets.size(); i++) {
+            if (buckets.get(i).compareTo(buckets.get(i - 1)) <= 0) {
+                throw new ValidationException("buckets must be strictly ascending");
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Buckets are {@code [bound[i-1], bound[i])} plus open-ended ones below the first and above the
+     * last bound. Counts are rounded on the cumulative distribution so they always add up to the total.
+     */
+    private static List<HistogramBucket> histogram(TDigest digest, List<BigDecimal> bounds) {
+        List<HistogramBucket> histogram = new ArrayList<>(bounds.size() + 1);
+        long size = digest.size();
+        long previousCumulative = 0;
+        BigDecimal from = null;
+        for (BigDecimal bound : bounds) {
+            long cumulative = size == 0 ? 0 : Math.round(digest.cdf(bound.doubleValue()) * size);
+            histogram.add(new HistogramBucket(from, bound, cumulative - previousCumulative));
+            previousCumulative = cumulative;
+            from = bound;
+        }
+        histogram.add(new HistogramBucket(from, null, size - previousCumulative));
+        return histogram;
+    }
+
+    private static BigDecimal toAmount(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.expensetracker.service;
 
+import com.example.expensetracker.config.AppProperties;
 import com.example.expensetracker.dto.CursorPageResponse;
 import com.example.expensetracker.entity.ExpenseEntity;
+import com.example.expensetracker.enums.TeamRole;
+import com.example.expensetracker.enums.TimeGranularity;
 import com.example.expensetracker.exception.ValidationException;
 import com.example.expensetracker.dto.ExpenseFilterItemDto;
 import com.example.expensetracker.dto.ExpenseFilterRequest;
@@ -11,28 +14,44 @@ import com.example.expensetracker.dto.PeriodStat;
 import com.example.expensetracker.dto.TimeSeriesStatsDto;
 import com.example.expensetracker.dto.CategoryPieStat;
 import com.example.expensetracker.dto.CategoryPieStatsDto;
-import com.example.expensetracker.mapper.ExpenseFilterMapper;
-import com.example.expensetracker.repository.ExpenseFilterRepository;
+import com.example.expensetracker.dto.CategoryComparisonStat;
+import com.example.expensetracker.dto.ComparisonStatsDto;
+import com.example.expensetracker.dto.PeriodComparisonStat;
+import com.example.expensetracker.dto.MemberSpendStat;
+import com.example.expensetracker.dto.TeamMemberStatsDto;
 import com.example.expensetracker.specification.ExpenseFilterSpecification;
 import com.example.expensetracker.util.CursorUtil;
 import com.example.expensetracker.util.TeamAcl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -43,11 +62,20 @@ public class ExpenseFilterService extends BaseService {
     private static final String FIELD_CATEGORY = "category";
     private static final String FIELD_DATE = "date";
     private static final String FIELD_ID = "id";
+    private static final int MAX_ID_FILTER_VALUES = 100;
+    private static final int MAX_RANGE_FILTER_VALUES = 24;
+    private static final int MAX_TIME_SERIES_BUCKETS = 5000;
+    private static final int DEFAULT_MOVING_AVERAGE_WINDOW = 7;
+    private static final int MAX_MOVING_AVERAGE_WINDOW = 90;
+    private static final int DEFAULT_TOP_MEMBERS = 10;
+    private static final int MAX_TOP_MEMBERS = 100;
 
-    private final ExpenseFilterRepository expenseRepository;
-    private final ExpenseFilterMapper mapper;
     private final EntityManager entityManager;
     private final TeamAcl teamAcl;
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+    private final ExpenseStatsCache statsCache;
+    private final ExpenseStatsEngine statsEngine;
 
     @Transactional(readOnly = true)
     public CursorPageResponse<ExpenseFilterItemDto> getFilteredExpenses(
@@ -75,106 +103,141 @@ public class ExpenseFilterService extends BaseService {
         limit = Math.max(1, Math.min(100, limit));
         int pageSize = limit + 1;
 
-        Page<ExpenseEntity> page = expenseRepository.findAll(
-                spec,
-                PageRequest.of(0, pageSize)
-                        .withSort(Sort.by(Sort.Direction.DESC, "createdAt")
-                                .and(Sort.by(Sort.Direction.DESC, FIELD_ID)))
-        );
-        List<ExpenseEntity> entities = page.getContent();
+        // Projected straight into DTOs: no entity hydration, no receipt lookups and no count query
+        List<ExpenseFilterItemDto> items = createItemQuery(spec)
+                .setMaxResults(pageSize)
+                .getResultList();
 
-        boolean hasNext = entities.size() > limit;
+        boolean hasNext = items.size() > limit;
         if (hasNext) {
-            entities = entities.subList(0, limit);
+            items = items.subList(0, limit);
         }
 
-        List<ExpenseFilterItemDto> items = entities.stream()
-                .map(mapper::toFilterItemDto)
-                .collect(Collectors.toList());
-
         String nextCursor = null;
-        if (hasNext && !entities.isEmpty()) {
-            ExpenseEntity lastEntity = entities.get(entities.size() - 1);
-            nextCursor = CursorUtil.encodeCursor(lastEntity.getCreatedAt(), lastEntity.getId());
+        if (hasNext && !items.isEmpty()) {
+            ExpenseFilterItemDto lastItem = items.get(items.size() - 1);
+            nextCursor = CursorUtil.encodeCursor(lastItem.getCreatedAt(), lastItem.getId());
         }
 
         return CursorPageResponse.of(items, nextCursor, hasNext);
     }
 
-    @Transactional(readOnly = true)
-    public ExpenseStatsDto getStatistics(Long userId, ExpenseFilterRequest request) {
-        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildStatsSpecification(
-                userId, request
-        );
+    /**
+     * The filter checks of {@link #streamFilteredExpenses}, for callers that must fail before the response
+     * is committed to the stream's content type.
+     */
+    public void checkStreamRequest(ExpenseFilterRequest request) {
+        validateFilterRequest(request);
+    }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    /**
+     * Writes every expense matching the filter as newline-delimited JSON, one {@link ExpenseFilterItemDto} per line.
+     * Rows come from a single server-side cursor and are serialized as they arrive, so memory use does not
+     * depend on the size of the user's history. Cursor and limit on the request are ignored.
+     *
+     * @return number of rows written; stops early (without failing) when the client disconnects
+     */
+    @Transactional(readOnly = true)
+    public long streamFilteredExpenses(Long userId, ExpenseFilterRequest request, OutputStream outputStream) {
+        validateFilterRequest(request);
 
-        // 1. Total Amount and Count
-        CriteriaQuery<Object[]> totalQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> root = totalQuery.from(ExpenseEntity.class);
-        totalQuery.select(cb.array(
-                cb.coalesce(cb.sum(root.get(FIELD_AMOUNT)), BigDecimal.ZERO),
-                cb.count(root)
-        ));
-        Predicate wherePredicate = spec.toPredicate(root, totalQuery, cb);
-        if (wherePredicate != null) {
-            totalQuery.where(wherePredicate);
-        }
-        Object[] totalResult = entityManager.createQuery(totalQuery).getSingleResult();
-        BigDecimal totalAmount = (BigDecimal) totalResult[0];
-        Long count = ((Number) totalResult[1]).longValue();
-
-        // 2. By Category
-        CriteriaQuery<Object[]> categoryQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> categoryRoot = categoryQuery.from(ExpenseEntity.class);
-        categoryQuery.select(cb.array(
-                categoryRoot.get(FIELD_CATEGORY).get(FIELD_ID),
-                cb.sum(categoryRoot.get(FIELD_AMOUNT))
-        ));
-        Predicate categoryPredicate = spec.toPredicate(categoryRoot, categoryQuery, cb);
-        if (categoryPredicate != null) {
-            categoryQuery.where(categoryPredicate);
+        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildStatsSpecification(userId, request);
+        int flushInterval = Math.max(1, appProperties.getStreaming().getFlushInterval());
+        // The mapper flushes after every value by default, which would defeat the flush interval
+        ObjectWriter itemWriter = objectMapper.writerFor(ExpenseFilterItemDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+
+        try (Stream<ExpenseFilterItemDto> rows = openItemStream(spec);
+             JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            // Lines are separated explicitly below; Jackson would otherwise prefix each root value with a space.
+            generator.setRootValueSeparator(null);
+            Iterator<ExpenseFilterItemDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                itemWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                written++;
+                if (written % flushInterval == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            // Client went away; closing the stream above releases the cursor and the connection.
+            log.info("Expense stream for user {} aborted after {} rows: {}", userId, written, e.getMessage());
         }
-        categoryQuery.groupBy(categoryRoot.get(FIELD_CATEGORY).get(FIELD_ID));
-        List<Object[]> categoryResults = entityManager.createQuery(categoryQuery).getResultList();
-        Map<Long, BigDecimal> byCategory = categoryResults.stream()
-                .collect(Collectors.toMap(
-                        row -> ((Number) row[0]).longValue(),
-                        row -> (BigDecimal) row[1]
-                ));
-
-        // 3. By Date
-        CriteriaQuery<Object[]> dateQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> dateRoot = dateQuery.from(ExpenseEntity.class);
-        dateQuery.select(cb.array(
-                dateRoot.get(FIELD_DATE),
-                cb.sum(dateRoot.get(FIELD_AMOUNT)),
-                cb.count(dateRoot)
+
+        log.debug("Streamed {} expenses for user {}", written, userId);
+        return written;
+    }
+
+    /**
+     * Opens a forward-only stream of filter items ordered by (created_at DESC, id DESC).
+     * Rows are projected straight into DTOs, so nothing accumulates in the persistence context.
+     * Must be consumed and closed inside the caller's transaction.
+     */
+    public Stream<ExpenseFilterItemDto> openItemStream(Specification<ExpenseEntity> spec) {
+        return createItemQuery(spec)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, appProperties.getStreaming().getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<ExpenseFilterItemDto> createItemQuery(Specification<ExpenseEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ExpenseFilterItemDto> query = cb.createQuery(ExpenseFilterItemDto.class);
+        Root<ExpenseEntity> root = query.from(ExpenseEntity.class);
+        Join<Object, Object> category = root.join(FIELD_CATEGORY);
+        Join<Object, Object> team = root.join("team", JoinType.LEFT);
+
+        query.select(cb.construct(
+                ExpenseFilterItemDto.class,
+                root.get(FIELD_ID),
+                category.get(FIELD_ID),
+                category.get("name"),
+                root.get("description"),
+                root.get(FIELD_AMOUNT),
+                root.get(FIELD_DATE),
+                root.get("hasReceipt"),
+                team.get(FIELD_ID),
+                root.get("createdAt")
         ));
-        Predicate datePredicate = spec.toPredicate(dateRoot, dateQuery, cb);
-        if (datePredicate != null) {
-            dateQuery.where(datePredicate);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
         }
-        dateQuery.groupBy(dateRoot.get(FIELD_DATE));
-        dateQuery.orderBy(cb.asc(dateRoot.get(FIELD_DATE)));
-        List<Object[]> dateResults = entityManager.createQuery(dateQuery).getResultList();
-        List<DailyStat> byDate = dateResults.stream()
-                .map(row -> DailyStat.builder()
-                        .date((LocalDate) row[0])
-                        .totalAmount((BigDecimal) row[1])
-                        .count(((Number) row[2]).longValue())
+        query.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get(FIELD_ID)));
+
+        return entityManager.createQuery(query);
+    }
+
+    public ExpenseStatsDto getStatistics(Long userId, ExpenseFilterRequest request) {
+        validateMultiValueFilters(request);
+        ExpenseStatsEngine.Aggregate aggregate = statsCache.aggregate(
+                userId, request, EnumSet.of(ExpenseStatsEngine.Grouping.CATEGORY, ExpenseStatsEngine.Grouping.DATE)
+        );
+
+        Map<Long, BigDecimal> byCategory = new LinkedHashMap<>();
+        aggregate.byCategory().forEach(total -> byCategory.put(total.categoryId(), total.amount()));
+
+        List<DailyStat> byDate = aggregate.byDate().stream()
+                .map(day -> DailyStat.builder()
+                        .date(day.date())
+                        .totalAmount(day.amount())
+                        .count(day.count())
                         .build())
                 .collect(Collectors.toList());
 
         return ExpenseStatsDto.builder()
-                .totalAmount(totalAmount)
-                .count(count)
+                .totalAmount(aggregate.totalAmount())
+                .count(aggregate.count())
                 .byCategory(byCategory)
                 .byDate(byDate)
                 .build();
     }
 
-    private void validateFilterRequest(ExpenseFilterRequest request) {
+    // Also used by exports, which take the same filter
+    void validateFilterRequest(ExpenseFilterRequest request) {
         if (request.getFromDate() != null && request.getToDate() != null
                 && request.getFromDate().isAfter(request.getToDate())) {
             throw new ValidationException("fromDate cannot be after toDate");
@@ -194,155 +257,363 @@ public class ExpenseFilterService extends BaseService {
                 !request.getCategoryMatch().equalsIgnoreCase("like")) {
             throw new ValidationException("categoryMatch must be 'exact' or 'like'");
         }
+
+        validateMultiValueFilters(request);
     }
 
-    @Transactional(readOnly = true)
-    public TimeSeriesStatsDto getTimeSeriesStatistics(Long userId, ExpenseFilterRequest request) {
+    // Also applied on the stats paths, which otherwise accept any filter as-is
+    private void validateMultiValueFilters(ExpenseFilterRequest request) {
+        validateListSize("categoryIds", request.getCategoryIds(), MAX_ID_FILTER_VALUES);
+        validateListSize("teamIds", request.getTeamIds(), MAX_ID_FILTER_VALUES);
+        validateListSize("dateRanges", request.getDateRanges(), MAX_RANGE_FILTER_VALUES);
+        validateListSize("amountBuckets", request.getAmountBuckets(), MAX_RANGE_FILTER_VALUES);
+    }
+
+    private void validateListSize(String name, List<?> values, int max) {
+        if (values != null && values.size() > max) {
+            throw new ValidationException(name + " accepts at most " + max + " values");
+        }
+    }
+
+    /**
+     * @param granularity bucket size ({@code day}, {@code week}, {@code month}, {@code quarter}, {@code year});
+     *                    when given, empty buckets between the first and last bucket of the range are
+     *                    filled with zeros. Without it the series is one entry per day with data.
+     * @param timeZone    IANA zone used to determine "today" as the end of a filled range without
+     *                    {@code toDate}; defaults to the server zone
+     */
+    public TimeSeriesStatsDto getTimeSeriesStatistics(
+            Long userId,
+            ExpenseFilterRequest request,
+            String granularity,
+            String timeZone
+    ) {
+        return getTimeSeriesStatistics(userId, request, TimeGranularity.from(granularity), resolveZone(timeZone));
+    }
+
+    TimeSeriesStatsDto getTimeSeriesStatistics(
+            Long userId,
+            ExpenseFilterRequest request,
+            TimeGranularity granularity,
+            ZoneId zone
+    ) {
         ExpenseFilterRequest statsRequest = createStatsRequest(request, request.getTeamId());
-        return calculateTimeSeriesStats(userId, statsRequest);
+        return calculateTimeSeriesStats(userId, statsRequest, granularity, zone);
     }
 
-    @Transactional(readOnly = true)
-    public TimeSeriesStatsDto getTeamTimeSeriesStatistics(Long userId, Long teamId, ExpenseFilterRequest request) {
+    public TimeSeriesStatsDto getTeamTimeSeriesStatistics(
+            Long userId,
+            Long teamId,
+            ExpenseFilterRequest request,
+            String granularity,
+            String timeZone
+    ) {
         teamAcl.requireMembership(userId, teamId);
+        return getCheckedTeamTimeSeriesStatistics(
+                userId, teamId, request, TimeGranularity.from(granularity), resolveZone(timeZone));
+    }
+
+    // For callers that checked the membership themselves, such as the dashboard
+    TimeSeriesStatsDto getCheckedTeamTimeSeriesStatistics(
+            Long userId,
+            Long teamId,
+            ExpenseFilterRequest request,
+            TimeGranularity granularity,
+            ZoneId zone
+    ) {
         ExpenseFilterRequest statsRequest = createStatsRequest(request, teamId);
-        return calculateTimeSeriesStats(userId, statsRequest);
+        return calculateTimeSeriesStats(userId, statsRequest, granularity, zone);
     }
 
     // Extracted logic to avoid transactional self-invocation and duplicate code
-    private TimeSeriesStatsDto calculateTimeSeriesStats(Long userId, ExpenseFilterRequest request) {
-        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildStatsSpecification(userId, request);
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    private TimeSeriesStatsDto calculateTimeSeriesStats(
+            Long userId,
+            ExpenseFilterRequest request,
+            TimeGranularity granularity,
+            ZoneId zone
+    ) {
+        validateMultiValueFilters(request);
+        TimeGranularity applied = granularity != null ? granularity : TimeGranularity.DAY;
+        ExpenseStatsEngine.Aggregate aggregate = statsCache.aggregate(
+                userId, request, EnumSet.of(ExpenseStatsEngine.Grouping.DATE), applied
+        );
 
-        CriteriaQuery<Object[]> totalQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> root = totalQuery.from(ExpenseEntity.class);
-        totalQuery.select(cb.array(
-                cb.coalesce(cb.sum(root.get(FIELD_AMOUNT)), BigDecimal.ZERO),
-                cb.count(root)
-        ));
-        Predicate wherePredicate = spec.toPredicate(root, totalQuery, cb);
-        if (wherePredicate != null) {
-            totalQuery.where(wherePredicate);
-        }
-        Object[] totalResult = entityManager.createQuery(totalQuery).getSingleResult();
-        BigDecimal totalAmount = (BigDecimal) totalResult[0];
-        Long count = ((Number) totalResult[1]).longValue();
-
-        CriteriaQuery<Object[]> dateQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> dateRoot = dateQuery.from(ExpenseEntity.class);
-        dateQuery.select(cb.array(
-                dateRoot.get(FIELD_DATE),
-                cb.sum(dateRoot.get(FIELD_AMOUNT)),
-                cb.count(dateRoot)
-        ));
-        Predicate datePredicate = spec.toPredicate(dateRoot, dateQuery, cb);
-        if (datePredicate != null) {
-            dateQuery.where(datePredicate);
-        }
-        dateQuery.groupBy(dateRoot.get(FIELD_DATE));
-        dateQuery.orderBy(cb.asc(dateRoot.get(FIELD_DATE)));
-        List<Object[]> dateResults = entityManager.createQuery(dateQuery).getResultList();
-        List<PeriodStat> byPeriod = dateResults.stream()
-                .map(row -> PeriodStat.builder()
-                        .date((LocalDate) row[0])
-                        .totalAmount((BigDecimal) row[1])
-                        .count(((Number) row[2]).longValue())
+        List<PeriodStat> byPeriod = aggregate.byDate().stream()
+                .map(day -> PeriodStat.builder()
+                        .date(day.date())
+                        .totalAmount(day.amount())
+                        .count(day.count())
                         .build())
                 .collect(Collectors.toList());
+        if (granularity != null) {
+            byPeriod = fillGaps(byPeriod, granularity, request.getFromDate(), request.getToDate(), zone);
+        }
 
         return TimeSeriesStatsDto.builder()
-                .totalAmount(totalAmount)
-                .count(count)
+                .totalAmount(aggregate.totalAmount())
+                .count(aggregate.count())
+                .granularity(applied)
                 .byPeriod(byPeriod)
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Returns one entry per bucket from {@code fromDate} (or the first bucket with data) to
+     * {@code toDate} (or today in {@code zone}), using zero totals where there is no data.
+     */
+    private List<PeriodStat> fillGaps(
+            List<PeriodStat> buckets,
+            TimeGranularity granularity,
+            LocalDate fromDate,
+            LocalDate toDate,
+            ZoneId zone
+    ) {
+        if (buckets.isEmpty() && fromDate == null) {
+            return buckets;
+        }
+
+        LocalDate first = granularity.truncate(fromDate != null ? fromDate : buckets.get(0).getDate());
+        LocalDate last = granularity.truncate(toDate != null ? toDate : LocalDate.now(zone));
+        if (!buckets.isEmpty() && buckets.get(buckets.size() - 1).getDate().isAfter(last)) {
+            last = buckets.get(buckets.size() - 1).getDate();
+        }
+
+        List<PeriodStat> filled = new ArrayList<>();
+        Iterator<PeriodStat> data = buckets.iterator();
+        PeriodStat pending = data.hasNext() ? data.next() : null;
+        for (LocalDate bucket = first; !bucket.isAfter(last); bucket = granularity.next(bucket)) {
+            if (filled.size() == MAX_TIME_SERIES_BUCKETS) {
+                throw new ValidationException("Time series would exceed " + MAX_TIME_SERIES_BUCKETS
+                        + " buckets; narrow the date range or use a coarser granularity");
+            }
+            if (pending != null && pending.getDate().equals(bucket)) {
+                filled.add(pending);
+                pending = data.hasNext() ? data.next() : null;
+            } else {
+                filled.add(PeriodStat.builder()
+                        .date(bucket)
+                        .totalAmount(BigDecimal.ZERO)
+                        .count(0L)
+                        .build());
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Compares the period {@code [fromDate, toDate]} of the request with the one before it.
+     *
+     * @param compareTo           {@code previous} (default): the same number of days right before, or the
+     *                            same number of calendar months when the period is whole months;
+     *                            {@code year}: the same dates one year earlier
+     * @param granularity         bucket size of {@code byPeriod}; defaults to day
+     * @param movingAverageWindow number of buckets in the trailing moving average; defaults to 7
+     */
+    public ComparisonStatsDto getComparisonStatistics(
+            Long userId,
+            ExpenseFilterRequest request,
+            String compareTo,
+            String granularity,
+            Integer movingAverageWindow
+    ) {
+        LocalDate from = request.getFromDate();
+        LocalDate to = request.getToDate();
+        if (from == null || to == null) {
+            throw new ValidationException("fromDate and toDate are required");
+        }
+        if (from.isAfter(to)) {
+            throw new ValidationException("fromDate cannot be after toDate");
+        }
+        int window = movingAverageWindow != null ? movingAverageWindow : DEFAULT_MOVING_AVERAGE_WINDOW;
+        if (window < 1 || window > MAX_MOVING_AVERAGE_WINDOW) {
+            throw new ValidationException("movingAverageWindow must be between 1 and " + MAX_MOVING_AVERAGE_WINDOW);
+        }
+        TimeGranularity requested = TimeGranularity.from(granularity);
+        TimeGranularity applied = requested != null ? requested : TimeGranularity.DAY;
+        if (ExpenseStatsEngine.bucketIndex(applied, from, to) >= MAX_TIME_SERIES_BUCKETS) {
+            throw new ValidationException("Comparison would exceed " + MAX_TIME_SERIES_BUCKETS
+                    + " buckets; narrow the date range or use a coarser granularity");
+        }
+        ExpenseFilterRequest statsRequest = createStatsRequest(request, request.getTeamId());
+        validateMultiValueFilters(statsRequest);
+
+        ExpenseStatsEngine.Period current = new ExpenseStatsEngine.Period(from, to);
+        ExpenseStatsEngine.Period previous = previousPeriod(current, compareTo);
+        ExpenseStatsEngine.Comparison comparison = statsEngine.compare(
+                userId, statsRequest, current, previous, applied, window
+        );
+
+        ExpenseStatsEngine.Change total = comparison.total();
+        return ComparisonStatsDto.builder()
+                .currentFrom(current.from())
+                .currentTo(current.to())
+                .previousFrom(previous.from())
+                .previousTo(previous.to())
+                .granularity(applied)
+                .movingAverageWindow(window)
+                .currentAmount(total.currentAmount())
+                .previousAmount(total.previousAmount())
+                .deltaAmount(total.deltaAmount())
+                .deltaPercent(total.deltaPercent())
+                .currentCount(total.currentCount())
+                .previousCount(total.previousCount())
+                .byCategory(comparison.byCategory().stream()
+                        .map(category -> CategoryComparisonStat.builder()
+                                .categoryId(category.categoryId())
+                                .categoryName(category.categoryName())
+                                .currentAmount(category.change().currentAmount())
+                                .previousAmount(category.change().previousAmount())
+                                .deltaAmount(category.change().deltaAmount())
+                                .deltaPercent(category.change().deltaPercent())
+                                .currentCount(category.change().currentCount())
+                                .previousCount(category.change().previousCount())
+                                .build())
+                        .collect(Collectors.toList()))
+                .byPeriod(comparison.byBucket().stream()
+                        .map(bucket -> PeriodComparisonStat.builder()
+                                .currentDate(bucket.currentStart())
+                                .previousDate(bucket.previousStart())
+                                .currentAmount(bucket.change().currentAmount())
+                                .previousAmount(bucket.change().previousAmount())
+                                .deltaAmount(bucket.change().deltaAmount())
+                                .deltaPercent(bucket.change().deltaPercent())
+                                .currentCount(bucket.change().currentCount())
+                                .previousCount(bucket.change().previousCount())
+                                .currentMovingAverage(bucket.currentMovingAverage())
+                                .previousMovingAverage(bucket.previousMovingAverage())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private ExpenseStatsEngine.Period previousPeriod(ExpenseStatsEngine.Period current, String compareTo) {
+        LocalDate from = current.from();
+        LocalDate to = current.to();
+        if (compareTo != null && compareTo.equalsIgnoreCase("year")) {
+            if (!to.isBefore(from.plusYears(1))) {
+                throw new ValidationException("Periods longer than a year cannot be compared with the previous year");
+            }
+            return new ExpenseStatsEngine.Period(from.minusYears(1), to.minusYears(1));
+        }
+        if (compareTo != null && !compareTo.isBlank() && !compareTo.equalsIgnoreCase("previous")) {
+            throw new ValidationException("compareTo must be 'previous' or 'year'");
+        }
+
+        boolean wholeMonths = from.getDayOfMonth() == 1 && to.getDayOfMonth() == to.lengthOfMonth();
+        if (wholeMonths) {
+            long months = ChronoUnit.MONTHS.between(from, to.plusDays(1));
+            return new ExpenseStatsEngine.Period(from.minusMonths(months), from.minusDays(1));
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        return new ExpenseStatsEngine.Period(from.minusDays(days), from.minusDays(1));
+    }
+
+    static ZoneId resolveZone(String timeZone) {
+        if (timeZone == null || timeZone.isBlank()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timeZone.trim());
+        } catch (DateTimeException e) {
+            throw new ValidationException("Unknown timeZone: " + timeZone);
+        }
+    }
+
     public CategoryPieStatsDto getCategoryPieStatistics(Long userId, ExpenseFilterRequest request) {
         return calculateCategoryPieStats(userId, request);
     }
 
-    @Transactional(readOnly = true)
     public CategoryPieStatsDto getTeamCategoryPieStatistics(Long userId, Long teamId, ExpenseFilterRequest request) {
         teamAcl.requireMembership(userId, teamId);
+        return getCheckedTeamCategoryPieStatistics(userId, teamId, request);
+    }
+
+    // For callers that checked the membership themselves, such as the dashboard
+    CategoryPieStatsDto getCheckedTeamCategoryPieStatistics(Long userId, Long teamId, ExpenseFilterRequest request) {
         ExpenseFilterRequest statsRequest = createStatsRequest(request, teamId);
         return calculateCategoryPieStats(userId, statsRequest);
     }
 
     // Extracted logic to avoid transactional self-invocation
     private CategoryPieStatsDto calculateCategoryPieStats(Long userId, ExpenseFilterRequest request) {
-        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildStatsSpecification(userId, request);
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-
-        CriteriaQuery<Object[]> totalQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> root = totalQuery.from(ExpenseEntity.class);
-        totalQuery.select(cb.array(
-                cb.coalesce(cb.sum(root.get(FIELD_AMOUNT)), BigDecimal.ZERO),
-                cb.count(root)
-        ));
-        Predicate wherePredicate = spec.toPredicate(root, totalQuery, cb);
-        if (wherePredicate != null) {
-            totalQuery.where(wherePredicate);
-        }
-        Object[] totalResult = entityManager.createQuery(totalQuery).getSingleResult();
-        BigDecimal totalAmount = (BigDecimal) totalResult[0];
-        Long count = ((Number) totalResult[1]).longValue();
-
-        CriteriaQuery<Object[]> categoryQuery = cb.createQuery(Object[].class);
-        Root<ExpenseEntity> categoryRoot = categoryQuery.from(ExpenseEntity.class);
-        categoryQuery.select(cb.array(
-                categoryRoot.get(FIELD_CATEGORY).get(FIELD_ID),
-                categoryRoot.get(FIELD_CATEGORY).get("name"),
-                cb.sum(categoryRoot.get(FIELD_AMOUNT))
-        ));
-        Predicate categoryPredicate = spec.toPredicate(categoryRoot, categoryQuery, cb);
-        if (categoryPredicate != null) {
-            categoryQuery.where(categoryPredicate);
-        }
-        categoryQuery.groupBy(
-                categoryRoot.get(FIELD_CATEGORY).get(FIELD_ID),
-                categoryRoot.get(FIELD_CATEGORY).get("name")
+        validateMultiValueFilters(request);
+        ExpenseStatsEngine.Aggregate aggregate = statsCache.aggregate(
+                userId, request, EnumSet.of(ExpenseStatsEngine.Grouping.CATEGORY)
         );
-        categoryQuery.orderBy(cb.desc(cb.sum(categoryRoot.get(FIELD_AMOUNT))));
-        List<Object[]> categoryResults = entityManager.createQuery(categoryQuery).getResultList();
-
-        List<CategoryPieStat> categories = categoryResults.stream()
-                .map(row -> {
-                    Long categoryId = ((Number) row[0]).longValue();
-                    String categoryName = (String) row[1];
-                    BigDecimal amount = (BigDecimal) row[2];
-                    BigDecimal percentage = totalAmount.compareTo(BigDecimal.ZERO) > 0
-                            ? amount.divide(totalAmount, 4, java.math.RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            : BigDecimal.ZERO;
-                    return CategoryPieStat.builder()
-                            .categoryId(categoryId)
-                            .categoryName(categoryName)
-                            .amount(amount)
-                            .percentage(percentage.setScale(2, java.math.RoundingMode.HALF_UP))
-                            .build();
-                })
-                .collect(Collectors.toList());
+        BigDecimal totalAmount = aggregate.totalAmount();
 
         return CategoryPieStatsDto.builder()
                 .totalAmount(totalAmount)
-                .totalCount(count)
-                .categories(categories)
+                .totalCount(aggregate.count())
+                .categories(toPieStats(aggregate.byCategory(), totalAmount))
                 .build();
     }
 
+    /**
+     * Who spent what in a team: totals, counts and category splits per member, for all members'
+     * expenses that match the filter. Limited to team owners and admins, like the team exports.
+     *
+     * @param top number of members listed individually (default 10); the rest are combined into {@code others}
+     */
+    public TeamMemberStatsDto getTeamMemberStatistics(Long userId, Long teamId, ExpenseFilterRequest request, Integer top) {
+        teamAcl.requireMembership(userId, teamId, TeamRole.OWNER, TeamRole.ADMIN);
+        int limit = top != null ? top : DEFAULT_TOP_MEMBERS;
+        if (limit < 1 || limit > MAX_TOP_MEMBERS) {
+            throw new ValidationException("top must be between 1 and " + MAX_TOP_MEMBERS);
+        }
+        ExpenseFilterRequest statsRequest = createStatsRequest(request, teamId);
+        validateMultiValueFilters(statsRequest);
+
+        ExpenseStatsEngine.MemberBreakdown breakdown = statsEngine.memberBreakdown(teamId, statsRequest, limit);
+        BigDecimal totalAmount = breakdown.totalAmount();
+        return TeamMemberStatsDto.builder()
+                .teamId(teamId)
+                .totalAmount(totalAmount)
+                .totalCount(breakdown.count())
+                .memberCount(breakdown.memberCount())
+                .members(breakdown.members().stream()
+                        .map(member -> toMemberStat(member, totalAmount))
+                        .collect(Collectors.toList()))
+                .others(breakdown.others() != null ? toMemberStat(breakdown.others(), totalAmount) : null)
+                .build();
+    }
+
+    private static MemberSpendStat toMemberStat(ExpenseStatsEngine.MemberTotal member, BigDecimal totalAmount) {
+        return MemberSpendStat.builder()
+                .userId(member.userId())
+                .username(member.username())
+                .memberCount(member.memberCount())
+                .amount(member.amount())
+                .count(member.count())
+                .percentage(percentage(member.amount(), totalAmount))
+                .categories(toPieStats(member.byCategory(), member.amount()))
+                .build();
+    }
+
+    private static List<CategoryPieStat> toPieStats(List<ExpenseStatsEngine.CategoryTotal> totals, BigDecimal totalAmount) {
+        return totals.stream()
+                .map(total -> CategoryPieStat.builder()
+                        .categoryId(total.categoryId())
+                        .categoryName(total.categoryName())
+                        .amount(total.amount())
+                        .percentage(percentage(total.amount(), totalAmount))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static BigDecimal percentage(BigDecimal part, BigDecimal whole) {
+        BigDecimal percentage = whole.compareTo(BigDecimal.ZERO) > 0
+                ? part.divide(whole, 4, java.math.RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO;
+        return percentage.setScale(2, java.math.RoundingMode.HALF_UP);
+    }
+
     private ExpenseFilterRequest createStatsRequest(ExpenseFilterRequest original, Long teamId) {
-        return ExpenseFilterRequest.builder()
-                .categoryId(original.getCategoryId())
-                .category(original.getCategory())
-                .categoryMatch(original.getCategoryMatch())
-                .fromDate(original.getFromDate())
-                .toDate(original.getToDate())
-                .minAmount(original.getMinAmount())
-                .maxAmount(original.getMaxAmount())
-                .hasReceipt(original.getHasReceipt())
+        return original.toBuilder()
                 .teamId(teamId)
-                .search(original.getSearch())
+                .cursor(null)
+                .limit(null)
                 .build();
     }
 }
\ No newline at end of file
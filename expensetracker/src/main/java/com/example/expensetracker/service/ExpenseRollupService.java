@@ -0,0 +1,87 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.util.NativeQueryUtil;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verification and repair of {@code expense_daily_rollup}.
+ * <p>
+ * The rollup is maintained by triggers on {@code expenses} (migration V7), in the same transaction
+ * as every write, so it cannot lag behind. This job exists to catch drift from anything that
+ * bypasses the triggers (restores, manual {@code session_replication_role} changes) and to
+ * rebuild the table when that happens.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseRollupService {
+
+    private static final String ACTUAL_AGGREGATES = """
+            SELECT user_id, team_id, category_id, date,
+                   COALESCE(SUM(amount), 0) AS total_amount, COUNT(*) AS expense_count
+            FROM expenses
+            GROUP BY user_id, team_id, category_id, date
+            """;
+
+    private final EntityManager entityManager;
+    private final AppProperties appProperties;
+
+    /**
+     * @return number of (user, team, category, day) keys whose rollup row is missing, stale or orphaned
+     */
+    @Transactional(readOnly = true)
+    public long countMismatches() {
+        Object result = entityManager.createNativeQuery("""
+                WITH actual AS (%s)
+                SELECT COUNT(*)
+                FROM actual a
+                FULL JOIN expense_daily_rollup r
+                  ON r.user_id = a.user_id
+                 AND r.team_id IS NOT DISTINCT FROM a.team_id
+                 AND r.category_id = a.category_id
+                 AND r.date IS NOT DISTINCT FROM a.date
+                WHERE a.total_amount IS DISTINCT FROM r.total_amount
+                   OR a.expense_count IS DISTINCT FROM r.expense_count
+                """.formatted(ACTUAL_AGGREGATES)).getSingleResult();
+        return NativeQueryUtil.toLongOrZero(result);
+    }
+
+    /**
+     * Recomputes the whole rollup from {@code expenses}. Writers are blocked (SHARE lock) for the
+     * duration so no change can slip in between the delete and the re-insert.
+     *
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild() {
+        entityManager.createNativeQuery("LOCK TABLE expenses IN SHARE MODE").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM expense_daily_rollup").executeUpdate();
+        int rows = entityManager.createNativeQuery("""
+                INSERT INTO expense_daily_rollup (user_id, team_id, category_id, date, total_amount, expense_count)
+                %s
+                """.formatted(ACTUAL_AGGREGATES)).executeUpdate();
+        log.info("Rebuilt expense_daily_rollup: {} rows", rows);
+        return rows;
+    }
+
+    @Scheduled(cron = "${app.rollup.verify-cron:0 30 3 * * *}")
+    @Transactional
+    public void verify() {
+        long mismatches = countMismatches();
+        if (mismatches == 0) {
+            log.debug("expense_daily_rollup verified: no drift");
+            return;
+        }
+
+        log.warn("expense_daily_rollup has {} mismatched keys", mismatches);
+        if (appProperties.getRollup().isAutoRepair()) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.ExpenseSearchHitDto;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.util.NativeQueryUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked search over expense descriptions and category names.
+ * <p>
+ * Backed by the {@code search_vector} tsvector column (description weighted above category name)
+ * for word and prefix matches, and by {@code pg_trgm} indexes for typo-tolerant matches.
+ * Both are maintained by migration V4, so no query here needs a leading-wildcard scan.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_TERMS = 8;
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private static final String DOCUMENT_QUERY = "to_tsquery('simple', :tsQuery)";
+
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public List<ExpenseSearchHitDto> search(Long userId, String queryText, Long teamId, Integer limit) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new ValidationException("Search query must not be empty");
+        }
+        if (queryText.length() > MAX_QUERY_LENGTH) {
+            throw new ValidationException("Search query must not exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        String term = queryText.trim().toLowerCase(Locale.ROOT);
+        List<String> tokens = tokenize(term);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT e.id, c.id, c.name, e.description, e.amount, e.date,
+                       e.has_receipt, e.team_id, e.created_at,
+                       ts_rank(e.search_vector, %1$s)
+                           + GREATEST(word_similarity(:term, lower(coalesce(e.description, ''))),
+                                      similarity(:term, lower(c.name))) AS score
+                FROM expenses e
+                JOIN categories c ON c.id = e.category_id
+                WHERE e.user_id = :userId
+                  AND (
+                      e.search_vector @@ %1$s
+                      OR :term <%% lower(e.description)
+                      OR e.category_id IN (
+                          SELECT cat.id FROM categories cat
+                          WHERE cat.user_id = :userId AND :term <%% lower(cat.name)
+                      )
+                  )
+                """.formatted(DOCUMENT_QUERY));
+        if (teamId != null) {
+            sql.append("  AND e.team_id = :teamId\n");
+        }
+        sql.append("ORDER BY score DESC, e.created_at DESC, e.id DESC\nLIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("tsQuery", toPrefixQuery(tokens))
+                .setParameter("term", term)
+                .setParameter("userId", userId)
+                .setParameter("limit", limit != null ? limit : DEFAULT_LIMIT);
+        if (teamId != null) {
+            query.setParameter("teamId", teamId);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        log.debug("Expense search for user {} matched {} rows (terms={})", userId, rows.size(), tokens);
+
+        List<ExpenseSearchHitDto> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(ExpenseSearchHitDto.builder()
+                    .id(NativeQueryUtil.toLong(row[0]))
+                    .categoryId(NativeQueryUtil.toLong(row[1]))
+                    .categoryName((String) row[2])
+                    .description((String) row[3])
+                    .amount(NativeQueryUtil.toBigDecimal(row[4]))
+                    .date(NativeQueryUtil.toLocalDate(row[5]))
+                    .hasReceipt(NativeQueryUtil.toBoolean(row[6]))
+                    .teamId(NativeQueryUtil.toLong(row[7]))
+                    .createdAt(NativeQueryUtil.toInstant(row[8]))
+                    .score(NativeQueryUtil.toDouble(row[9]))
+                    .build());
+        }
+        return hits;
+    }
+
+    /**
+     * Splits the input into letter/digit tokens. Anything else (including tsquery operators)
+     * is treated as a separator, so user input can never change the shape of the query.
+     */
+    static List<String> tokenize(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .limit(MAX_TERMS)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every token must match, each as a prefix: "coff sho" becomes "coff:* & sho:*".
+     */
+    static String toPrefixQuery(List<String> tokens) {
+        return tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.config.PrimaryReads;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.enums.TimeGranularity;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.event.ExpenseScopeChangedEvent;
+import com.example.expensetracker.event.ExpenseSnapshot;
+import com.example.expensetracker.specification.ExpenseFilterSql;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache in front of {@link ExpenseStatsEngine}.
+ * <p>
+ * Entries are keyed by scope (the user, plus the team for team-filtered requests), the requested
+ * groupings and the fingerprint of the normalized filter. Every scope has a version that is bumped
+ * once an expense write commits; the versions current at lookup time are part of the key, so a write
+ * makes older entries unreachable instead of having to find and delete them. Unreachable entries
+ * age out of the access-ordered map, which is kept under {@code app.stats-cache.memory-budget-bytes}.
+ * <p>
+ * Concurrent misses on one key share a single computation: the first caller runs the query and the
+ * others wait on its future.
+ * <p>
+ * Loads read from the primary, in a transaction of their own. A replica that has not replayed a write
+ * yet would otherwise have its result cached under the version that write produced, and served until
+ * the next one.
+ */
+@Service
+public class ExpenseStatsCache {
+
+    private static final String METRIC_PREFIX = "expense.stats.cache";
+
+    // Rough heap cost of an entry and of each row it holds, including key and map overhead
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+    private static final long CATEGORY_ROW_BYTES = 160;
+    private static final long DAY_ROW_BYTES = 112;
+
+    private final ExpenseStatsEngine engine;
+    private final AppProperties appProperties;
+    private final TransactionTemplate primaryReads;
+
+    private final Counter hits;
+    private final Counter sharedLoads;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loadTimer;
+
+    private final Map<Long, Long> userVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> teamVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    private record Key(
+            Long userId,
+            Long teamId,
+            long userVersion,
+            long teamVersion,
+            long globalVersion,
+            Set<ExpenseStatsEngine.Grouping> groupings,
+            TimeGranularity granularity,
+            String fingerprint
+    ) {
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<ExpenseStatsEngine.Aggregate> future = new CompletableFuture<>();
+        private long bytes;
+    }
+
+    public ExpenseStatsCache(
+            ExpenseStatsEngine engine,
+            AppProperties appProperties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.engine = engine;
+        this.appProperties = appProperties;
+        this.primaryReads = new TransactionTemplate(transactionManager);
+        this.primaryReads.setReadOnly(true);
+        // A fresh connection, whatever the caller's transaction already holds
+        this.primaryReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hits = requests(meterRegistry, "hit");
+        this.sharedLoads = requests(meterRegistry, "shared");
+        this.misses = requests(meterRegistry, "miss");
+        this.evictions = Counter.builder(METRIC_PREFIX + ".evictions")
+                .description("Stats results dropped to stay within the memory budget")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder(METRIC_PREFIX + ".load")
+                .description("Time spent computing stats results on a cache miss")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this, ExpenseStatsCache::size)
+                .description("Cached stats results, including stale ones not yet evicted")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".bytes", this, ExpenseStatsCache::usedBytes)
+                .description("Estimated heap used by cached stats results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".requests")
+                .description("Stats lookups by outcome; shared means the caller joined an in-flight load")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public ExpenseStatsEngine.Aggregate aggregate(
+            Long userId,
+            ExpenseFilterRequest request,
+            Set<ExpenseStatsEngine.Grouping> groupings
+    ) {
+        return aggregate(userId, request, groupings, TimeGranularity.DAY);
+    }
+
+    /**
+     * Same contract as {@link ExpenseStatsEngine#aggregate}, answered from the cache when possible.
+     */
+    public ExpenseStatsEngine.Aggregate aggregate(
+            Long userId,
+            ExpenseFilterRequest request,
+            Set<ExpenseStatsEngine.Grouping> groupings,
+            TimeGranularity granularity
+    ) {
+        if (!appProperties.getStatsCache().isEnabled()) {
+            return engine.aggregate(userId, request, groupings, granularity);
+        }
+
+        Key key = keyFor(userId, request, groupings, granularity);
+        Entry entry;
+        boolean loader = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                loader = true;
+            }
+        }
+
+        if (!loader) {
+            (entry.future.isDone() ? hits : sharedLoads).increment();
+            return await(entry.future);
+        }
+
+        misses.increment();
+        return load(key, entry, () -> PrimaryReads.call(() -> primaryReads.execute(
+                status -> engine.aggregate(userId, request, groupings, granularity))));
+    }
+
+    /**
+     * Runs after commit, so a load that starts after the bump is guaranteed to see the write: loads
+     * read from the primary.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        bump(event.before());
+        bump(event.after());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScopeChanged(ExpenseScopeChangedEvent event) {
+        if (event.userId() == null) {
+            globalVersion.incrementAndGet();
+        } else {
+            userVersions.merge(event.userId(), 1L, Long::sum);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long usedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    private void bump(ExpenseSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.userId() != null) {
+            userVersions.merge(snapshot.userId(), 1L, Long::sum);
+        }
+        if (snapshot.teamId() != null) {
+            teamVersions.merge(snapshot.teamId(), 1L, Long::sum);
+        }
+    }
+
+    private Key keyFor(
+            Long userId,
+            ExpenseFilterRequest request,
+            Set<ExpenseStatsEngine.Grouping> groupings,
+            TimeGranularity granularity
+    ) {
+        Long teamId = request.getTeamId();
+        return new Key(
+                userId,
+                teamId,
+                userVersions.getOrDefault(userId, 0L),
+                teamId != null ? teamVersions.getOrDefault(teamId, 0L) : 0L,
+                globalVersion.get(),
+                Set.copyOf(groupings),
+                granularity,
+                ExpenseFilterSql.build(userId, request).fingerprint()
+        );
+    }
+
+    private ExpenseStatsEngine.Aggregate load(Key key, Entry entry, Supplier<ExpenseStatsEngine.Aggregate> loader) {
+        ExpenseStatsEngine.Aggregate aggregate;
+        long started = System.nanoTime();
+        try {
+            aggregate = loader.get();
+        } catch (RuntimeException | Error e) {
+            // Failures are not cached; waiters get the same exception and the next caller retries
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        entry.future.complete(aggregate);
+        synchronized (entries) {
+            // Skipped when the entry was evicted while loading
+            if (entries.get(key) == entry) {
+                entry.bytes = estimateBytes(key, aggregate);
+                usedBytes += entry.bytes;
+                evictOverBudget(entry);
+            }
+        }
+        return aggregate;
+    }
+
+    // Callers hold the lock on entries
+    private void evictOverBudget(Entry keep) {
+        long budget = appProperties.getStatsCache().getMemoryBudgetBytes();
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > budget && eldest.hasNext()) {
+            Entry candidate = eldest.next().getValue();
+            // In-flight loads have no size yet and must stay joinable
+            if (candidate == keep || !candidate.future.isDone()) {
+                continue;
+            }
+            usedBytes -= candidate.bytes;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long estimateBytes(Key key, ExpenseStatsEngine.Aggregate aggregate) {
+        return ENTRY_OVERHEAD_BYTES
+                + 2L * key.fingerprint().length()
+                + CATEGORY_ROW_BYTES * aggregate.byCategory().size()
+                + DAY_ROW_BYTES * aggregate.byDate().size();
+    }
+
+    private static ExpenseStatsEngine.Aggregate await(CompletableFuture<ExpenseStatsEngine.Aggregate> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
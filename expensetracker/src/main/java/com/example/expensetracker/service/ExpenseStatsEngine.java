@@ -0,0 +1,520 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.enums.TimeGranularity;
+import com.example.expensetracker.specification.ExpenseFilterSql;
+import com.example.expensetracker.util.NativeQueryUtil;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes every aggregate a stats endpoint needs in a single statement.
+ * <p>
+ * The filter is applied once and the matching rows are grouped with
+ * {@code GROUPING SETS ((), (category), (date))}, so totals, per-category and per-day figures
+ * come out of one scan instead of one query per breakdown. {@code GROUPING()} tells the result
+ * rows apart. The date breakdown is bucketed with {@code date_trunc} when a coarser
+ * {@link TimeGranularity} than a day is asked for. Filters that only involve user, team, category and date are answered from
+ * {@code expense_daily_rollup} instead of raw expenses. Results are immutable and may be shared
+ * through {@link ExpenseStatsCache}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseStatsEngine {
+
+    private final EntityManager entityManager;
+    private final AppProperties appProperties;
+
+    /**
+     * Where the rows come from. The rollup (one row per user, team, category and day) gives the
+     * same sums and counts as raw expenses as long as the filter stays within those dimensions.
+     */
+    private enum Source {
+        EXPENSES("expenses", "e.amount", "COUNT(*)", "1"),
+        ROLLUP("expense_daily_rollup", "e.total_amount", "COALESCE(SUM(e.expense_count), 0)", "e.expense_count");
+
+        private final String table;
+        private final String amount;
+        private final String count;
+        private final String rowCount;
+
+        Source(String table, String amount, String count, String rowCount) {
+            this.table = table;
+            this.amount = amount;
+            this.count = count;
+            this.rowCount = rowCount;
+        }
+    }
+
+    public enum Grouping {
+        CATEGORY,
+        DATE
+    }
+
+    public record CategoryTotal(Long categoryId, String categoryName, BigDecimal amount, long count) {
+    }
+
+    public record DayTotal(LocalDate date, BigDecimal amount, long count) {
+    }
+
+    /**
+     * @param byCategory sorted by amount descending; empty unless {@link Grouping#CATEGORY} was requested
+     * @param byDate sorted by date ascending, one entry per non-empty bucket keyed by its first day;
+     *               empty unless {@link Grouping#DATE} was requested
+     */
+    public record Aggregate(BigDecimal totalAmount, long count, List<CategoryTotal> byCategory, List<DayTotal> byDate) {
+    }
+
+    public record Period(LocalDate from, LocalDate to) {
+    }
+
+    /**
+     * @param deltaPercent change relative to the previous amount; null when that is zero
+     */
+    public record Change(
+            BigDecimal currentAmount,
+            long currentCount,
+            BigDecimal previousAmount,
+            long previousCount,
+            BigDecimal deltaAmount,
+            BigDecimal deltaPercent
+    ) {
+    }
+
+    public record CategoryChange(Long categoryId, String categoryName, Change change) {
+    }
+
+    /**
+     * Bucket {@code index} of the current period lined up with bucket {@code index} of the previous one.
+     * {@code currentStart} or {@code previousStart} is null when that period is too short to have the bucket.
+     * Moving averages run over this bucket and up to {@code window - 1} buckets before it.
+     */
+    public record BucketChange(
+            int index,
+            LocalDate currentStart,
+            LocalDate previousStart,
+            Change change,
+            BigDecimal currentMovingAverage,
+            BigDecimal previousMovingAverage
+    ) {
+    }
+
+    /**
+     * @param byCategory sorted by current amount descending
+     * @param byBucket   one entry per bucket of the longer period, empty buckets included
+     */
+    public record Comparison(Change total, List<CategoryChange> byCategory, List<BucketChange> byBucket) {
+    }
+
+    /**
+     * Spend of one member, or of all members outside the top N when {@code userId} is null.
+     *
+     * @param memberCount number of members folded into this entry; 1 for a single member
+     * @param byCategory  sorted by amount descending
+     */
+    public record MemberTotal(
+            Long userId,
+            String username,
+            int memberCount,
+            BigDecimal amount,
+            long count,
+            List<CategoryTotal> byCategory
+    ) {
+    }
+
+    /**
+     * @param members sorted by amount descending, at most the requested number of entries
+     * @param others  everyone after the top N combined; null when nobody was left out
+     */
+    public record MemberBreakdown(
+            BigDecimal totalAmount,
+            long count,
+            int memberCount,
+            List<MemberTotal> members,
+            MemberTotal others
+    ) {
+    }
+
+    @Transactional(readOnly = true)
+    public Aggregate aggregate(Long userId, ExpenseFilterRequest request, Set<Grouping> groupings) {
+        return aggregate(userId, request, groupings, TimeGranularity.DAY);
+    }
+
+    @Transactional(readOnly = true)
+    public Aggregate aggregate(
+            Long userId,
+            ExpenseFilterRequest request,
+            Set<Grouping> groupings,
+            TimeGranularity granularity
+    ) {
+        boolean withCategory = groupings.contains(Grouping.CATEGORY);
+        boolean withDate = groupings.contains(Grouping.DATE);
+        ExpenseFilterSql filter = ExpenseFilterSql.build(userId, request);
+        Source source = appProperties.getRollup().isEnabled() && ExpenseFilterSql.isRollupCompatible(request)
+                ? Source.ROLLUP
+                : Source.EXPENSES;
+        // expenses.date is a calendar date; the explicit cast keeps date_trunc off timestamptz
+        // and so independent of the session time zone
+        String bucket = granularity == TimeGranularity.DAY
+                ? "e.date"
+                : "CAST(date_trunc('%s', CAST(e.date AS TIMESTAMP)) AS DATE)".formatted(granularity.sqlUnit());
+
+        // GROUPING() only accepts expressions that appear in some grouping set
+        String sql = """
+                SELECT %s AS category_grouped, %s AS date_grouped,
+                       %s, %s, %s,
+                       COALESCE(SUM(%s), 0), %s
+                FROM %s e
+                JOIN categories c ON c.id = e.category_id
+                WHERE %s
+                GROUP BY GROUPING SETS (%s)
+                """.formatted(
+                withCategory ? "GROUPING(e.category_id)" : "1",
+                withDate ? "GROUPING(" + bucket + ")" : "1",
+                withCategory ? "e.category_id" : "NULL",
+                withCategory ? "c.name" : "NULL",
+                withDate ? bucket : "CAST(NULL AS DATE)",
+                source.amount,
+                source.count,
+                source.table,
+                filter.whereClause(),
+                groupingSets(withCategory, withDate ? bucket : null)
+        );
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = filter.bind(entityManager.createNativeQuery(sql)).getResultList();
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long count = 0;
+        List<CategoryTotal> byCategory = new ArrayList<>();
+        List<DayTotal> byDate = new ArrayList<>();
+        for (Object[] row : rows) {
+            boolean categoryGrouped = NativeQueryUtil.toLongOrZero(row[0]) == 0;
+            boolean dateGrouped = NativeQueryUtil.toLongOrZero(row[1]) == 0;
+            BigDecimal amount = NativeQueryUtil.toBigDecimal(row[5]);
+            long rowCount = NativeQueryUtil.toLongOrZero(row[6]);
+
+            if (categoryGrouped) {
+                byCategory.add(new CategoryTotal(NativeQueryUtil.toLong(row[2]), (String) row[3], amount, rowCount));
+            } else if (dateGrouped) {
+                byDate.add(new DayTotal(NativeQueryUtil.toLocalDate(row[4]), amount, rowCount));
+            } else {
+                totalAmount = amount;
+                count = rowCount;
+            }
+        }
+
+        byCategory.sort(Comparator.comparing(CategoryTotal::amount).reversed()
+                .thenComparing(CategoryTotal::categoryId));
+        byDate.sort(Comparator.comparing(DayTotal::date));
+
+        log.debug("Stats for user {} from {}: {} rows, {} categories, {} {} buckets",
+                userId, source.table, count, byCategory.size(), byDate.size(), granularity.sqlUnit());
+        return new Aggregate(totalAmount, count, List.copyOf(byCategory), List.copyOf(byDate));
+    }
+
+    /**
+     * Compares two non-overlapping periods under the same filter in one statement: rows of both
+     * periods are tagged and bucketed by position from their period start, grouped with
+     * {@code GROUPING SETS} using {@code FILTER} sums per period, and the bucket series is made dense
+     * with {@code generate_series} so the window functions average over consecutive buckets.
+     * Date bounds of {@code request} are ignored; the periods take their place.
+     */
+    @Transactional(readOnly = true)
+    public Comparison compare(
+            Long userId,
+            ExpenseFilterRequest request,
+            Period current,
+            Period previous,
+            TimeGranularity granularity,
+            int movingAverageWindow
+    ) {
+        ExpenseFilterSql filter = ExpenseFilterSql.build(userId, request.toBuilder().fromDate(null).toDate(null).build());
+        Source source = appProperties.getRollup().isEnabled() && ExpenseFilterSql.isRollupCompatible(request)
+                ? Source.ROLLUP
+                : Source.EXPENSES;
+        // Either period may be the longer one, e.g. February against the whole of January
+        int lastBucket = Math.max(
+                bucketIndex(granularity, current.from(), current.to()),
+                bucketIndex(granularity, previous.from(), previous.to())
+        );
+
+        // GROUPING(category, bucket): 1 = per category, 2 = per bucket, 3 = total
+        String sql = """
+                WITH tagged AS (
+                    SELECT e.date >= :currentFrom AS is_current,
+                           e.category_id, c.name AS category_name,
+                           CASE WHEN e.date >= :currentFrom THEN %s ELSE %s END AS bucket,
+                           %s AS amount, %s AS row_count
+                    FROM %s e
+                    JOIN categories c ON c.id = e.category_id
+                    WHERE %s
+                      AND (e.date BETWEEN :currentFrom AND :currentTo OR e.date BETWEEN :previousFrom AND :previousTo)
+                ),
+                grouped AS (
+                    SELECT GROUPING(t.category_id, t.bucket) AS grouping_id,
+                           t.category_id, t.category_name, t.bucket,
+                           COALESCE(SUM(t.amount) FILTER (WHERE t.is_current), 0) AS current_amount,
+                           COALESCE(SUM(t.row_count) FILTER (WHERE t.is_current), 0) AS current_count,
+                           COALESCE(SUM(t.amount) FILTER (WHERE NOT t.is_current), 0) AS previous_amount,
+                           COALESCE(SUM(t.row_count) FILTER (WHERE NOT t.is_current), 0) AS previous_count
+                    FROM tagged t
+                    GROUP BY GROUPING SETS ((), (t.category_id, t.category_name), (t.bucket))
+                ),
+                combined AS (
+                    SELECT 2 AS grouping_id, NULL AS category_id, NULL AS category_name, s.bucket,
+                           COALESCE(g.current_amount, 0) AS current_amount,
+                           COALESCE(g.current_count, 0) AS current_count,
+                           COALESCE(g.previous_amount, 0) AS previous_amount,
+                           COALESCE(g.previous_count, 0) AS previous_count
+                    FROM generate_series(0, :lastBucket) AS s(bucket)
+                    LEFT JOIN grouped g ON g.grouping_id = 2 AND g.bucket = s.bucket
+                    UNION ALL
+                    SELECT grouping_id, category_id, category_name, bucket,
+                           current_amount, current_count, previous_amount, previous_count
+                    FROM grouped
+                    WHERE grouping_id <> 2
+                )
+                SELECT grouping_id, category_id, category_name, bucket,
+                       current_amount, current_count, previous_amount, previous_count,
+                       current_amount - previous_amount,
+                       ROUND((current_amount - previous_amount) * 100 / NULLIF(previous_amount, 0), 2),
+                       CASE WHEN grouping_id = 2 THEN ROUND(AVG(current_amount) OVER moving, 2) END,
+                       CASE WHEN grouping_id = 2 THEN ROUND(AVG(previous_amount) OVER moving, 2) END
+                FROM combined
+                WINDOW moving AS (PARTITION BY grouping_id ORDER BY bucket ROWS BETWEEN %d PRECEDING AND CURRENT ROW)
+                """.formatted(
+                bucketExpression(granularity, "currentFrom"),
+                bucketExpression(granularity, "previousFrom"),
+                source.amount,
+                source.rowCount,
+                source.table,
+                filter.whereClause(),
+                movingAverageWindow - 1
+        );
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = filter.bind(entityManager.createNativeQuery(sql))
+                .setParameter("currentFrom", current.from())
+                .setParameter("currentTo", current.to())
+                .setParameter("previousFrom", previous.from())
+                .setParameter("previousTo", previous.to())
+                .setParameter("lastBucket", lastBucket)
+                .getResultList();
+
+        Change total = new Change(BigDecimal.ZERO, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO, null);
+        List<CategoryChange> byCategory = new ArrayList<>();
+        List<BucketChange> byBucket = new ArrayList<>();
+        for (Object[] row : rows) {
+            Change change = new Change(
+                    NativeQueryUtil.toBigDecimal(row[4]),
+                    NativeQueryUtil.toLongOrZero(row[5]),
+                    NativeQueryUtil.toBigDecimal(row[6]),
+                    NativeQueryUtil.toLongOrZero(row[7]),
+                    NativeQueryUtil.toBigDecimal(row[8]),
+                    NativeQueryUtil.toBigDecimal(row[9])
+            );
+            switch ((int) NativeQueryUtil.toLongOrZero(row[0])) {
+                case 1 -> byCategory.add(new CategoryChange(NativeQueryUtil.toLong(row[1]), (String) row[2], change));
+                case 2 -> {
+                    int index = (int) NativeQueryUtil.toLongOrZero(row[3]);
+                    byBucket.add(new BucketChange(
+                            index,
+                            bucketStart(granularity, current, index),
+                            bucketStart(granularity, previous, index),
+                            change,
+                            NativeQueryUtil.toBigDecimal(row[10]),
+                            NativeQueryUtil.toBigDecimal(row[11])
+                    ));
+                }
+                default -> total = change;
+            }
+        }
+
+        byCategory.sort(Comparator.comparing((CategoryChange c) -> c.change().currentAmount()).reversed()
+                .thenComparing(CategoryChange::categoryId));
+        byBucket.sort(Comparator.comparingInt(BucketChange::index));
+
+        log.debug("Comparison for user {} from {}: {} categories, {} {} buckets",
+                userId, source.table, byCategory.size(), byBucket.size(), granularity.sqlUnit());
+        return new Comparison(total, List.copyOf(byCategory), List.copyOf(byBucket));
+    }
+
+    /**
+     * Per-member totals and category splits of a team in one statement. Members are ranked by
+     * amount in the same query; everyone after the first {@code top} is folded into a single
+     * "others" member, and {@code GROUPING SETS ((), (member), (member, category))} produces the
+     * team total, member totals and member-category totals together.
+     */
+    @Transactional(readOnly = true)
+    public MemberBreakdown memberBreakdown(Long teamId, ExpenseFilterRequest request, int top) {
+        ExpenseFilterSql filter = ExpenseFilterSql.buildForTeam(teamId, request);
+        Source source = appProperties.getRollup().isEnabled() && ExpenseFilterSql.isRollupCompatible(request)
+                ? Source.ROLLUP
+                : Source.EXPENSES;
+
+        // GROUPING(member, category): 0 = member and category, 1 = member, 3 = total.
+        // member_id is NULL for the others bucket, so grouping_id rather than NULL tells rows apart.
+        String sql = """
+                WITH filtered AS (
+                    SELECT e.user_id, e.category_id, c.name AS category_name,
+                           %s AS amount, %s AS row_count
+                    FROM %s e
+                    JOIN categories c ON c.id = e.category_id
+                    WHERE %s
+                ),
+                ranked AS (
+                    SELECT user_id, ROW_NUMBER() OVER (ORDER BY SUM(amount) DESC, user_id) AS member_rank
+                    FROM filtered
+                    GROUP BY user_id
+                ),
+                tagged AS (
+                    SELECT CASE WHEN r.member_rank <= :top THEN f.user_id END AS member_id,
+                           CASE WHEN r.member_rank <= :top THEN u.username END AS username,
+                           f.user_id, f.category_id, f.category_name, f.amount, f.row_count
+                    FROM filtered f
+                    JOIN ranked r ON r.user_id = f.user_id
+                    LEFT JOIN users u ON u.id = f.user_id
+                )
+                SELECT GROUPING(t.member_id, t.category_id) AS grouping_id,
+                       t.member_id, t.username, t.category_id, t.category_name,
+                       COALESCE(SUM(t.amount), 0), COALESCE(SUM(t.row_count), 0),
+                       COUNT(DISTINCT t.user_id)
+                FROM tagged t
+                GROUP BY GROUPING SETS ((), (t.member_id, t.username), (t.member_id, t.username, t.category_id, t.category_name))
+                """.formatted(source.amount, source.rowCount, source.table, filter.whereClause());
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = filter.bind(entityManager.createNativeQuery(sql))
+                .setParameter("top", top)
+                .getResultList();
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long count = 0;
+        int memberCount = 0;
+        Map<Long, Object[]> memberRows = new LinkedHashMap<>();
+        Map<Long, List<CategoryTotal>> memberCategories = new HashMap<>();
+        for (Object[] row : rows) {
+            Long memberId = NativeQueryUtil.toLong(row[1]);
+            BigDecimal amount = NativeQueryUtil.toBigDecimal(row[5]);
+            long rowCount = NativeQueryUtil.toLongOrZero(row[6]);
+            switch ((int) NativeQueryUtil.toLongOrZero(row[0])) {
+                case 0 -> memberCategories.computeIfAbsent(memberId, id -> new ArrayList<>())
+                        .add(new CategoryTotal(NativeQueryUtil.toLong(row[3]), (String) row[4], amount, rowCount));
+                case 1 -> memberRows.put(memberId, row);
+                default -> {
+                    totalAmount = amount;
+                    count = rowCount;
+                    memberCount = (int) NativeQueryUtil.toLongOrZero(row[7]);
+                }
+            }
+        }
+
+        List<MemberTotal> members = new ArrayList<>();
+        MemberTotal others = null;
+        for (Map.Entry<Long, Object[]> entry : memberRows.entrySet()) {
+            Object[] row = entry.getValue();
+            List<CategoryTotal> categories = new ArrayList<>(memberCategories.getOrDefault(entry.getKey(), List.of()));
+            categories.sort(Comparator.comparing(CategoryTotal::amount).reversed()
+                    .thenComparing(CategoryTotal::categoryId));
+            MemberTotal member = new MemberTotal(
+                    entry.getKey(),
+                    (String) row[2],
+                    (int) NativeQueryUtil.toLongOrZero(row[7]),
+                    NativeQueryUtil.toBigDecimal(row[5]),
+                    NativeQueryUtil.toLongOrZero(row[6]),
+                    List.copyOf(categories)
+            );
+            if (entry.getKey() == null) {
+                others = member;
+            } else {
+                members.add(member);
+            }
+        }
+        members.sort(Comparator.comparing(MemberTotal::amount).reversed()
+                .thenComparing(MemberTotal::userId));
+
+        log.debug("Member breakdown for team {} from {}: {} members, {} shown",
+                teamId, source.table, memberCount, members.size());
+        return new MemberBreakdown(totalAmount, count, memberCount, List.copyOf(members), others);
+    }
+
+    /**
+     * Position of {@code date} among the buckets of a period starting at {@code start}.
+     * Day and week buckets are counted from the period start; coarser ones follow calendar months.
+     */
+    public static int bucketIndex(TimeGranularity granularity, LocalDate start, LocalDate date) {
+        return switch (granularity) {
+            case DAY -> (int) ChronoUnit.DAYS.between(start, date);
+            case WEEK -> (int) (ChronoUnit.DAYS.between(start, date) / 7);
+            case MONTH -> monthsBetween(start, date);
+            case QUARTER -> monthsBetween(start, date) / 3;
+            case YEAR -> monthsBetween(start, date) / 12;
+        };
+    }
+
+    private static int monthsBetween(LocalDate start, LocalDate date) {
+        return (date.getYear() - start.getYear()) * 12 + date.getMonthValue() - start.getMonthValue();
+    }
+
+    private static LocalDate bucketStart(TimeGranularity granularity, Period period, int index) {
+        LocalDate start = period.from();
+        LocalDate bucketStart = switch (granularity) {
+            case DAY -> start.plusDays(index);
+            case WEEK -> start.plusWeeks(index);
+            case MONTH -> start.withDayOfMonth(1).plusMonths(index);
+            case QUARTER -> start.withDayOfMonth(1).plusMonths(3L * index);
+            case YEAR -> start.withDayOfMonth(1).plusMonths(12L * index);
+        };
+        if (bucketStart.isAfter(period.to())) {
+            // The shorter of the two periods has no counterpart for the last buckets
+            return null;
+        }
+        // The first bucket of a period that starts mid-month begins at the period start
+        return bucketStart.isBefore(start) ? start : bucketStart;
+    }
+
+    // SQL counterpart of bucketIndex; the granularity comes from the enum, never from user input
+    private static String bucketExpression(TimeGranularity granularity, String startParameter) {
+        String days = "(e.date - CAST(:" + startParameter + " AS DATE))";
+        String months = "(CAST((EXTRACT(YEAR FROM e.date) - EXTRACT(YEAR FROM CAST(:%1$s AS DATE))) * 12"
+                .formatted(startParameter)
+                + " + EXTRACT(MONTH FROM e.date) - EXTRACT(MONTH FROM CAST(:%1$s AS DATE)) AS INTEGER))"
+                .formatted(startParameter);
+        return switch (granularity) {
+            case DAY -> days;
+            case WEEK -> "(" + days + " / 7)";
+            case MONTH -> months;
+            case QUARTER -> "(" + months + " / 3)";
+            case YEAR -> "(" + months + " / 12)";
+        };
+    }
+
+    private static String groupingSets(boolean withCategory, String dateBucket) {
+        List<String> sets = new ArrayList<>(3);
+        sets.add("()");
+        if (withCategory) {
+            sets.add("(e.category_id, c.name)");
+        }
+        if (dateBucket != null) {
+            sets.add("(" + dateBucket + ")");
+        }
+        return String.join(", ", sets);
+    }
+}
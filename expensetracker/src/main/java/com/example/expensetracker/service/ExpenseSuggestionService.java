@@ -0,0 +1,287 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.SuggestionDto;
+import com.example.expensetracker.dto.TermCount;
+import com.example.expensetracker.enums.SuggestionType;
+import com.example.expensetracker.event.CategoryChangedEvent;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.event.ExpenseSnapshot;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.repository.CategoryRepository;
+import com.example.expensetracker.repository.ExpenseRepository;
+import com.example.expensetracker.util.PrefixIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typeahead suggestions for descriptions and category names.
+ * <p>
+ * Each user gets a {@link PrefixIndex} pair built lazily from the database on first use and kept
+ * current from {@link ExpenseChangedEvent}s, so lookups never touch Postgres once warm. A
+ * {@link CategoryChangedEvent} drops the user's index instead.
+ * Indexes are held in an access-ordered map and the least recently used ones are dropped when the
+ * estimated total size exceeds {@code app.suggestions.memory-budget-bytes}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseSuggestionService extends BaseService {
+
+    private final ExpenseRepository expenseRepository;
+    private final CategoryRepository categoryRepository;
+    private final AppProperties appProperties;
+
+    private static final int CATEGORY_BASELINE = 1;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final LinkedHashMap<Long, UserSuggestions> indexes = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+
+    // Both guarded by the lock on indexes: loads in flight, and transactions about to commit, per user
+    private final Map<Long, List<PendingLoad>> loading = new HashMap<>();
+    private final Map<Long, Integer> committing = new HashMap<>();
+
+    private static final class PendingLoad {
+        // Set when a change for the user commits while the load runs
+        private boolean stale;
+    }
+
+    private static final class UserSuggestions {
+        private final PrefixIndex descriptions;
+        private final PrefixIndex categories;
+        private long accountedBytes;
+
+        private UserSuggestions(int maxTermLength) {
+            this.descriptions = new PrefixIndex(maxTermLength);
+            this.categories = new PrefixIndex(maxTermLength);
+        }
+
+        /**
+         * Categories rank by use plus one, so unused ones are still suggested. The same rule holds
+         * for the counts from the database and for each change applied afterwards.
+         */
+        private void countCategory(String name, int uses) {
+            int current = categories.count(name);
+            int target = Math.max(CATEGORY_BASELINE, (current == 0 ? CATEGORY_BASELINE : current) + uses);
+            categories.add(name, target - current);
+        }
+
+        private long estimatedBytes() {
+            return descriptions.estimatedBytes() + categories.estimatedBytes();
+        }
+    }
+
+    public List<SuggestionDto> suggest(String prefix, Integer limit) {
+        AppProperties.Suggestions config = appProperties.getSuggestions();
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        if (prefix.length() > config.getMaxTermLength()) {
+            throw new ValidationException("Prefix must be at most " + config.getMaxTermLength() + " characters");
+        }
+        int size = limit == null ? config.getDefaultLimit() : Math.min(Math.max(limit, 1), config.getMaxLimit());
+
+        UserSuggestions suggestions = indexFor(getAuthenticatedUser().getId());
+
+        List<SuggestionDto> result = new ArrayList<>(size * 2);
+        suggestions.categories.top(prefix, size)
+                .forEach(entry -> result.add(toDto(entry, SuggestionType.CATEGORY)));
+        suggestions.descriptions.top(prefix, size)
+                .forEach(entry -> result.add(toDto(entry, SuggestionType.DESCRIPTION)));
+
+        result.sort(Comparator.comparing(SuggestionDto::getCount).reversed());
+        return result.size() > size ? new ArrayList<>(result.subList(0, size)) : result;
+    }
+
+    /**
+     * Applies the change to the owner's index once the transaction commits. Users without a loaded
+     * index are skipped; their index will be built from the database, including this change, on next use.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        ExpenseSnapshot before = event.before();
+        ExpenseSnapshot after = event.after();
+        if (before != null) {
+            onCommit(before.userId(), () -> apply(before.userId(), before, -1));
+        }
+        if (after != null) {
+            onCommit(after.userId(), () -> apply(after.userId(), after, 1));
+        }
+    }
+
+    /**
+     * Category names are indexed even when unused and renames touch every expense in the category,
+     * so the owner's index is dropped and rebuilt on next use.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        onCommit(event.userId(), () -> evict(event.userId()));
+    }
+
+    /**
+     * Runs {@code change} under the lock once the surrounding transaction commits, or right away
+     * without one. From before the commit until the change is applied, the user counts as committing:
+     * a load that may or may not have seen the commit is then not installed, so the change is neither
+     * lost nor applied twice.
+     */
+    private void onCommit(Long userId, Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (indexes) {
+                change.run();
+                invalidateLoads(userId);
+            }
+            return;
+        }
+        synchronized (indexes) {
+            committing.merge(userId, 1, Integer::sum);
+            invalidateLoads(userId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (indexes) {
+                    if (status == STATUS_COMMITTED) {
+                        change.run();
+                    }
+                    committing.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+                    invalidateLoads(userId);
+                }
+            }
+        });
+    }
+
+    // Callers hold the lock on indexes
+    private void apply(Long userId, ExpenseSnapshot snapshot, int delta) {
+        UserSuggestions suggestions = indexes.get(userId);
+        if (suggestions == null) {
+            return;
+        }
+        suggestions.descriptions.add(snapshot.description(), delta);
+        suggestions.countCategory(snapshot.categoryName(), delta);
+        account(suggestions);
+    }
+
+    // Callers hold the lock on indexes
+    private void evict(Long userId) {
+        UserSuggestions removed = indexes.remove(userId);
+        if (removed != null) {
+            usedBytes -= removed.accountedBytes;
+        }
+    }
+
+    // Callers hold the lock on indexes
+    private void invalidateLoads(Long userId) {
+        List<PendingLoad> pending = loading.get(userId);
+        if (pending != null) {
+            pending.forEach(load -> load.stale = true);
+        }
+    }
+
+    private UserSuggestions indexFor(Long userId) {
+        for (int attempt = 1; ; attempt++) {
+            PendingLoad pending = new PendingLoad();
+            synchronized (indexes) {
+                UserSuggestions cached = indexes.get(userId);
+                if (cached != null) {
+                    return cached;
+                }
+                loading.computeIfAbsent(userId, id -> new ArrayList<>()).add(pending);
+            }
+
+            // Built outside the lock so a cold user does not stall lookups for everyone else
+            UserSuggestions loaded;
+            try {
+                loaded = load(userId);
+            } catch (RuntimeException | Error e) {
+                synchronized (indexes) {
+                    forget(userId, pending);
+                }
+                throw e;
+            }
+
+            synchronized (indexes) {
+                forget(userId, pending);
+                UserSuggestions raced = indexes.get(userId);
+                if (raced != null) {
+                    return raced;
+                }
+                if (!pending.stale && !committing.containsKey(userId)) {
+                    indexes.put(userId, loaded);
+                    account(loaded);
+                    return loaded;
+                }
+                if (attempt == MAX_LOAD_ATTEMPTS) {
+                    // Good enough for this lookup, but it may miss a change, so it is not cached
+                    log.debug("Suggestion index for user {} kept changing while loading, not caching it", userId);
+                    return loaded;
+                }
+            }
+        }
+    }
+
+    // Callers hold the lock on indexes
+    private void forget(Long userId, PendingLoad pending) {
+        List<PendingLoad> pendingLoads = loading.get(userId);
+        pendingLoads.remove(pending);
+        if (pendingLoads.isEmpty()) {
+            loading.remove(userId);
+        }
+    }
+
+    private UserSuggestions load(Long userId) {
+        int maxTermLength = appProperties.getSuggestions().getMaxTermLength();
+        UserSuggestions suggestions = new UserSuggestions(maxTermLength);
+
+        for (TermCount row : expenseRepository.countDescriptionsByUserId(userId)) {
+            suggestions.descriptions.add(row.term(), Math.toIntExact(row.count()));
+        }
+        for (TermCount row : categoryRepository.countCategoryUsageByUserId(userId)) {
+            suggestions.countCategory(row.term(), Math.toIntExact(row.count()));
+        }
+
+        log.debug("Built suggestion index for user {}: {} descriptions, {} categories",
+                userId, suggestions.descriptions.size(), suggestions.categories.size());
+        return suggestions;
+    }
+
+    // Callers hold the lock on indexes
+    private void account(UserSuggestions changed) {
+        long bytes = changed.estimatedBytes();
+        usedBytes += bytes - changed.accountedBytes;
+        changed.accountedBytes = bytes;
+
+        long budget = appProperties.getSuggestions().getMemoryBudgetBytes();
+        Iterator<Map.Entry<Long, UserSuggestions>> eldest = indexes.entrySet().iterator();
+        while (usedBytes > budget && eldest.hasNext()) {
+            Map.Entry<Long, UserSuggestions> entry = eldest.next();
+            if (entry.getValue() == changed) {
+                continue;
+            }
+            usedBytes -= entry.getValue().accountedBytes;
+            eldest.remove();
+            log.debug("Evicted suggestion index for user {}", entry.getKey());
+        }
+    }
+
+    private static SuggestionDto toDto(PrefixIndex.Entry entry, SuggestionType type) {
+        return SuggestionDto.builder()
+                .text(entry.label())
+                .type(type)
+                .count(entry.count())
+                .build();
+    }
+}
@@ -1,61 +1,221 @@
 package com.example.expensetracker.service;
 
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
 import com.example.expensetracker.entity.ExpenseEntity;
 import com.example.expensetracker.entity.UserEntity;
 import com.example.expensetracker.enums.TeamRole;
 import com.example.expensetracker.exporters.CsvExporter;
+import com.example.expensetracker.exporters.JsonLinesExporter;
 import com.example.expensetracker.exporters.PdfExporter;
-import com.example.expensetracker.repository.ExpenseRepository;
+import com.example.expensetracker.exporters.XlsxExporter;
+import com.example.expensetracker.specification.ExpenseFilterSpecification;
 import com.example.expensetracker.util.TeamAcl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.OutputStream;
 import java.io.Writer;
-import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Exports read their rows through a server-side cursor ({@code app.streaming.fetch-size} rows per round
+ * trip) inside a read-only transaction and hand them to the exporter one at a time. Rows are DTO
+ * projections, so neither the heap nor the persistence context grows with the size of the export.
+ * <p>
+ * Every export takes the filter of {@link ExpenseFilterRequest} (cursor and limit aside). It is pushed
+ * down into the query through {@link ExpenseFilterSpecification}, and the exporter prints it at the top
+ * of the file.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExportService extends BaseService {
 
-    private final ExpenseRepository expenseRepository;
+    private final EntityManager entityManager;
+    private final AppProperties appProperties;
+    private final ExpenseFilterService filterService;
     private final CsvExporter csvExporter;
     private final PdfExporter pdfExporter;
+    private final XlsxExporter xlsxExporter;
+    private final JsonLinesExporter jsonLinesExporter;
     private final TeamAcl teamAcl;
 
-    public void exportUserExpensesToCsv(Writer writer) {
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToCsv(ExpenseFilterRequest filter, Writer writer) {
         UserEntity user = getAuthenticatedUser();
-        List<ExpenseEntity> expenses = expenseRepository.findByUserId(user.getId());
-        csvExporter.exportExpenses(writer, expenses);
+        exportUserExpensesToCsv(user.getId(), filter, writer);
     }
 
-    public void exportUserExpensesToPdf(OutputStream outputStream) {
+    // For callers without a security context, such as report jobs
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToCsv(Long userId, ExpenseFilterRequest filter, Writer writer) {
+        try (Stream<ExpenseExportRow> rows = openUserRows(userId, filter)) {
+            csvExporter.exportExpenses(writer, rows, filter.describeFilters());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToPdf(ExpenseFilterRequest filter, OutputStream outputStream, boolean pageTotals) {
         UserEntity user = getAuthenticatedUser();
-        List<ExpenseEntity> expenses = expenseRepository.findByUserId(user.getId());
-        pdfExporter.exportExpenses(outputStream, expenses);
+        exportUserExpensesToPdf(user.getId(), filter, outputStream, pageTotals);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToPdf(
+            Long userId, ExpenseFilterRequest filter, OutputStream outputStream, boolean pageTotals) {
+        try (Stream<ExpenseExportRow> rows = openUserRows(userId, filter)) {
+            pdfExporter.exportExpenses(outputStream, rows, pageTotals, filter.describeFilters());
+        }
     }
 
-    public void exportTeamExpensesToCsv(Long userId, Long teamId, Writer writer) {
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToXlsx(ExpenseFilterRequest filter, OutputStream outputStream) {
+        UserEntity user = getAuthenticatedUser();
+        exportUserExpensesToXlsx(user.getId(), filter, outputStream);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToXlsx(Long userId, ExpenseFilterRequest filter, OutputStream outputStream) {
+        try (Stream<ExpenseExportRow> rows = openUserRows(userId, filter)) {
+            xlsxExporter.exportExpenses(outputStream, rows, filter.describeFilters());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToJsonLines(ExpenseFilterRequest filter, OutputStream outputStream) {
+        UserEntity user = getAuthenticatedUser();
+        exportUserExpensesToJsonLines(user.getId(), filter, outputStream);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserExpensesToJsonLines(Long userId, ExpenseFilterRequest filter, OutputStream outputStream) {
+        try (Stream<ExpenseExportRow> rows = openUserRows(userId, filter)) {
+            jsonLinesExporter.exportExpenses(outputStream, rows, filter.describeFilters());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTeamExpensesToCsv(Long userId, Long teamId, ExpenseFilterRequest filter, Writer writer) {
         log.info("Exporting team {} expenses to CSV by user {}", teamId, userId);
         
         teamAcl.requireMembership(userId, teamId, TeamRole.OWNER, TeamRole.ADMIN);
         
-        List<ExpenseEntity> expenses = expenseRepository.findAllByTeamId(teamId);
-        csvExporter.exportExpenses(writer, expenses);
+        long exported;
+        try (Stream<ExpenseExportRow> rows = openTeamRows(teamId, filter)) {
+            exported = csvExporter.exportExpenses(writer, rows, describeTeamFilter(filter));
+        }
         
-        log.info("Exported {} expenses from team {} to CSV", expenses.size(), teamId);
+        log.info("Exported {} expenses from team {} to CSV", exported, teamId);
     }
 
-    public void exportTeamExpensesToPdf(Long userId, Long teamId, OutputStream outputStream) {
+    @Transactional(readOnly = true)
+    public void exportTeamExpensesToPdf(
+            Long userId, Long teamId, ExpenseFilterRequest filter, OutputStream outputStream, boolean pageTotals) {
         log.info("Exporting team {} expenses to PDF by user {}", teamId, userId);
         
         teamAcl.requireMembership(userId, teamId, TeamRole.OWNER, TeamRole.ADMIN);
         
-        List<ExpenseEntity> expenses = expenseRepository.findAllByTeamId(teamId);
-        pdfExporter.exportExpenses(outputStream, expenses);
+        long exported;
+        try (Stream<ExpenseExportRow> rows = openTeamRows(teamId, filter)) {
+            exported = pdfExporter.exportExpenses(outputStream, rows, pageTotals, describeTeamFilter(filter));
+        }
         
-        log.info("Exported {} expenses from team {} to PDF", expenses.size(), teamId);
+        log.info("Exported {} expenses from team {} to PDF", exported, teamId);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTeamExpensesToXlsx(Long userId, Long teamId, ExpenseFilterRequest filter, OutputStream outputStream) {
+        log.info("Exporting team {} expenses to XLSX by user {}", teamId, userId);
+
+        teamAcl.requireMembership(userId, teamId, TeamRole.OWNER, TeamRole.ADMIN);
+
+        long exported;
+        try (Stream<ExpenseExportRow> rows = openTeamRows(teamId, filter)) {
+            exported = xlsxExporter.exportExpenses(outputStream, rows, describeTeamFilter(filter));
+        }
+
+        log.info("Exported {} expenses from team {} to XLSX", exported, teamId);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTeamExpensesToJsonLines(
+            Long userId, Long teamId, ExpenseFilterRequest filter, OutputStream outputStream) {
+        log.info("Exporting team {} expenses to JSON Lines by user {}", teamId, userId);
+
+        teamAcl.requireMembership(userId, teamId, TeamRole.OWNER, TeamRole.ADMIN);
+
+        long exported;
+        try (Stream<ExpenseExportRow> rows = openTeamRows(teamId, filter)) {
+            exported = jsonLinesExporter.exportExpenses(outputStream, rows, describeTeamFilter(filter));
+        }
+
+        log.info("Exported {} expenses from team {} to JSON Lines", exported, teamId);
+    }
+
+    /**
+     * Runs the checks an export would fail on before any of it has been written, so that they reach the
+     * client as an error status instead of an empty download. The export methods repeat them.
+     */
+    public void checkUserExport(ExpenseFilterRequest filter) {
+        filterService.validateFilterRequest(filter);
+    }
+
+    public void checkTeamExport(Long userId, Long teamId, ExpenseFilterRequest filter) {
+        teamAcl.requireMembership(userId, teamId, TeamRole.OWNER, TeamRole.ADMIN);
+        filterService.validateFilterRequest(filter);
+    }
+
+    private Stream<ExpenseExportRow> openUserRows(Long userId, ExpenseFilterRequest filter) {
+        filterService.validateFilterRequest(filter);
+        return openRows(ExpenseFilterSpecification.buildStatsSpecification(userId, filter));
+    }
+
+    private Stream<ExpenseExportRow> openTeamRows(Long teamId, ExpenseFilterRequest filter) {
+        filterService.validateFilterRequest(filter);
+        return openRows(ExpenseFilterSpecification.buildTeamSpecification(teamId, filter));
+    }
+
+    // The team variants ignore filter.teamId, so it is not echoed either
+    private static String describeTeamFilter(ExpenseFilterRequest filter) {
+        return filter.toBuilder().teamId(null).build().describeFilters();
+    }
+
+    // Must be consumed and closed inside the caller's transaction
+    private Stream<ExpenseExportRow> openRows(Specification<ExpenseEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ExpenseExportRow> query = cb.createQuery(ExpenseExportRow.class);
+        Root<ExpenseEntity> root = query.from(ExpenseEntity.class);
+        Join<Object, Object> category = root.join("category");
+
+        query.select(cb.construct(
+                ExpenseExportRow.class,
+                root.get("id"),
+                root.get("date"),
+                category.get("name"),
+                root.get("amount"),
+                root.get("description")
+        ));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, appProperties.getStreaming().getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
     }
 }
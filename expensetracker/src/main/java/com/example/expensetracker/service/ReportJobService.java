@@ -0,0 +1,545 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.dto.ReportJobDto;
+import com.example.expensetracker.dto.ReportJobRequest;
+import com.example.expensetracker.enums.ReportJobStatus;
+import com.example.expensetracker.enums.ReportType;
+import com.example.expensetracker.enums.TeamRole;
+import com.example.expensetracker.exception.AppException;
+import com.example.expensetracker.exception.ConflictException;
+import com.example.expensetracker.exception.NotFoundException;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.specification.ExpenseFilterSql;
+import com.example.expensetracker.util.TeamAcl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs long stats and export requests in the background.
+ * <p>
+ * A submission returns a job id right away; the report runs on a bounded pool
+ * ({@code app.report-jobs.pool-size} workers, {@code queue-capacity} waiting jobs), so slow reports
+ * queue up instead of holding request threads and retried requests cannot multiply database load.
+ * A user may have at most {@code max-active-per-user} unfinished jobs, and submitting a request
+ * identical to one of the user's unfinished jobs returns that job instead of starting another.
+ * An export identical to one that succeeded within {@code reuse-window-ms} returns the finished job,
+ * so retries download the existing file instead of exporting again.
+ * <p>
+ * Finished jobs keep their result (in memory for stats, in a file under {@code directory} for
+ * exports) for {@code result-ttl-ms}. Jobs live in this instance only; files left behind by an
+ * earlier instance are deleted once they are older than the TTL.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final String METRIC_PREFIX = "report.jobs";
+    private static final String RESULT_PATH = "/api/v1/report-jobs/%s/result";
+    private static final String FILE_PREFIX = "report-";
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    private static final int JOB_ID_LENGTH = 36;
+
+    private final ExpenseFilterService filterService;
+    private final ExportService exportService;
+    private final TeamAcl teamAcl;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Map<DedupKey, Job> unfinished = new HashMap<>();
+    private final Map<DedupKey, Job> recentExports = new HashMap<>();
+    private final Map<Long, Integer> activePerUser = new HashMap<>();
+
+    /**
+     * Result of a finished job: {@code data} for stats reports, {@code file} for exports.
+     */
+    public record Result(ReportType type, Object data, Path file, String jobId, Instant finishedAt) {
+    }
+
+    private record DedupKey(
+            Long userId,
+            ReportType type,
+            Long teamId,
+            String granularity,
+            String timeZone,
+            String compareTo,
+            Integer movingAverageWindow,
+            Integer top,
+            boolean totals,
+            String filterFingerprint
+    ) {
+    }
+
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final Long userId;
+        private final ReportJobRequest request;
+        private final ExpenseFilterRequest filter;
+        private final DedupKey key;
+        private final Instant createdAt;
+        private final CompletableFuture<Job> finished = new CompletableFuture<>();
+
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Instant expiresAt;
+        private volatile Object data;
+        private volatile Path file;
+        private volatile AppException error;
+
+        private Job(Long userId, ReportJobRequest request, ExpenseFilterRequest filter, DedupKey key, Instant createdAt) {
+            this.userId = userId;
+            this.request = request;
+            this.filter = filter;
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+    }
+
+    public ReportJobService(
+            ExpenseFilterService filterService,
+            ExportService exportService,
+            TeamAcl teamAcl,
+            AppProperties appProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.filterService = filterService;
+        this.exportService = exportService;
+        this.teamAcl = teamAcl;
+        this.appProperties = appProperties;
+        this.meterRegistry = meterRegistry;
+
+        AppProperties.ReportJobs properties = appProperties.getReportJobs();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        Gauge.builder(METRIC_PREFIX + ".queued", executor, e -> e.getQueue().size())
+                .description("Report jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Report jobs currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a report, or returns the caller's unfinished job for the same request.
+     *
+     * @throws AppException 429 when the user already has the maximum number of unfinished jobs,
+     *                      503 when the queue is full
+     */
+    public ReportJobDto submit(Long userId, ReportJobRequest request) {
+        ReportType type = request.getType();
+        if (type == null) {
+            throw new ValidationException("Report type is required");
+        }
+        validateTeamScope(type, request.getTeamId());
+        if (request.getTotals() != null && type != ReportType.EXPORT_PDF) {
+            throw new ValidationException("totals is only supported for EXPORT_PDF reports");
+        }
+        if (request.getTeamId() != null) {
+            // Fail fast instead of queueing a report that would be denied; the report checks again
+            if (type == ReportType.MEMBER_STATS || type.isExport()) {
+                teamAcl.requireMembership(userId, request.getTeamId(), TeamRole.OWNER, TeamRole.ADMIN);
+            } else {
+                teamAcl.requireMembership(userId, request.getTeamId());
+            }
+        }
+
+        ExpenseFilterRequest filter = request.getFilter() != null
+                ? request.getFilter().toBuilder().cursor(null).limit(null).build()
+                : new ExpenseFilterRequest();
+        DedupKey key = new DedupKey(
+                userId,
+                type,
+                request.getTeamId(),
+                request.getGranularity(),
+                request.getTimeZone(),
+                request.getCompareTo(),
+                request.getMovingAverageWindow(),
+                request.getTop(),
+                Boolean.TRUE.equals(request.getTotals()),
+                ExpenseFilterSql.build(userId, filter).fingerprint()
+        );
+
+        Job job;
+        synchronized (this) {
+            Job existing = unfinished.get(key);
+            if (existing != null) {
+                submissions(type, "deduplicated").increment();
+                return toDto(existing);
+            }
+            Job recent = recentExports.get(key);
+            if (recent != null && isReusable(recent, Instant.now())) {
+                submissions(type, "reused").increment();
+                return toDto(recent);
+            }
+            int maxActive = appProperties.getReportJobs().getMaxActivePerUser();
+            if (activePerUser.getOrDefault(userId, 0) >= maxActive) {
+                submissions(type, "limited").increment();
+                throw new AppException("At most " + maxActive + " report jobs may be queued or running at once",
+                        HttpStatus.TOO_MANY_REQUESTS);
+            }
+
+            job = new Job(userId, request, filter, key, Instant.now());
+            try {
+                Job queued = job;
+                executor.execute(() -> run(queued));
+            } catch (RejectedExecutionException e) {
+                submissions(type, "rejected").increment();
+                throw new AppException("Report queue is full, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            jobs.put(job.id, job);
+            unfinished.put(key, job);
+            activePerUser.merge(userId, 1, Integer::sum);
+        }
+
+        submissions(type, "queued").increment();
+        log.debug("Queued {} report job {} for user {}", type, job.id, userId);
+        return toDto(job);
+    }
+
+    /**
+     * Queues a CSV, PDF or XLSX export of the user's expenses matching {@code filter}, or of the team's when
+     * {@code teamId} is set.
+     *
+     * @param format {@code csv}, {@code pdf} or {@code xlsx}
+     * @param totals PDF only: page subtotals and running totals
+     */
+    public ReportJobDto submitExport(
+            Long userId, Long teamId, String format, boolean totals, ExpenseFilterRequest filter) {
+        ReportType type = switch (format == null ? "" : format.trim().toLowerCase()) {
+            case "csv" -> ReportType.EXPORT_CSV;
+            case "pdf" -> ReportType.EXPORT_PDF;
+            case "xlsx" -> ReportType.EXPORT_XLSX;
+            default -> throw new ValidationException(
+                    "Invalid export format '" + format + "': expected 'csv', 'pdf' or 'xlsx'");
+        };
+        return submit(userId, ReportJobRequest.builder()
+                .type(type)
+                .teamId(teamId)
+                .totals(type == ReportType.EXPORT_PDF ? totals : null)
+                .filter(filter)
+                .build());
+    }
+
+    public ReportJobDto get(Long userId, String jobId) {
+        return toDto(find(userId, jobId));
+    }
+
+    /**
+     * @throws ConflictException while the job is still queued or running
+     * @throws AppException      with the report's own status when the job failed
+     */
+    public Result result(Long userId, String jobId) {
+        Job job = find(userId, jobId);
+        if (!job.status.isFinished()) {
+            throw new ConflictException("Report job is still " + job.status.name().toLowerCase());
+        }
+        if (job.status == ReportJobStatus.FAILED) {
+            throw job.error;
+        }
+        return new Result(job.request.getType(), job.data, job.file, job.id, job.finishedAt);
+    }
+
+    /**
+     * Server-sent events: the current state right away, then a final event named after the
+     * finished status ({@code succeeded} or {@code failed}) before the stream closes.
+     */
+    public SseEmitter subscribe(Long userId, String jobId) {
+        Job job = find(userId, jobId);
+        SseEmitter emitter = new SseEmitter(appProperties.getReportJobs().getSubscribeTimeoutMs());
+        try {
+            emitter.send(SseEmitter.event().name("status").data(toDto(job)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        job.finished.whenComplete((done, failure) -> {
+            try {
+                emitter.send(SseEmitter.event().name(done.status.name().toLowerCase()).data(toDto(done)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Subscriber left or the emitter already timed out
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.report-jobs.cleanup-delay-ms:60000}")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        int removed = 0;
+        for (Job job : jobs.values()) {
+            if (job.expiresAt != null && !job.expiresAt.isAfter(now) && jobs.remove(job.id, job)) {
+                deleteFile(job.file);
+                removed++;
+            }
+        }
+        synchronized (this) {
+            recentExports.values().removeIf(job -> !isReusable(job, now));
+        }
+        if (removed > 0) {
+            log.debug("Removed {} expired report jobs", removed);
+        }
+        removeOrphanedFiles(now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        ReportType type = job.request.getType();
+        job.startedAt = Instant.now();
+        job.status = ReportJobStatus.RUNNING;
+        long started = System.nanoTime();
+        ReportJobStatus status = ReportJobStatus.FAILED;
+        try {
+            if (type.isExport()) {
+                job.file = export(job);
+            } else {
+                job.data = computeStats(job);
+            }
+            status = ReportJobStatus.SUCCEEDED;
+        } catch (AppException e) {
+            job.error = e;
+        } catch (RuntimeException e) {
+            log.error("Report job {} ({}) failed", job.id, type, e);
+            job.error = new AppException("Report failed", HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            Instant now = Instant.now();
+            job.finishedAt = now;
+            job.expiresAt = now.plusMillis(appProperties.getReportJobs().getResultTtlMs());
+            synchronized (this) {
+                unfinished.remove(job.key, job);
+                activePerUser.computeIfPresent(job.userId, (user, count) -> count > 1 ? count - 1 : null);
+            }
+            if (status == ReportJobStatus.SUCCEEDED && type.isExport()) {
+                synchronized (this) {
+                    recentExports.put(job.key, job);
+                }
+            }
+            if (status == ReportJobStatus.FAILED && job.error == null) {
+                // An Error got past the catches; it still propagates, but a failed job must carry a reason
+                job.error = new AppException("Report failed", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            // Published only once the slot is free, so a caller who sees the job finished can resubmit it
+            job.status = status;
+            Timer.builder(METRIC_PREFIX + ".duration")
+                    .description("Time spent running report jobs")
+                    .tag("type", type.name())
+                    .tag("status", job.status.name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            job.finished.complete(job);
+        }
+        log.debug("Report job {} ({}) finished as {}", job.id, type, job.status);
+    }
+
+    private Object computeStats(Job job) {
+        ReportJobRequest request = job.request;
+        Long userId = job.userId;
+        Long teamId = request.getTeamId();
+        ExpenseFilterRequest filter = job.filter;
+        return switch (request.getType()) {
+            case STATS -> filterService.getStatistics(userId, filter);
+            case TIME_SERIES -> teamId != null
+                    ? filterService.getTeamTimeSeriesStatistics(userId, teamId, filter, request.getGranularity(), request.getTimeZone())
+                    : filterService.getTimeSeriesStatistics(userId, filter, request.getGranularity(), request.getTimeZone());
+            case CATEGORY_PIE -> teamId != null
+                    ? filterService.getTeamCategoryPieStatistics(userId, teamId, filter)
+                    : filterService.getCategoryPieStatistics(userId, filter);
+            case COMPARISON -> filterService.getComparisonStatistics(
+                    userId, filter, request.getCompareTo(), request.getGranularity(), request.getMovingAverageWindow());
+            case MEMBER_STATS -> filterService.getTeamMemberStatistics(userId, teamId, filter, request.getTop());
+            default -> throw new IllegalStateException("Not a stats report: " + request.getType());
+        };
+    }
+
+    private Path export(Job job) {
+        ReportType type = job.request.getType();
+        Path file;
+        try {
+            Path directory = Files.createDirectories(Path.of(appProperties.getReportJobs().getDirectory()));
+            file = Files.createTempFile(directory, FILE_PREFIX + job.id + "-", "." + type.artifactExtension());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create report file", e);
+        }
+
+        Long teamId = job.request.getTeamId();
+        try (OutputStream out = openArtifact(file, type)) {
+            switch (type) {
+                case EXPORT_NDJSON -> filterService.streamFilteredExpenses(job.userId, job.filter, out);
+                case EXPORT_CSV -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    if (teamId != null) {
+                        exportService.exportTeamExpensesToCsv(job.userId, teamId, job.filter, writer);
+                    } else {
+                        exportService.exportUserExpensesToCsv(job.userId, job.filter, writer);
+                    }
+                    writer.flush();
+                }
+                case EXPORT_PDF -> {
+                    boolean totals = Boolean.TRUE.equals(job.request.getTotals());
+                    if (teamId != null) {
+                        exportService.exportTeamExpensesToPdf(job.userId, teamId, job.filter, out, totals);
+                    } else {
+                        exportService.exportUserExpensesToPdf(job.userId, job.filter, out, totals);
+                    }
+                }
+                case EXPORT_XLSX -> {
+                    if (teamId != null) {
+                        exportService.exportTeamExpensesToXlsx(job.userId, teamId, job.filter, out);
+                    } else {
+                        exportService.exportUserExpensesToXlsx(job.userId, job.filter, out);
+                    }
+                }
+                default -> throw new IllegalStateException("Not an export report: " + type);
+            }
+        } catch (IOException e) {
+            deleteFile(file);
+            throw new UncheckedIOException("Could not write report file", e);
+        } catch (RuntimeException e) {
+            deleteFile(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private static OutputStream openArtifact(Path file, ReportType type) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+        return type.isCompressed() ? new GZIPOutputStream(out, FILE_BUFFER_SIZE) : out;
+    }
+
+    private boolean isReusable(Job job, Instant now) {
+        return job.finishedAt.plusMillis(appProperties.getReportJobs().getReuseWindowMs()).isAfter(now)
+                && job.expiresAt.isAfter(now)
+                && jobs.get(job.id) == job;
+    }
+
+    /**
+     * Deletes report files no job refers to, such as those of an instance that has since stopped,
+     * once they are older than the result TTL.
+     */
+    private void removeOrphanedFiles(Instant now) {
+        Path directory = Path.of(appProperties.getReportJobs().getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant cutoff = now.minusMillis(appProperties.getReportJobs().getResultTtlMs());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                // Named report-<job id>-..., so files of running jobs are kept however long they take
+                String name = file.getFileName().toString();
+                int idEnd = FILE_PREFIX.length() + JOB_ID_LENGTH;
+                String jobId = name.length() > idEnd ? name.substring(FILE_PREFIX.length(), idEnd) : "";
+                if (!jobs.containsKey(jobId) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    deleteFile(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up report directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static void validateTeamScope(ReportType type, Long teamId) {
+        if (teamId == null && type.teamScope() == ReportType.TeamScope.REQUIRED) {
+            throw new ValidationException("teamId is required for " + type + " reports");
+        }
+        if (teamId != null && type.teamScope() == ReportType.TeamScope.NONE) {
+            throw new ValidationException("teamId is not supported for " + type + " reports; use filter.teamId instead");
+        }
+    }
+
+    private Job find(Long userId, String jobId) {
+        Job job = jobs.get(jobId);
+        // Other users' jobs are reported as missing rather than forbidden
+        if (job == null || !job.userId.equals(userId)) {
+            throw new NotFoundException("Report job not found");
+        }
+        return job;
+    }
+
+    private Counter submissions(ReportType type, String result) {
+        return Counter.builder(METRIC_PREFIX + ".submitted")
+                .description("Report job submissions by outcome")
+                .tag("type", type.name())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static ReportJobDto toDto(Job job) {
+        ReportJobStatus status = job.status;
+        return ReportJobDto.builder()
+                .id(job.id)
+                .type(job.request.getType())
+                .teamId(job.request.getTeamId())
+                .status(status)
+                .createdAt(job.createdAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .expiresAt(job.expiresAt)
+                .error(status == ReportJobStatus.FAILED ? job.error.getMessage() : null)
+                .resultUrl(status == ReportJobStatus.SUCCEEDED ? RESULT_PATH.formatted(job.id) : null)
+                .build();
+    }
+
+    private static void deleteFile(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+}
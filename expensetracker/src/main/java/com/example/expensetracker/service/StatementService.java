@@ -0,0 +1,468 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exporters.CsvExporter;
+import com.example.expensetracker.exporters.PdfExporter;
+import com.example.expensetracker.util.NativeQueryUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Monthly statements: a CSV and a PDF of each user's expenses in the previous month, written under
+ * {@code app.statements.directory}. Users without expenses in the month get no statement.
+ * <p>
+ * A run plans the month as user id ranges in {@code statement_partitions} (migration V9) and then
+ * works through them on {@code app.statements.workers} threads. A worker claims one range at a time
+ * with SKIP LOCKED, reads it with a single streaming query ordered by user, and after each user
+ * records that user as the range's resume point, which also renews its claim. Several nodes can run
+ * at once: they plan identical rows and never hold the same range. A range whose claim has not been
+ * renewed for {@code app.statements.lease-ms} (its node died) is taken over and resumed after the last
+ * user it finished, by the periodic pass that picks up unfinished ranges. A range that failed is retried
+ * the same way, up to {@code app.statements.max-attempts} claims; a range whose claim expires on the last
+ * attempt is marked failed by the next pass.
+ * <p>
+ * Statement files are replaced atomically, so a range that is redone after losing its claim at worst
+ * rewrites a statement with the same content.
+ */
+@Slf4j
+@Service
+public class StatementService {
+
+    private static final String METRIC_PREFIX = "statements";
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String PLAN_PARTITIONS = """
+            INSERT INTO statement_partitions (period, first_user_id, last_user_id)
+            SELECT :period, low, low + CAST(:size AS BIGINT) - 1
+            FROM (SELECT MIN(id) / CAST(:size AS BIGINT) * CAST(:size AS BIGINT) AS first_low, MAX(id) AS last_id
+                  FROM users) bounds,
+                 generate_series(bounds.first_low, bounds.last_id, CAST(:size AS BIGINT)) AS low
+            ON CONFLICT ON CONSTRAINT pk_statement_partitions DO NOTHING
+            """;
+
+    private static final String CLAIM_PARTITION = """
+            UPDATE statement_partitions p
+            SET status = 'RUNNING', claimed_by = :claim, claimed_at = CURRENT_TIMESTAMP, attempts = p.attempts + 1
+            WHERE (p.period, p.first_user_id) = (
+                SELECT period, first_user_id FROM statement_partitions
+                WHERE status IN ('PENDING', 'RUNNING')
+                  AND attempts < :maxAttempts
+                  AND (attempts = 0
+                       OR claimed_at < CURRENT_TIMESTAMP - CAST(:leaseMs AS BIGINT) * INTERVAL '1 millisecond')
+                ORDER BY period, first_user_id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING p.period, p.first_user_id, p.last_user_id, p.resume_after_user_id
+            """;
+
+    // Renews the claim as well; no row means another worker has taken the range over
+    private static final String RECORD_PROGRESS = """
+            UPDATE statement_partitions
+            SET resume_after_user_id = :userId, statements = statements + 1, claimed_at = CURRENT_TIMESTAMP
+            WHERE period = :period AND first_user_id = :firstUserId AND claimed_by = :claim AND status = 'RUNNING'
+            """;
+
+    private static final String FINISH_PARTITION = """
+            UPDATE statement_partitions
+            SET status = 'DONE', finished_at = CURRENT_TIMESTAMP, last_error = NULL
+            WHERE period = :period AND first_user_id = :firstUserId AND claimed_by = :claim AND status = 'RUNNING'
+            """;
+
+    // Retried like an expired claim, once the lease has run out from now
+    private static final String FAIL_PARTITION = """
+            UPDATE statement_partitions
+            SET status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END,
+                claimed_by = NULL, claimed_at = CURRENT_TIMESTAMP, last_error = :error
+            WHERE period = :period AND first_user_id = :firstUserId AND claimed_by = :claim AND status = 'RUNNING'
+            """;
+
+    // Nobody else fails a range whose node died on its last attempt: claiming stops at max attempts
+    private static final String FAIL_EXHAUSTED_PARTITIONS = """
+            UPDATE statement_partitions
+            SET status = 'FAILED', claimed_by = NULL,
+                last_error = 'Claim by ' || claimed_by || ' expired on attempt ' || attempts
+            WHERE status = 'RUNNING'
+              AND attempts >= :maxAttempts
+              AND claimed_at < CURRENT_TIMESTAMP - CAST(:leaseMs AS BIGINT) * INTERVAL '1 millisecond'
+            """;
+
+    private static final String PARTITION_ROWS = """
+            SELECT e.user_id, e.id, e.date, c.name, e.amount, e.description
+            FROM expenses e
+            JOIN categories c ON c.id = e.category_id
+            WHERE e.user_id > :resumeAfterUserId AND e.user_id <= :lastUserId
+              AND e.date >= :periodStart AND e.date < :periodEnd
+            ORDER BY e.user_id, e.date, e.id
+            """;
+
+    private final EntityManager entityManager;
+    private final CsvExporter csvExporter;
+    private final PdfExporter pdfExporter;
+    private final AppProperties appProperties;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService executor;
+    private final Counter statementsWritten;
+    private final Timer partitionDuration;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double lastRunThroughput;
+
+    private record Partition(LocalDate period, long firstUserId, long lastUserId, long resumeAfterUserId, String claim) {
+    }
+
+    private static final class ClaimLostException extends RuntimeException {
+        private ClaimLostException(Partition partition) {
+            super("Statement partition " + partition.period() + "/" + partition.firstUserId() + " was taken over");
+        }
+    }
+
+    @FunctionalInterface
+    private interface ArtifactWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    public StatementService(
+            EntityManager entityManager,
+            CsvExporter csvExporter,
+            PdfExporter pdfExporter,
+            AppProperties appProperties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.entityManager = entityManager;
+        this.csvExporter = csvExporter;
+        this.pdfExporter = pdfExporter;
+        this.appProperties = appProperties;
+
+        // Progress is committed while the partition's read transaction stays open, so both start their own
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+
+        int workers = Math.max(1, appProperties.getStatements().getWorkers());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statement-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        this.statementsWritten = Counter.builder(METRIC_PREFIX + ".written")
+                .description("Monthly statements written (one CSV and one PDF each)")
+                .register(meterRegistry);
+        this.partitionDuration = Timer.builder(METRIC_PREFIX + ".partition.duration")
+                .description("Time spent on one statement partition by one worker")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".run.throughput", this, service -> service.lastRunThroughput)
+                .description("Statements per second in the last run on this node that wrote any")
+                .baseUnit("statements/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.statements.cron:0 0 2 1 * *}")
+    public void runMonthly() {
+        LocalDate period = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+        int planned = plan(period);
+        log.info("Planned {} new statement partitions for {}", planned, MONTH_FORMAT.format(period));
+        processPending();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.statements.resume-delay-ms:300000}",
+            initialDelayString = "${app.statements.resume-delay-ms:300000}"
+    )
+    public void resumeUnfinished() {
+        processPending();
+    }
+
+    /**
+     * Adds the month's partitions that do not exist yet; planning a month again (on another node, or
+     * after more users registered) only adds the missing ranges.
+     *
+     * @param period first day of the statement month
+     * @return number of partitions added
+     */
+    public int plan(LocalDate period) {
+        Integer planned = writeTransaction.execute(status -> entityManager.createNativeQuery(PLAN_PARTITIONS)
+                .setParameter("period", period.withDayOfMonth(1))
+                .setParameter("size", Math.max(1, appProperties.getStatements().getPartitionSize()))
+                .executeUpdate());
+        return planned != null ? planned : 0;
+    }
+
+    /**
+     * Works through unfinished partitions of every planned month until none can be claimed, on this
+     * node's workers. Returns right away if a pass is already running on this node.
+     *
+     * @return number of statements written
+     */
+    public int processPending() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int exhausted = failExhausted();
+            if (exhausted > 0) {
+                log.warn("Marked {} statement partitions failed after their last claim expired", exhausted);
+            }
+
+            long started = System.nanoTime();
+            AtomicInteger partitions = new AtomicInteger();
+            AtomicInteger statements = new AtomicInteger();
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, appProperties.getStatements().getWorkers()); i++) {
+                workers.add(executor.submit(() -> work(partitions, statements)));
+            }
+            for (Future<?> worker : workers) {
+                await(worker);
+            }
+
+            if (statements.get() > 0) {
+                double seconds = Math.max((System.nanoTime() - started) / 1e9, 1e-3);
+                lastRunThroughput = statements.get() / seconds;
+                log.info("Wrote {} statements from {} partitions in {} s ({} statements/s)",
+                        statements.get(), partitions.get(), String.format("%.1f", seconds),
+                        String.format("%.1f", lastRunThroughput));
+            }
+            return statements.get();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void work(AtomicInteger partitions, AtomicInteger statements) {
+        Partition partition;
+        while (!Thread.currentThread().isInterrupted() && (partition = claim()) != null) {
+            long started = System.nanoTime();
+            try {
+                statements.addAndGet(processPartition(partition));
+                finish(partition);
+                partitions.incrementAndGet();
+            } catch (ClaimLostException e) {
+                log.warn(e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Statement partition {}/{} failed", partition.period(), partition.firstUserId(), e);
+                fail(partition, e);
+            } finally {
+                partitionDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Partition claim() {
+        String claim = nodeId + "/" + UUID.randomUUID();
+        AppProperties.Statements config = appProperties.getStatements();
+        return writeTransaction.execute(status -> {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(CLAIM_PARTITION)
+                    .setParameter("claim", claim)
+                    .setParameter("maxAttempts", config.getMaxAttempts())
+                    .setParameter("leaseMs", config.getLeaseMs())
+                    .getResultList();
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Object[] row = rows.get(0);
+            long firstUserId = NativeQueryUtil.toLong(row[1]);
+            Long resumeAfter = NativeQueryUtil.toLong(row[3]);
+            return new Partition(
+                    NativeQueryUtil.toLocalDate(row[0]),
+                    firstUserId,
+                    NativeQueryUtil.toLong(row[2]),
+                    resumeAfter != null ? resumeAfter : firstUserId - 1,
+                    claim
+            );
+        });
+    }
+
+    /**
+     * Streams the partition's expenses once, ordered by user, and writes each user's statement as soon
+     * as the next user's rows begin. Only one user's month of rows is held at a time.
+     *
+     * @return number of statements written
+     */
+    private int processPartition(Partition partition) {
+        Integer written = readTransaction.execute(status -> {
+            int count = 0;
+            try (Stream<?> rows = entityManager.createNativeQuery(PARTITION_ROWS)
+                    .setParameter("resumeAfterUserId", partition.resumeAfterUserId())
+                    .setParameter("lastUserId", partition.lastUserId())
+                    .setParameter("periodStart", partition.period())
+                    .setParameter("periodEnd", partition.period().plusMonths(1))
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, appProperties.getStreaming().getFetchSize())
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                Iterator<?> iterator = rows.iterator();
+                Long userId = null;
+                List<ExpenseExportRow> userRows = new ArrayList<>();
+                while (iterator.hasNext()) {
+                    Object[] row = (Object[]) iterator.next();
+                    Long rowUserId = NativeQueryUtil.toLong(row[0]);
+                    if (userId != null && !userId.equals(rowUserId)) {
+                        completeUser(partition, userId, userRows);
+                        count++;
+                        userRows.clear();
+                    }
+                    userId = rowUserId;
+                    userRows.add(new ExpenseExportRow(
+                            NativeQueryUtil.toLong(row[1]),
+                            NativeQueryUtil.toLocalDate(row[2]),
+                            (String) row[3],
+                            NativeQueryUtil.toBigDecimal(row[4]),
+                            (String) row[5]
+                    ));
+                }
+                if (userId != null) {
+                    completeUser(partition, userId, userRows);
+                    count++;
+                }
+            }
+            return count;
+        });
+        return written != null ? written : 0;
+    }
+
+    private void completeUser(Partition partition, Long userId, List<ExpenseExportRow> rows) {
+        writeStatement(partition.period(), userId, rows);
+        Integer updated = writeTransaction.execute(status -> entityManager.createNativeQuery(RECORD_PROGRESS)
+                .setParameter("userId", userId)
+                .setParameter("period", partition.period())
+                .setParameter("firstUserId", partition.firstUserId())
+                .setParameter("claim", partition.claim())
+                .executeUpdate());
+        if (updated == null || updated == 0) {
+            throw new ClaimLostException(partition);
+        }
+        statementsWritten.increment();
+    }
+
+    private void finish(Partition partition) {
+        Integer updated = writeTransaction.execute(status -> entityManager.createNativeQuery(FINISH_PARTITION)
+                .setParameter("period", partition.period())
+                .setParameter("firstUserId", partition.firstUserId())
+                .setParameter("claim", partition.claim())
+                .executeUpdate());
+        if (updated == null || updated == 0) {
+            throw new ClaimLostException(partition);
+        }
+    }
+
+    private void fail(Partition partition, RuntimeException error) {
+        try {
+            writeTransaction.executeWithoutResult(status -> entityManager.createNativeQuery(FAIL_PARTITION)
+                    .setParameter("maxAttempts", appProperties.getStatements().getMaxAttempts())
+                    .setParameter("error", String.valueOf(error))
+                    .setParameter("period", partition.period())
+                    .setParameter("firstUserId", partition.firstUserId())
+                    .setParameter("claim", partition.claim())
+                    .executeUpdate());
+        } catch (RuntimeException e) {
+            // The claim expires on its own and the partition is retried then
+            log.warn("Could not release statement partition {}/{}", partition.period(), partition.firstUserId(), e);
+        }
+    }
+
+    private int failExhausted() {
+        AppProperties.Statements config = appProperties.getStatements();
+        Integer failed = writeTransaction.execute(status -> entityManager.createNativeQuery(FAIL_EXHAUSTED_PARTITIONS)
+                .setParameter("maxAttempts", config.getMaxAttempts())
+                .setParameter("leaseMs", config.getLeaseMs())
+                .executeUpdate());
+        return failed != null ? failed : 0;
+    }
+
+    private void writeStatement(LocalDate period, Long userId, List<ExpenseExportRow> rows) {
+        String month = MONTH_FORMAT.format(period);
+        try {
+            Path directory = Files.createDirectories(
+                    Path.of(appProperties.getStatements().getDirectory(), month, userId.toString()));
+            writeAtomically(directory.resolve("statement-" + month + ".csv"), out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                csvExporter.exportExpenses(writer, rows.stream());
+                writer.flush();
+            });
+            writeAtomically(directory.resolve("statement-" + month + ".pdf"),
+                    out -> pdfExporter.exportExpenses(out, rows.stream(), true));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write statement of user " + userId + " for " + month, e);
+        }
+    }
+
+    // Readers never see a half-written statement, and a redone statement replaces the old one whole
+    private static void writeAtomically(Path target, ArtifactWriter writer) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writer.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static void await(Future<?> worker) {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Statement worker failed", e.getCause());
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.expensetracker.service.impl;
 import com.example.expensetracker.dto.CategoryDto;
 import com.example.expensetracker.entity.CategoryEntity;
 import com.example.expensetracker.entity.UserEntity;
+import com.example.expensetracker.event.CategoryChangedEvent;
+import com.example.expensetracker.event.ExpenseScopeChangedEvent;
 import com.example.expensetracker.exception.CategoryAlreadyExistsException;
 import com.example.expensetracker.exception.CategoryNotFoundException;
 import com.example.expensetracker.exception.ConflictException;
@@ -13,6 +15,7 @@ import com.example.expensetracker.repository.ExpenseRepository;
 import com.example.expensetracker.service.BaseService;
 import com.example.expensetracker.service.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,6 +28,7 @@ public class CategoryServiceImpl extends BaseService implements CategoryService
     private final CategoryRepository categoryRepository;
     private final ExpenseRepository expenseRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -48,6 +52,7 @@ public class CategoryServiceImpl extends BaseService implements CategoryService
         CategoryEntity category = categoryMapper.toEntity(dto);
         category.setUser(currentUser);
         CategoryEntity savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(currentUser.getId()));
         return categoryMapper.toDto(savedCategory);
     }
 
@@ -85,8 +90,15 @@ public class CategoryServiceImpl extends BaseService implements CategoryService
             throw new CategoryAlreadyExistsException("Category with name '" + dto.getName() + "' already exists.");
         }
 
+        boolean renamed = !category.getName().equals(dto.getName());
         category.setName(dto.getName());
-        return categoryMapper.toDto(categoryRepository.save(category));
+        CategoryEntity saved = categoryRepository.save(category);
+        if (renamed) {
+            // Category names are part of the cached per-category stats
+            eventPublisher.publishEvent(ExpenseScopeChangedEvent.user(currentUser.getId()));
+            eventPublisher.publishEvent(new CategoryChangedEvent(currentUser.getId()));
+        }
+        return categoryMapper.toDto(saved);
     }
 
     @Override
@@ -104,5 +116,6 @@ public class CategoryServiceImpl extends BaseService implements CategoryService
         }
         
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(currentUser.getId()));
     }
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ import com.example.expensetracker.entity.ExpenseEntity;
 import com.example.expensetracker.entity.ReceiptEntity;
 import com.example.expensetracker.entity.CategoryEntity;
 import com.example.expensetracker.entity.UserEntity;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.event.ExpenseSnapshot;
 import com.example.expensetracker.exception.CategoryNotFoundException;
 import com.example.expensetracker.exception.ConflictException;
 import com.example.expensetracker.exception.FileStorageException;
@@ -24,6 +26,7 @@ import com.example.expensetracker.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -52,6 +55,7 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
     private final AppProperties appProperties;
     private final ReceiptRepository receiptRepository;
     private final ReceiptMapper receiptMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -80,7 +84,9 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
         entity.setUser(currentUser);
         entity.setCategory(category);
 
-        return mapper.toResponse(expenseRepository.save(entity));
+        ExpenseEntity saved = expenseRepository.save(entity);
+        eventPublisher.publishEvent(ExpenseChangedEvent.created(ExpenseSnapshot.of(saved)));
+        return mapper.toResponse(saved);
     }
 
     @Override
@@ -175,6 +181,7 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
 
         ExpenseEntity entity = expenseRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new NotFoundException("Expense not found"));
+        ExpenseSnapshot before = ExpenseSnapshot.of(entity);
 
         if (request.getCategoryId() != null) {
             CategoryEntity category = categoryRepository.findByIdAndUserId(request.getCategoryId(), currentUser.getId())
@@ -193,7 +200,9 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
 
         mapper.updateEntity(entity, request);
 
-        return mapper.toResponse(expenseRepository.save(entity));
+        ExpenseEntity saved = expenseRepository.save(entity);
+        eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseSnapshot.of(saved)));
+        return mapper.toResponse(saved);
     }
 
     @Override
@@ -205,10 +214,11 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
 
         Long userId = getAuthenticatedUser().getId();
 
-        if (!expenseRepository.existsByIdAndUserId(id, userId)) {
-            throw new NotFoundException("Expense not found");
-        }
-        expenseRepository.deleteById(id);
+        ExpenseEntity entity = expenseRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new NotFoundException("Expense not found"));
+        ExpenseSnapshot before = ExpenseSnapshot.of(entity);
+        expenseRepository.delete(entity);
+        eventPublisher.publishEvent(ExpenseChangedEvent.deleted(before));
     }
 
     @Override
@@ -238,7 +248,10 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
                 .build();
 
         expense.setReceipt(newReceipt);
+        expense.setHasReceipt(true);
         expenseRepository.save(expense);
+        ExpenseSnapshot snapshot = ExpenseSnapshot.of(expense);
+        eventPublisher.publishEvent(ExpenseChangedEvent.updated(snapshot, snapshot));
 
         return receiptMapper.toDto(newReceipt);
     }
@@ -257,9 +270,12 @@ public class ExpenseServiceImpl extends BaseService implements ExpenseService {
 
         String filenameToDelete = receipt.getFileUrl();
         expense.setReceipt(null);
+        expense.setHasReceipt(false);
 
         receiptRepository.delete(receipt);
         expenseRepository.save(expense);
+        ExpenseSnapshot snapshot = ExpenseSnapshot.of(expense);
+        eventPublisher.publishEvent(ExpenseChangedEvent.updated(snapshot, snapshot));
         fileStorageService.delete(filenameToDelete);
     }
 
@@ -5,6 +5,8 @@ import com.example.expensetracker.entity.CategoryEntity;
 import com.example.expensetracker.entity.ExpenseEntity;
 import com.example.expensetracker.entity.TeamEntity;
 import com.example.expensetracker.enums.ShareMode;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.event.ExpenseSnapshot;
 import com.example.expensetracker.enums.TeamRole;
 import com.example.expensetracker.exception.ForbiddenException;
 import com.example.expensetracker.exception.NotFoundException;
@@ -19,6 +21,7 @@ import com.example.expensetracker.util.CursorUtil;
 import com.example.expensetracker.util.TeamAcl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,6 +41,7 @@ public class TeamExpenseServiceImpl extends BaseService implements TeamExpenseSe
     private final TeamRepository teamRepository;
     private final CategoryRepository categoryRepository;
     private final TeamAcl teamAcl;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -119,6 +123,7 @@ public class TeamExpenseServiceImpl extends BaseService implements TeamExpenseSe
         expense.setTeam(team);
         
         expense = expenseRepository.save(expense);
+        eventPublisher.publishEvent(ExpenseChangedEvent.created(ExpenseSnapshot.of(expense)));
         
         log.info("Expense {} created in team {}", expense.getId(), teamId);
         
@@ -147,8 +152,10 @@ public class TeamExpenseServiceImpl extends BaseService implements TeamExpenseSe
                 .orElseThrow(() -> new NotFoundException("Team not found"));
         
         if (mode == ShareMode.MOVE) {
+            ExpenseSnapshot before = ExpenseSnapshot.of(expense);
             expense.setTeam(team);
             expense = expenseRepository.save(expense);
+            eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseSnapshot.of(expense)));
             log.info("Expense {} moved to team {}", expenseId, teamId);
         } else if (mode == ShareMode.COPY_REFERENCE) {
             ExpenseEntity teamExpense = ExpenseEntity.builder()
@@ -162,6 +169,7 @@ public class TeamExpenseServiceImpl extends BaseService implements TeamExpenseSe
                     .build();
             
             teamExpense = expenseRepository.save(teamExpense);
+            eventPublisher.publishEvent(ExpenseChangedEvent.created(ExpenseSnapshot.of(teamExpense)));
             log.info("Expense {} copied to team {} as expense {}", expenseId, teamId, teamExpense.getId());
             
             return expenseMapper.toResponse(teamExpense);
@@ -5,6 +5,7 @@ import com.example.expensetracker.entity.TeamEntity;
 import com.example.expensetracker.entity.TeamMemberEntity;
 import com.example.expensetracker.entity.UserEntity;
 import com.example.expensetracker.enums.TeamRole;
+import com.example.expensetracker.event.ExpenseScopeChangedEvent;
 import com.example.expensetracker.exception.ConflictException;
 import com.example.expensetracker.exception.NotFoundException;
 import com.example.expensetracker.exception.ValidationException;
@@ -17,6 +18,7 @@ import com.example.expensetracker.util.TeamAcl;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +36,7 @@ public class TeamServiceImpl extends BaseService implements TeamService {
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
     private final TeamAcl teamAcl;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -292,6 +295,8 @@ public class TeamServiceImpl extends BaseService implements TeamService {
         }
         
         teamRepository.delete(team);
+        // ON DELETE SET NULL rewrites team_id on every member's expenses
+        eventPublisher.publishEvent(ExpenseScopeChangedEvent.everyone());
         
         logger.info("Team {} deleted by user {}", teamId, me);
     }
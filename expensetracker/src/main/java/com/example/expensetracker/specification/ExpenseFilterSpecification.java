@@ -1,7 +1,8 @@
 package com.example.expensetracker.specification;
 
 import com.example.expensetracker.entity.ExpenseEntity;
-import com.example.expensetracker.entity.ReceiptEntity;
+import com.example.expensetracker.dto.AmountRange;
+import com.example.expensetracker.dto.DateRange;
 import com.example.expensetracker.dto.ExpenseFilterRequest;
 import jakarta.persistence.criteria.*;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Slf4j
@@ -32,24 +34,12 @@ public class ExpenseFilterSpecification {
             // User filter (always applied)
             predicates.add(cb.equal(root.get("user").get("id"), userId));
 
-            // Apply all other filters via helper methods
-            addCategoryPredicates(root, cb, request, predicates);
-            addDatePredicates(root, cb, request, predicates);
-            addAmountPredicates(root, cb, request, predicates);
-            addReceiptPredicates(root, query, cb, request, predicates);
+            addFilterPredicates(root, cb, request, predicates);
 
             if (request.getTeamId() != null) {
                 predicates.add(cb.equal(root.get("team").get("id"), request.getTeamId()));
             }
 
-            if (request.getSearch() != null && !request.getSearch().isBlank()) {
-                String searchTerm = request.getSearch().trim();
-                predicates.add(cb.like(
-                        cb.lower(root.get("description")),
-                        "%" + searchTerm.toLowerCase() + "%"
-                ));
-            }
-
             addCursorPredicates(root, cb, cursorCreatedAt, cursorId, predicates);
 
             log.debug("Expense filter applied: userId={}, filters={}, cursor={}",
@@ -68,8 +58,41 @@ public class ExpenseFilterSpecification {
         return buildSpecification(userId, request, null, null);
     }
 
+    /**
+     * Team-wide variant: rows of every member of {@code teamId} instead of a single user's.
+     * {@code request.teamId} is ignored, as in {@link ExpenseFilterSql#buildForTeam}.
+     */
+    public static Specification<ExpenseEntity> buildTeamSpecification(
+            Long teamId,
+            ExpenseFilterRequest request
+    ) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("team").get("id"), teamId));
+            addFilterPredicates(root, cb, request, predicates);
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
     // --- Helper Methods ---
 
+    private static void addFilterPredicates(Root<ExpenseEntity> root, CriteriaBuilder cb,
+                                            ExpenseFilterRequest request, List<Predicate> predicates) {
+        addCategoryPredicates(root, cb, request, predicates);
+        addDatePredicates(root, cb, request, predicates);
+        addAmountPredicates(root, cb, request, predicates);
+        addReceiptPredicates(root, cb, request, predicates);
+        addMultiValuePredicates(root, cb, request, predicates);
+
+        if (request.getSearch() != null && !request.getSearch().isBlank()) {
+            String searchTerm = request.getSearch().trim();
+            predicates.add(cb.like(
+                    cb.lower(root.get("description")),
+                    "%" + searchTerm.toLowerCase() + "%"
+            ));
+        }
+    }
+
     private static void addCategoryPredicates(Root<ExpenseEntity> root, CriteriaBuilder cb,
                                               ExpenseFilterRequest request, List<Predicate> predicates) {
         if (request.getCategoryId() != null) {
@@ -111,18 +134,59 @@ public class ExpenseFilterSpecification {
         }
     }
 
-    private static void addReceiptPredicates(Root<ExpenseEntity> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+    // Plain IN lists and OR-ed BETWEEN / >= AND < ranges on indexed columns, so the planner can
+    // use index or bitmap-OR scans instead of evaluating an expression per row
+    private static void addMultiValuePredicates(Root<ExpenseEntity> root, CriteriaBuilder cb,
+                                                ExpenseFilterRequest request, List<Predicate> predicates) {
+        if (isNotEmpty(request.getCategoryIds())) {
+            predicates.add(root.get("category").get("id").in(request.getCategoryIds()));
+        }
+        if (isNotEmpty(request.getTeamIds())) {
+            predicates.add(root.get("team").get("id").in(request.getTeamIds()));
+        }
+        if (isNotEmpty(request.getDateRanges())) {
+            List<Predicate> ranges = new ArrayList<>();
+            for (DateRange range : DateRange.merge(request.getDateRanges())) {
+                ranges.add(dateRangePredicate(root, cb, range));
+            }
+            predicates.add(cb.or(ranges.toArray(new Predicate[0])));
+        }
+        if (isNotEmpty(request.getAmountBuckets())) {
+            List<Predicate> buckets = new ArrayList<>();
+            for (AmountRange bucket : request.getAmountBuckets()) {
+                Predicate lower = cb.greaterThanOrEqualTo(root.get("amount"), bucket.min());
+                buckets.add(bucket.max() == null
+                        ? lower
+                        : cb.and(lower, cb.lessThan(root.get("amount"), bucket.max())));
+            }
+            predicates.add(cb.or(buckets.toArray(new Predicate[0])));
+        }
+    }
+
+    private static Predicate dateRangePredicate(Root<ExpenseEntity> root, CriteriaBuilder cb, DateRange range) {
+        if (range.from() != null && range.to() != null) {
+            return cb.between(root.get("date"), range.from(), range.to());
+        }
+        if (range.from() != null) {
+            return cb.greaterThanOrEqualTo(root.get("date"), range.from());
+        }
+        if (range.to() != null) {
+            return cb.lessThanOrEqualTo(root.get("date"), range.to());
+        }
+        return cb.conjunction();
+    }
+
+    private static boolean isNotEmpty(Collection<?> values) {
+        return values != null && !values.isEmpty();
+    }
+
+    private static void addReceiptPredicates(Root<ExpenseEntity> root, CriteriaBuilder cb,
                                              ExpenseFilterRequest request, List<Predicate> predicates) {
         if (request.getHasReceipt() != null) {
-            Subquery<Long> receiptSubquery = query.subquery(Long.class);
-            Root<ReceiptEntity> receiptRoot = receiptSubquery.from(ReceiptEntity.class);
-            receiptSubquery.select(receiptRoot.get("expense").get("id"));
-            receiptSubquery.where(cb.equal(receiptRoot.get("expense").get("id"), root.get("id")));
-
             if (request.getHasReceipt()) {
-                predicates.add(cb.exists(receiptSubquery));
+                predicates.add(cb.isTrue(root.get("hasReceipt")));
             } else {
-                predicates.add(cb.not(cb.exists(receiptSubquery)));
+                predicates.add(cb.isFalse(root.get("hasReceipt")));
             }
         }
     }
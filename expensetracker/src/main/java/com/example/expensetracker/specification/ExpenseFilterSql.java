@@ -0,0 +1,212 @@
+package com.example.expensetracker.specification;
+
+import com.example.expensetracker.dto.AmountRange;
+import com.example.expensetracker.dto.DateRange;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Native SQL counterpart of {@link ExpenseFilterSpecification} for aggregate queries that
+ * Criteria cannot express (GROUPING SETS, window functions).
+ * <p>
+ * The clause refers to {@code expenses e} and {@code categories c}; callers must join
+ * {@code categories c ON c.id = e.category_id}. All values are bound as named parameters.
+ * Semantics match the specification predicate for predicate, so both paths return the same rows.
+ */
+public final class ExpenseFilterSql {
+
+    private final StringBuilder where = new StringBuilder();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private ExpenseFilterSql() {
+    }
+
+    public static ExpenseFilterSql build(Long userId, ExpenseFilterRequest request) {
+        ExpenseFilterSql sql = new ExpenseFilterSql();
+        sql.and("e.user_id = :userId", "userId", userId);
+        sql.addFilterConditions(request, request.getTeamId());
+        return sql;
+    }
+
+    /**
+     * Team-wide variant: rows of every member of {@code teamId} instead of a single user's.
+     * {@code request.teamId} is ignored.
+     */
+    public static ExpenseFilterSql buildForTeam(Long teamId, ExpenseFilterRequest request) {
+        ExpenseFilterSql sql = new ExpenseFilterSql();
+        sql.addFilterConditions(request, teamId);
+        return sql;
+    }
+
+    /**
+     * True when the filter only touches user, team, category and date, i.e. the dimensions of
+     * {@code expense_daily_rollup}. The clause then works unchanged against the rollup aliased as {@code e}.
+     */
+    public static boolean isRollupCompatible(ExpenseFilterRequest request) {
+        return request.getMinAmount() == null
+                && request.getMaxAmount() == null
+                && isEmpty(request.getAmountBuckets())
+                && request.getHasReceipt() == null
+                && (request.getSearch() == null || request.getSearch().isBlank());
+    }
+
+    /**
+     * Conditions joined with AND, without the leading {@code WHERE}.
+     */
+    public String whereClause() {
+        return where.toString();
+    }
+
+    public Map<String, Object> parameters() {
+        return parameters;
+    }
+
+    public <Q extends Query> Q bind(Q query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    /**
+     * Canonical text of the clause and its values: filters with equal fingerprints select the same
+     * rows. Collection values are de-duplicated and sorted and decimals are written by value, so
+     * {@code categoryIds=2,1,2} and {@code categoryIds=1,2} share a fingerprint.
+     */
+    public String fingerprint() {
+        StringBuilder fingerprint = new StringBuilder(where);
+        parameters.forEach((name, value) -> fingerprint.append('\n').append(name).append('=').append(canonical(value)));
+        return fingerprint.toString();
+    }
+
+    private static String canonical(Object value) {
+        if (value instanceof Collection<?> values) {
+            return values.stream()
+                    .map(ExpenseFilterSql::canonical)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.joining(",", "[", "]"));
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        return String.valueOf(value);
+    }
+
+    private void addFilterConditions(ExpenseFilterRequest request, Long teamId) {
+        addCategoryConditions(request);
+        addDateConditions(request);
+        addAmountConditions(request);
+
+        if (request.getHasReceipt() != null) {
+            and(request.getHasReceipt() ? "e.has_receipt" : "NOT e.has_receipt");
+        }
+        if (teamId != null) {
+            and("e.team_id = :teamId", "teamId", teamId);
+        }
+        if (request.getSearch() != null && !request.getSearch().isBlank()) {
+            and("lower(e.description) LIKE :search",
+                    "search", "%" + request.getSearch().trim().toLowerCase() + "%");
+        }
+
+        addMultiValueConditions(request);
+    }
+
+    private void addCategoryConditions(ExpenseFilterRequest request) {
+        if (request.getCategoryId() != null) {
+            and("e.category_id = :categoryId", "categoryId", request.getCategoryId());
+        } else if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            String categoryName = request.getCategory().trim().toLowerCase();
+            if ("like".equalsIgnoreCase(request.getCategoryMatch())) {
+                and("lower(c.name) LIKE :categoryName", "categoryName", "%" + categoryName + "%");
+            } else {
+                and("lower(c.name) = :categoryName", "categoryName", categoryName);
+            }
+        }
+    }
+
+    private void addDateConditions(ExpenseFilterRequest request) {
+        if (request.getFromDate() != null) {
+            and("e.date >= :fromDate", "fromDate", request.getFromDate());
+        }
+        if (request.getToDate() != null) {
+            and("e.date <= :toDate", "toDate", request.getToDate());
+        }
+    }
+
+    private void addAmountConditions(ExpenseFilterRequest request) {
+        if (request.getMinAmount() != null) {
+            and("e.amount >= :minAmount", "minAmount", request.getMinAmount());
+        }
+        if (request.getMaxAmount() != null) {
+            and("e.amount <= :maxAmount", "maxAmount", request.getMaxAmount());
+        }
+    }
+
+    private void addMultiValueConditions(ExpenseFilterRequest request) {
+        if (isNotEmpty(request.getCategoryIds())) {
+            and("e.category_id IN (:categoryIds)", "categoryIds", request.getCategoryIds());
+        }
+        if (isNotEmpty(request.getTeamIds())) {
+            and("e.team_id IN (:teamIds)", "teamIds", request.getTeamIds());
+        }
+        if (isNotEmpty(request.getDateRanges())) {
+            StringBuilder any = new StringBuilder();
+            List<DateRange> ranges = DateRange.merge(request.getDateRanges());
+            for (int i = 0; i < ranges.size(); i++) {
+                DateRange range = ranges.get(i);
+                StringBuilder condition = new StringBuilder();
+                if (range.from() != null) {
+                    condition.append("e.date >= :dateFrom").append(i);
+                    parameters.put("dateFrom" + i, range.from());
+                }
+                if (range.to() != null) {
+                    condition.append(condition.isEmpty() ? "" : " AND ").append("e.date <= :dateTo").append(i);
+                    parameters.put("dateTo" + i, range.to());
+                }
+                any.append(i == 0 ? "" : " OR ").append('(').append(condition.isEmpty() ? "TRUE" : condition).append(')');
+            }
+            and("(" + any + ")");
+        }
+        if (isNotEmpty(request.getAmountBuckets())) {
+            StringBuilder any = new StringBuilder();
+            List<AmountRange> buckets = request.getAmountBuckets();
+            for (int i = 0; i < buckets.size(); i++) {
+                AmountRange bucket = buckets.get(i);
+                any.append(i == 0 ? "" : " OR ").append("(e.amount >= :bucketMin").append(i);
+                parameters.put("bucketMin" + i, bucket.min());
+                if (bucket.max() != null) {
+                    any.append(" AND e.amount < :bucketMax").append(i);
+                    parameters.put("bucketMax" + i, bucket.max());
+                }
+                any.append(')');
+            }
+            and("(" + any + ")");
+        }
+    }
+
+    private void and(String condition) {
+        if (!where.isEmpty()) {
+            where.append("\n  AND ");
+        }
+        where.append(condition);
+    }
+
+    private void and(String condition, String name, Object value) {
+        and(condition);
+        parameters.put(name, value);
+    }
+
+    private static boolean isNotEmpty(Collection<?> values) {
+        return values != null && !values.isEmpty();
+    }
+
+    private static boolean isEmpty(Collection<?> values) {
+        return !isNotEmpty(values);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.expensetracker.util;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Conversions for column values returned by native queries.
+ * JDBC drivers and Hibernate versions differ in the Java types they hand back
+ * (e.g. Timestamp vs OffsetDateTime), so row mapping goes through these helpers.
+ */
+public class NativeQueryUtil {
+
+    // Private constructor to prevent instantiation
+    private NativeQueryUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    public static long toLongOrZero(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    public static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    public static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    public static boolean toBoolean(Object value) {
+        return value instanceof Boolean bool ? bool : value != null && ((Number) value).intValue() != 0;
+    }
+
+    public static LocalDate toLocalDate(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    public static Instant toInstant(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        return Instant.parse(value.toString());
+    }
+}
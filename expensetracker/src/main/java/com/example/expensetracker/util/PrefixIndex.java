@@ -0,0 +1,167 @@
+package com.example.expensetracker.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Compact, frequency-ranked prefix index over short strings.
+ * <p>
+ * Terms live in parallel sorted arrays (normalized key, display label, count), so a prefix
+ * lookup is a binary search followed by a scan of the matching run. Counts are adjusted
+ * incrementally; a term whose count drops to zero is removed. All methods are synchronized.
+ */
+public class PrefixIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+    // Rough per-String cost on a 64-bit JVM with compressed oops: header + array header + fields
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int ENTRY_OVERHEAD_BYTES = 2 * 4 + 4;
+    private static final int INDEX_OVERHEAD_BYTES = 64;
+
+    private final int maxTermLength;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private String[] labels = new String[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+    private long textBytes;
+
+    public PrefixIndex(int maxTermLength) {
+        this.maxTermLength = maxTermLength;
+    }
+
+    public record Entry(String label, int count) {
+    }
+
+    /**
+     * Adds {@code delta} occurrences of the term (negative to remove occurrences).
+     */
+    public synchronized void add(String term, int delta) {
+        String label = toLabel(term);
+        if (label == null || delta == 0) {
+            return;
+        }
+        String key = label.toLowerCase(Locale.ROOT);
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            counts[index] += delta;
+            if (counts[index] <= 0) {
+                removeAt(index);
+            } else if (delta > 0) {
+                // Latest spelling wins for display
+                textBytes += stringBytes(label) - stringBytes(labels[index]);
+                labels[index] = label;
+            }
+        } else if (delta > 0) {
+            insertAt(-index - 1, key, label, delta);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} terms starting with {@code prefix} (case-insensitive),
+     * most frequent first, ties broken alphabetically.
+     */
+    public synchronized List<Entry> top(String prefix, int limit) {
+        String label = toLabel(prefix);
+        if (label == null || limit <= 0) {
+            return List.of();
+        }
+        String key = label.toLowerCase(Locale.ROOT);
+
+        // Min-heap of the best candidates so far: lowest count (then latest key) at the head
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byCount = Integer.compare(counts[a], counts[b]);
+            return byCount != 0 ? byCount : keys[b].compareTo(keys[a]);
+        });
+        for (int i = lowerBound(key); i < size && keys[i].startsWith(key); i++) {
+            best.offer(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Entry> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int i = best.poll();
+            result.add(new Entry(labels[i], counts[i]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Current count of the term, or 0 when it is not indexed.
+     */
+    public synchronized int count(String term) {
+        String label = toLabel(term);
+        if (label == null) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, label.toLowerCase(Locale.ROOT));
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Approximate retained heap size, used for the global memory budget.
+     */
+    public synchronized long estimatedBytes() {
+        return INDEX_OVERHEAD_BYTES + (long) keys.length * ENTRY_OVERHEAD_BYTES + textBytes;
+    }
+
+    private String toLabel(String term) {
+        if (term == null) {
+            return null;
+        }
+        String label = term.strip().replaceAll("\\s+", " ");
+        if (label.isEmpty()) {
+            return null;
+        }
+        return label.length() > maxTermLength ? label.substring(0, maxTermLength) : label;
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void insertAt(int index, String key, String label, int count) {
+        if (size == keys.length) {
+            int capacity = keys.length + (keys.length >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int tail = size - index;
+        System.arraycopy(keys, index, keys, index + 1, tail);
+        System.arraycopy(labels, index, labels, index + 1, tail);
+        System.arraycopy(counts, index, counts, index + 1, tail);
+        keys[index] = key;
+        labels[index] = label;
+        counts[index] = count;
+        size++;
+        textBytes += stringBytes(key) + stringBytes(label);
+    }
+
+    private void removeAt(int index) {
+        textBytes -= stringBytes(keys[index]) + stringBytes(labels[index]);
+        int tail = size - index - 1;
+        System.arraycopy(keys, index + 1, keys, index, tail);
+        System.arraycopy(labels, index + 1, labels, index, tail);
+        System.arraycopy(counts, index + 1, counts, index, tail);
+        size--;
+        keys[size] = null;
+        labels[size] = null;
+    }
+
+    private static long stringBytes(String value) {
+        return STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+}
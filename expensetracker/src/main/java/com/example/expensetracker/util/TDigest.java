@@ -0,0 +1,283 @@
+package com.example.expensetracker.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning) for approximate quantiles of a stream of values.
+ * <p>
+ * Values are buffered and periodically merged into sorted centroids (mean, weight). A centroid
+ * may only grow while it spans at most one unit of {@code k(q) = compression / (2 * PI) * asin(2q - 1)},
+ * a scale that is steep near 0 and 1, so centroids near the tails stay small and extreme
+ * quantiles remain accurate while the number of centroids stays below {@code compression}.
+ * Merging two digests only re-clusters their centroids, which is what lets per-month digests be
+ * combined for any range.
+ * <p>
+ * Centroids of weight one are exact values; {@link #quantile} and {@link #cdf} treat them as
+ * points and spread heavier centroids evenly between the midpoints to their neighbours.
+ * Not thread-safe.
+ */
+public final class TDigest {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double compression;
+
+    private double[] means = new double[0];
+    private long[] weights = new long[0];
+    private int centroids;
+
+    private final double[] bufferValues;
+    private final long[] bufferWeights;
+    private int buffered;
+
+    private long totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("compression must be at least 10");
+        }
+        this.compression = compression;
+        int bufferSize = (int) (5 * compression);
+        this.bufferValues = new double[bufferSize];
+        this.bufferWeights = new long[bufferSize];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long weight) {
+        if (Double.isNaN(value) || weight <= 0) {
+            throw new IllegalArgumentException("value must be a number and weight positive");
+        }
+        if (buffered == bufferValues.length) {
+            compress();
+        }
+        bufferValues[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        // The tail centroids' means lie inside the range, so take the true extremes over
+        if (other.totalWeight > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    public long size() {
+        return totalWeight;
+    }
+
+    public int centroidCount() {
+        compress();
+        return centroids;
+    }
+
+    public double min() {
+        return totalWeight == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return totalWeight == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * @param q in {@code [0, 1]}
+     * @return estimated value at rank {@code q * size()}, or NaN for an empty digest
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be in [0, 1]");
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+
+        double rank = q * totalWeight;
+        double cumulative = 0;
+        for (int i = 0; i < centroids; i++) {
+            long weight = weights[i];
+            if (rank < cumulative + weight) {
+                if (weight == 1) {
+                    return means[i];
+                }
+                double left = lowerEdge(i);
+                double right = upperEdge(i);
+                return left + (rank - cumulative) / weight * (right - left);
+            }
+            cumulative += weight;
+        }
+        return max;
+    }
+
+    /**
+     * @return estimated fraction of values strictly below {@code value}, or NaN for an empty digest
+     */
+    public double cdf(double value) {
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (value <= min) {
+            return 0;
+        }
+        if (value > max) {
+            return 1;
+        }
+
+        double below = 0;
+        for (int i = 0; i < centroids; i++) {
+            long weight = weights[i];
+            if (weight == 1) {
+                below += means[i] < value ? 1 : 0;
+                continue;
+            }
+            double left = lowerEdge(i);
+            double right = upperEdge(i);
+            if (value >= right) {
+                below += weight;
+            } else if (value > left) {
+                below += weight * (value - left) / (right - left);
+            }
+        }
+        return below / totalWeight;
+    }
+
+    /**
+     * Compact binary form: version, compression, min, max, centroid count, then each centroid as a
+     * mean (8 bytes) and a varint weight.
+     */
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer header = ByteBuffer.allocate(1 + 3 * Double.BYTES);
+        header.put(FORMAT_VERSION).putDouble(compression).putDouble(min).putDouble(max);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(header.capacity() + 5 + centroids * 10);
+        out.write(header.array(), 0, header.capacity());
+        writeVarLong(out, centroids);
+        ByteBuffer mean = ByteBuffer.allocate(Double.BYTES);
+        for (int i = 0; i < centroids; i++) {
+            mean.clear();
+            out.write(mean.putDouble(means[i]).array(), 0, Double.BYTES);
+            writeVarLong(out, weights[i]);
+        }
+        return out.toByteArray();
+    }
+
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported t-digest format version " + version);
+        }
+        TDigest digest = new TDigest(in.getDouble());
+        double min = in.getDouble();
+        double max = in.getDouble();
+        int count = (int) readVarLong(in);
+
+        digest.means = new double[count];
+        digest.weights = new long[count];
+        for (int i = 0; i < count; i++) {
+            digest.means[i] = in.getDouble();
+            digest.weights[i] = readVarLong(in);
+            digest.totalWeight += digest.weights[i];
+        }
+        digest.centroids = count;
+        if (count > 0) {
+            digest.min = min;
+            digest.max = max;
+        }
+        return digest;
+    }
+
+    private double lowerEdge(int i) {
+        return i == 0 ? min : (means[i - 1] + means[i]) / 2;
+    }
+
+    private double upperEdge(int i) {
+        return i == centroids - 1 ? max : (means[i] + means[i + 1]) / 2;
+    }
+
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+
+        int n = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        long[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferValues, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        buffered = 0;
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double[] mergedMeans = new double[n];
+        long[] mergedWeights = new long[n];
+        int out = 0;
+        mergedMeans[0] = allMeans[order[0]];
+        mergedWeights[0] = allWeights[order[0]];
+        double weightBefore = 0;
+        double kLeft = scale(0);
+        for (int k = 1; k < n; k++) {
+            int next = order[k];
+            long proposed = mergedWeights[out] + allWeights[next];
+            if (scale((weightBefore + proposed) / totalWeight) - kLeft <= 1) {
+                mergedMeans[out] += (allMeans[next] - mergedMeans[out]) * allWeights[next] / proposed;
+                mergedWeights[out] = proposed;
+            } else {
+                weightBefore += mergedWeights[out];
+                kLeft = scale(weightBefore / totalWeight);
+                out++;
+                mergedMeans[out] = allMeans[next];
+                mergedWeights[out] = allWeights[next];
+            }
+        }
+
+        centroids = out + 1;
+        means = Arrays.copyOf(mergedMeans, centroids);
+        weights = Arrays.copyOf(mergedWeights, centroids);
+    }
+
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(q, 1) - 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
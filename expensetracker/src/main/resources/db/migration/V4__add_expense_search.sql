@@ -0,0 +1,62 @@
+-- Search support for expense descriptions and category names
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Trigram indexes: make lower(...) LIKE '%term%' filters indexable and power fuzzy matching
+CREATE INDEX IF NOT EXISTS idx_expenses_description_trgm
+ON expenses USING GIN (lower(description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_categories_name_trgm
+ON categories USING GIN (lower(name) gin_trgm_ops);
+
+-- Weighted search document: description (A) + category name (B)
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION expense_search_document(description TEXT, category_name TEXT)
+RETURNS tsvector AS $$
+    SELECT setweight(to_tsvector('simple', coalesce(description, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(category_name, '')), 'B');
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Keep the document in sync when an expense is written
+CREATE OR REPLACE FUNCTION expenses_search_vector_update()
+RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := expense_search_document(
+        NEW.description,
+        (SELECT name FROM categories WHERE id = NEW.category_id)
+    );
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_expenses_search_vector ON expenses;
+CREATE TRIGGER trg_expenses_search_vector
+BEFORE INSERT OR UPDATE OF description, category_id ON expenses
+FOR EACH ROW EXECUTE FUNCTION expenses_search_vector_update();
+
+-- ... and when a category is renamed
+CREATE OR REPLACE FUNCTION categories_search_vector_refresh()
+RETURNS trigger AS $$
+BEGIN
+    UPDATE expenses
+    SET search_vector = expense_search_document(description, NEW.name)
+    WHERE category_id = NEW.id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_categories_search_vector ON categories;
+CREATE TRIGGER trg_categories_search_vector
+AFTER UPDATE OF name ON categories
+FOR EACH ROW WHEN (OLD.name IS DISTINCT FROM NEW.name)
+EXECUTE FUNCTION categories_search_vector_refresh();
+
+-- Backfill existing rows
+UPDATE expenses e
+SET search_vector = expense_search_document(e.description, c.name)
+FROM categories c
+WHERE c.id = e.category_id;
+
+CREATE INDEX IF NOT EXISTS idx_expenses_search_vector
+ON expenses USING GIN (search_vector);
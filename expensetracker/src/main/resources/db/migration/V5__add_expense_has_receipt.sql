@@ -0,0 +1,20 @@
+-- Denormalized receipt flag so receipt filters are a plain column predicate instead of a
+-- correlated EXISTS probe against receipts for every candidate row.
+
+ALTER TABLE expenses
+    ADD COLUMN IF NOT EXISTS has_receipt BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE expenses e
+SET has_receipt = TRUE
+WHERE EXISTS (SELECT 1 FROM receipts r WHERE r.expense_id = e.id)
+  AND e.has_receipt = FALSE;
+
+-- Receipt-present listings, in cursor pagination order
+CREATE INDEX IF NOT EXISTS idx_expenses_user_receipt_created_id
+ON expenses (user_id, created_at DESC, id DESC)
+WHERE has_receipt;
+
+-- "Expenses missing a receipt" report
+CREATE INDEX IF NOT EXISTS idx_expenses_user_no_receipt_created_id
+ON expenses (user_id, created_at DESC, id DESC)
+WHERE NOT has_receipt;
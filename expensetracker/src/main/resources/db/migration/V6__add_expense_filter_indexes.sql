@@ -0,0 +1,9 @@
+-- Indexes for multi-value filters (category sets, disjoint date ranges)
+
+-- Category IN-lists combined with date ranges: one index range scan per (category, range) pair
+CREATE INDEX IF NOT EXISTS idx_expenses_user_category_date
+ON expenses (user_id, category_id, date);
+
+-- Date ranges without a category restriction; amount is carried along for bucket filters and sums
+CREATE INDEX IF NOT EXISTS idx_expenses_user_date
+ON expenses (user_id, date) INCLUDE (amount);
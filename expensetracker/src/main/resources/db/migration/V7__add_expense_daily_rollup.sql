@@ -0,0 +1,79 @@
+-- Per-day aggregates for the stats endpoints.
+-- One row per (user, team, category, day) with the sum and count of matching expenses, so
+-- long-range dashboards read a few hundred rollup rows instead of every expense.
+
+CREATE TABLE IF NOT EXISTS expense_daily_rollup (
+    user_id BIGINT NOT NULL,
+    team_id BIGINT,
+    category_id BIGINT NOT NULL,
+    date DATE,
+    total_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    expense_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uq_expense_daily_rollup UNIQUE NULLS NOT DISTINCT (user_id, team_id, category_id, date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_expense_daily_rollup_user_date
+ON expense_daily_rollup (user_id, date);
+
+CREATE INDEX IF NOT EXISTS idx_expense_daily_rollup_team_date
+ON expense_daily_rollup (team_id, date)
+WHERE team_id IS NOT NULL;
+
+-- Adds (or with negative values removes) one expense's contribution to its rollup row
+CREATE OR REPLACE FUNCTION expense_daily_rollup_apply(
+    p_user_id BIGINT, p_team_id BIGINT, p_category_id BIGINT, p_date DATE,
+    p_amount DECIMAL, p_count INTEGER
+)
+RETURNS void AS $$
+BEGIN
+    INSERT INTO expense_daily_rollup AS r (user_id, team_id, category_id, date, total_amount, expense_count)
+    VALUES (p_user_id, p_team_id, p_category_id, p_date, COALESCE(p_amount, 0), p_count)
+    ON CONFLICT (user_id, team_id, category_id, date) DO UPDATE
+    SET total_amount = r.total_amount + EXCLUDED.total_amount,
+        expense_count = r.expense_count + EXCLUDED.expense_count;
+
+    IF p_count < 0 THEN
+        DELETE FROM expense_daily_rollup
+        WHERE user_id = p_user_id
+          AND team_id IS NOT DISTINCT FROM p_team_id
+          AND category_id = p_category_id
+          AND date IS NOT DISTINCT FROM p_date
+          AND expense_count <= 0;
+    END IF;
+END
+$$ LANGUAGE plpgsql;
+
+-- Every write to expenses (application paths, FK cascades, manual fixes) goes through here,
+-- in the same transaction as the write itself
+CREATE OR REPLACE FUNCTION expenses_daily_rollup_update()
+RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM expense_daily_rollup_apply(OLD.user_id, OLD.team_id, OLD.category_id, OLD.date, -OLD.amount, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM expense_daily_rollup_apply(NEW.user_id, NEW.team_id, NEW.category_id, NEW.date, NEW.amount, 1);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_expenses_daily_rollup_insert_delete ON expenses;
+CREATE TRIGGER trg_expenses_daily_rollup_insert_delete
+AFTER INSERT OR DELETE ON expenses
+FOR EACH ROW EXECUTE FUNCTION expenses_daily_rollup_update();
+
+DROP TRIGGER IF EXISTS trg_expenses_daily_rollup_update ON expenses;
+CREATE TRIGGER trg_expenses_daily_rollup_update
+AFTER UPDATE OF user_id, team_id, category_id, date, amount ON expenses
+FOR EACH ROW
+WHEN ((OLD.user_id, OLD.team_id, OLD.category_id, OLD.date, OLD.amount)
+      IS DISTINCT FROM (NEW.user_id, NEW.team_id, NEW.category_id, NEW.date, NEW.amount))
+EXECUTE FUNCTION expenses_daily_rollup_update();
+
+-- Backfill
+INSERT INTO expense_daily_rollup (user_id, team_id, category_id, date, total_amount, expense_count)
+SELECT user_id, team_id, category_id, date, COALESCE(SUM(amount), 0), COUNT(*)
+FROM expenses
+GROUP BY user_id, team_id, category_id, date
+ON CONFLICT (user_id, team_id, category_id, date) DO NOTHING;
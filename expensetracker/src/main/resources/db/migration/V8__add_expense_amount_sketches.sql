@@ -0,0 +1,72 @@
+-- Mergeable quantile sketches (t-digest) of expense amounts for the distribution endpoints.
+-- One row per (user, team, category, month); a date range is answered by merging the rows of the
+-- months it covers, so percentile queries read a bounded number of rows however many expenses exist.
+
+CREATE TABLE IF NOT EXISTS expense_amount_sketches (
+    user_id BIGINT NOT NULL,
+    team_id BIGINT,
+    category_id BIGINT NOT NULL,
+    month DATE,
+    expense_count BIGINT NOT NULL,
+    total_amount DECIMAL(19, 2) NOT NULL,
+    digest BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_expense_amount_sketches UNIQUE NULLS NOT DISTINCT (user_id, team_id, category_id, month)
+);
+
+CREATE INDEX IF NOT EXISTS idx_expense_amount_sketches_user_month
+ON expense_amount_sketches (user_id, month);
+
+CREATE INDEX IF NOT EXISTS idx_expense_amount_sketches_team_month
+ON expense_amount_sketches (team_id, month)
+WHERE team_id IS NOT NULL;
+
+-- Cells whose sketch no longer matches expenses. Digests cannot be updated in SQL, so the
+-- trigger only records which cells changed and the application rebuilds them.
+-- Marking an already-dirty cell updates its row rather than skipping it: the row lock makes the
+-- rebuild (which claims rows with SKIP LOCKED) wait for that write to commit or leave the row for
+-- the next pass, so a write can never land between a rebuild's read and the row being cleared.
+CREATE TABLE IF NOT EXISTS expense_amount_sketch_dirty (
+    user_id BIGINT NOT NULL,
+    team_id BIGINT,
+    category_id BIGINT NOT NULL,
+    month DATE,
+    marked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_expense_amount_sketch_dirty UNIQUE NULLS NOT DISTINCT (user_id, team_id, category_id, month)
+);
+
+CREATE OR REPLACE FUNCTION expenses_mark_sketch_dirty()
+RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO expense_amount_sketch_dirty (user_id, team_id, category_id, month)
+        VALUES (OLD.user_id, OLD.team_id, OLD.category_id, CAST(date_trunc('month', CAST(OLD.date AS TIMESTAMP)) AS DATE))
+        ON CONFLICT ON CONSTRAINT uq_expense_amount_sketch_dirty DO UPDATE SET marked_at = CURRENT_TIMESTAMP;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO expense_amount_sketch_dirty (user_id, team_id, category_id, month)
+        VALUES (NEW.user_id, NEW.team_id, NEW.category_id, CAST(date_trunc('month', CAST(NEW.date AS TIMESTAMP)) AS DATE))
+        ON CONFLICT ON CONSTRAINT uq_expense_amount_sketch_dirty DO UPDATE SET marked_at = CURRENT_TIMESTAMP;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_expenses_sketch_dirty_insert_delete ON expenses;
+CREATE TRIGGER trg_expenses_sketch_dirty_insert_delete
+AFTER INSERT OR DELETE ON expenses
+FOR EACH ROW EXECUTE FUNCTION expenses_mark_sketch_dirty();
+
+DROP TRIGGER IF EXISTS trg_expenses_sketch_dirty_update ON expenses;
+CREATE TRIGGER trg_expenses_sketch_dirty_update
+AFTER UPDATE OF user_id, team_id, category_id, date, amount ON expenses
+FOR EACH ROW
+WHEN ((OLD.user_id, OLD.team_id, OLD.category_id, OLD.date, OLD.amount)
+      IS DISTINCT FROM (NEW.user_id, NEW.team_id, NEW.category_id, NEW.date, NEW.amount))
+EXECUTE FUNCTION expenses_mark_sketch_dirty();
+
+-- Backfill: every existing cell starts dirty and is built by the application on startup
+INSERT INTO expense_amount_sketch_dirty (user_id, team_id, category_id, month)
+SELECT DISTINCT user_id, team_id, category_id, CAST(date_trunc('month', CAST(date AS TIMESTAMP)) AS DATE)
+FROM expenses
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,24 @@
+-- Progress of the monthly statement runs.
+-- A run splits users into id ranges aligned to the partition size, so every node planning the same
+-- month inserts the same rows and ON CONFLICT keeps one of each. Workers on any node claim pending
+-- ranges with SKIP LOCKED and record the last user they finished, which is where a range resumes
+-- after a crash once its claim has expired.
+
+CREATE TABLE IF NOT EXISTS statement_partitions (
+    period DATE NOT NULL,
+    first_user_id BIGINT NOT NULL,
+    last_user_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    resume_after_user_id BIGINT,
+    statements INT NOT NULL DEFAULT 0,
+    attempts INT NOT NULL DEFAULT 0,
+    claimed_by VARCHAR(255),
+    claimed_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    last_error TEXT,
+    CONSTRAINT pk_statement_partitions PRIMARY KEY (period, first_user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_statement_partitions_unfinished
+ON statement_partitions (period, first_user_id)
+WHERE status <> 'DONE';
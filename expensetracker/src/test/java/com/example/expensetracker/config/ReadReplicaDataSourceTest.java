@@ -0,0 +1,169 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.security.SecurityUser;
+import com.example.expensetracker.testutil.factory.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReadReplicaDataSource Unit Tests")
+class ReadReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+
+    @BeforeEach
+    void setUp() {
+        SecurityUser user = new SecurityUser(TestDataFactory.createUser(1L));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should serve reads from the replica until the user commits a write")
+    void shouldPinUserAfterWrite() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(60_000);
+        ReadReplicaDataSource reads = new ReadReplicaDataSource(primary, replica, guard, 10_000, new SimpleMeterRegistry());
+
+        assertThat(reads.getConnection()).isSameAs(replicaConnection);
+
+        // A read-write transaction pins only once it commits
+        TransactionSynchronizationManager.initSynchronization();
+        guard.recordingWrites(primary).getConnection();
+        assertThat(guard.isPinned(1L)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(guard.isPinned(1L)).isTrue();
+        assertThat(reads.getConnection()).isSameAs(primaryConnection);
+        verify(primaryConnection).setReadOnly(true);
+
+        SecurityUser other = new SecurityUser(TestDataFactory.createUser(2L));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(other, null, other.getAuthorities()));
+        assertThat(reads.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should not pin for read-only transactions or once the window has passed")
+    void shouldNotPinReadsOrExpiredWrites() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        guard.recordingWrites(primary).getConnection();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+
+        guard.recordWrite(1L);
+        assertThat(guard.isPinned(1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary when the read requires it")
+    void shouldReadFromPrimaryWhenRequired() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadReplicaDataSource reads = new ReadReplicaDataSource(
+                primary, replica, new ReadYourWritesGuard(0), 10_000, new SimpleMeterRegistry());
+
+        assertThat(PrimaryReads.call(() -> connection(reads))).isSameAs(primaryConnection);
+        verify(primaryConnection).setReadOnly(true);
+        assertThat(reads.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should route by the read-only flag of the current transaction")
+    void shouldRouteByTransactionReadOnlyFlag() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica);
+
+        // No transaction, e.g. Flyway or a non-transactional repository call
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(routing.getConnection()).isSameAs(primaryConnection);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertThat(routing.getConnection()).isSameAs(replicaConnection);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica is unavailable")
+    void shouldFallBackWhenReplicaUnavailable() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica - Connection is not available"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadReplicaDataSource reads = new ReadReplicaDataSource(
+                primary, replica, new ReadYourWritesGuard(0), 60_000, new SimpleMeterRegistry());
+
+        assertThat(reads.getConnection()).isSameAs(primaryConnection);
+        assertThat(reads.getConnection()).isSameAs(primaryConnection);
+
+        // The second read skips the replica instead of waiting for another timeout
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should go back to the replica once it recovers")
+    void shouldRetryReplicaAfterBackoff() throws SQLException {
+        when(replica.getConnection())
+                .thenThrow(new SQLTransientConnectionException("replica - Connection is not available"))
+                .thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadReplicaDataSource reads = new ReadReplicaDataSource(
+                primary, replica, new ReadYourWritesGuard(0), 0, new SimpleMeterRegistry());
+
+        assertThat(reads.getConnection()).isSameAs(primaryConnection);
+        assertThat(reads.getConnection()).isSameAs(replicaConnection);
+    }
+
+    private static Connection connection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
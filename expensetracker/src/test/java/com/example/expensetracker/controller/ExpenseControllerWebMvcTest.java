@@ -8,12 +8,17 @@ import com.example.expensetracker.security.SecurityUser;
 import com.example.expensetracker.service.UserService;
 import com.example.expensetracker.dto.CreateExpenseRequest;
 import com.example.expensetracker.dto.ExpenseResponse;
+import com.example.expensetracker.dto.SuggestionDto;
 import com.example.expensetracker.dto.UpdateExpenseRequest;
+import com.example.expensetracker.enums.SuggestionType;
 import com.example.expensetracker.exception.CategoryNotFoundException;
 import com.example.expensetracker.exception.NotFoundException;
 import com.example.expensetracker.exception.ValidationException;
 import com.example.expensetracker.security.JwtAuthenticationFilter;
 import com.example.expensetracker.service.ExpenseService;
+import com.example.expensetracker.service.ExpenseSuggestionService;
+import com.example.expensetracker.service.ReportJobService;
+import com.example.expensetracker.exporters.ExportCompression;
 import com.example.expensetracker.service.ExportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -28,6 +33,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
@@ -53,6 +59,15 @@ class ExpenseControllerWebMvcTest {
     @MockitoBean
     private ExportService exportService;
 
+    @MockitoBean
+    private ExportCompression exportCompression;
+
+    @MockitoBean
+    private ExpenseSuggestionService suggestionService;
+
+    @MockitoBean
+    private ReportJobService reportJobService;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -223,5 +238,26 @@ class ExpenseControllerWebMvcTest {
 
         verify(expenseService).delete(1L);
     }
-}
 
+    @Test
+    @DisplayName("Should return suggestions for prefix")
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void shouldReturnSuggestionsForPrefix() throws Exception {
+        // Given
+        setupJwtMocks("test@example.com");
+        when(suggestionService.suggest("fo", null)).thenReturn(List.of(
+                SuggestionDto.builder().text("Food").type(SuggestionType.CATEGORY).count(3).build(),
+                SuggestionDto.builder().text("Football tickets").type(SuggestionType.DESCRIPTION).count(1).build()
+        ));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/expenses/suggest")
+                        .param("prefix", "fo")
+                        .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[0].text").value("Food"))
+                .andExpect(jsonPath("$.data[0].type").value("CATEGORY"))
+                .andExpect(jsonPath("$.data[1].count").value(1));
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.expensetracker.controller;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.config.SecurityConfig;
+import com.example.expensetracker.config.TestSecurityConfig;
+import com.example.expensetracker.controller.v1.ExpenseFilterController;
+import com.example.expensetracker.dto.ExpenseFilterItemDto;
+import com.example.expensetracker.security.JwtService;
+import com.example.expensetracker.security.SecurityUser;
+import com.example.expensetracker.service.DashboardService;
+import com.example.expensetracker.service.ExpenseDistributionService;
+import com.example.expensetracker.service.ExpenseFilterService;
+import com.example.expensetracker.service.ExpenseSearchService;
+import com.example.expensetracker.service.ExpenseStatsCache;
+import com.example.expensetracker.service.ExpenseStatsEngine;
+import com.example.expensetracker.service.UserService;
+import com.example.expensetracker.util.TeamAcl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The NDJSON stream runs the real {@link ExpenseFilterService} over canned rows. A test filter sits
+ * between the controller and the response: it records what had been written at each flush, and can
+ * fail writes the way a dropped connection does.
+ */
+@WebMvcTest(ExpenseFilterController.class)
+@Import({SecurityConfig.class, TestSecurityConfig.class, ExpenseFilterControllerWebMvcTest.StreamConfig.class})
+@DisplayName("ExpenseFilterController WebMvc Tests")
+class ExpenseFilterControllerWebMvcTest {
+
+    private static final String STREAM_URL = "/api/v1/expenses/filter-service/stream";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int FLUSH_INTERVAL = 2;
+    private static final String FLUSHED_LINES = "test.flushedLines";
+    private static final String DISCONNECT_AFTER_FLUSHES = "X-Test-Disconnect-After-Flushes";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private ExpenseFilterService filterService;
+
+    @MockitoBean
+    private ExpenseSearchService searchService;
+
+    @MockitoBean
+    private ExpenseDistributionService distributionService;
+
+    @MockitoBean
+    private DashboardService dashboardService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @TestConfiguration
+    static class StreamConfig {
+
+        @Bean
+        ExpenseFilterService expenseFilterService(ObjectMapper objectMapper) {
+            AppProperties properties = new AppProperties();
+            properties.getStreaming().setFlushInterval(FLUSH_INTERVAL);
+            return new ExpenseFilterService(mock(EntityManager.class), mock(TeamAcl.class), objectMapper,
+                    properties, mock(ExpenseStatsCache.class), mock(ExpenseStatsEngine.class));
+        }
+
+        @Bean
+        OncePerRequestFilter recordingResponseFilter() {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain chain) throws ServletException, IOException {
+                    String disconnectAfter = request.getHeader(DISCONNECT_AFTER_FLUSHES);
+                    RecordingOutputStream out = new RecordingOutputStream(response.getOutputStream(),
+                            disconnectAfter != null ? Integer.parseInt(disconnectAfter) : Integer.MAX_VALUE);
+                    request.setAttribute(FLUSHED_LINES, out.flushedLines);
+                    chain.doFilter(request, new HttpServletResponseWrapper(response) {
+                        @Override
+                        public ServletOutputStream getOutputStream() {
+                            return out;
+                        }
+                    });
+                }
+            };
+        }
+    }
+
+    private static final class RecordingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream target;
+        private final int disconnectAfterFlushes;
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private final List<Long> flushedLines = new ArrayList<>();
+
+        private RecordingOutputStream(ServletOutputStream target, int disconnectAfterFlushes) {
+            this.target = target;
+            this.disconnectAfterFlushes = disconnectAfterFlushes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (flushedLines.size() >= disconnectAfterFlushes) {
+                throw new IOException("Broken pipe");
+            }
+            written.write(b);
+            target.write(b);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushedLines.add(written.toString(StandardCharsets.UTF_8).lines().count());
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (flushedLines.size() >= disconnectAfterFlushes) {
+                throw new IOException("Broken pipe");
+            }
+            target.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private void setupJwtMocks(String email) {
+        when(jwtService.isTokenValid(anyString(), eq(true))).thenReturn(true);
+        when(jwtService.extractEmail(anyString(), eq(true))).thenReturn(email);
+
+        SecurityUser securityUser = new SecurityUser(
+                com.example.expensetracker.entity.UserEntity.builder()
+                        .id(1L)
+                        .email(email)
+                        .username("testuser")
+                        .role("ROLE_USER")
+                        .active(true)
+                        .build()
+        );
+        when(userService.loadUserByUsername(email)).thenReturn(securityUser);
+    }
+
+    @Test
+    @DisplayName("Should return 400 with an error body when the filter is invalid, before streaming anything")
+    void shouldReturn400BeforeFirstByte() throws Exception {
+        setupJwtMocks("test@example.com");
+
+        mockMvc.perform(get(STREAM_URL)
+                        .header("Authorization", "Bearer test-token")
+                        .accept(NDJSON)
+                        .param("fromDate", "2025-02-01")
+                        .param("toDate", "2025-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("Content-Type", not(startsWith(NDJSON.toString()))))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("fromDate cannot be after toDate"));
+
+        mockMvc.perform(get(STREAM_URL)
+                        .header("Authorization", "Bearer test-token")
+                        .accept(NDJSON)
+                        .param("dateRanges", "2025-02-01..2025-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+
+        verify(filterService, never()).openItemStream(any());
+    }
+
+    @Test
+    @DisplayName("Should stream one JSON line per expense, flushing every flush interval")
+    void shouldStreamAndFlushPeriodically() throws Exception {
+        setupJwtMocks("test@example.com");
+        doReturn(items(5, new AtomicInteger(), new AtomicBoolean())).when(filterService).openItemStream(any());
+
+        MvcResult result = mockMvc.perform(get(STREAM_URL)
+                        .header("Authorization", "Bearer test-token")
+                        .accept(NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NDJSON))
+                .andReturn();
+
+        List<String> lines = result.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).startsWith("{\"id\":1,").contains("\"date\":\"2025-01-01\"");
+        // Every FLUSH_INTERVAL rows, then the remainder at the end
+        assertThat(result.getRequest().getAttribute(FLUSHED_LINES)).isEqualTo(List.of(2L, 4L, 5L));
+    }
+
+    @Test
+    @DisplayName("Should stop reading and release the rows when the client disconnects")
+    void shouldStopWhenClientDisconnects() throws Exception {
+        setupJwtMocks("test@example.com");
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        doReturn(items(10_000, pulled, closed)).when(filterService).openItemStream(any());
+
+        MvcResult result = mockMvc.perform(get(STREAM_URL)
+                        .header("Authorization", "Bearer test-token")
+                        .header(DISCONNECT_AFTER_FLUSHES, "1")
+                        .accept(NDJSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // The second flush is the first write to fail
+        assertThat(pulled).hasValue(2 * FLUSH_INTERVAL);
+        assertThat(closed).isTrue();
+        assertThat(result.getResolvedException()).isNull();
+        assertThat(result.getResponse().getContentAsString().lines()).hasSize(FLUSH_INTERVAL);
+    }
+
+    private static Stream<ExpenseFilterItemDto> items(int count, AtomicInteger pulled, AtomicBoolean closed) {
+        return Stream.iterate(1L, id -> id + 1)
+                .limit(count)
+                .map(id -> ExpenseFilterItemDto.builder()
+                        .id(id)
+                        .categoryId(5L)
+                        .categoryName("Food")
+                        .description("Lunch " + id)
+                        .amount(new BigDecimal("12.50"))
+                        .date(LocalDate.of(2025, 1, 1))
+                        .hasReceipt(false)
+                        .createdAt(Instant.parse("2025-01-01T12:00:00Z"))
+                        .build())
+                .peek(item -> pulled.incrementAndGet())
+                .onClose(() -> closed.set(true));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.expensetracker.enums;
+
+import com.example.expensetracker.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TimeGranularity Unit Tests")
+class TimeGranularityTest {
+
+    @Test
+    @DisplayName("Should truncate to bucket starts like date_trunc")
+    void shouldTruncateLikeDateTrunc() {
+        LocalDate date = LocalDate.of(2025, 8, 14); // Thursday
+
+        assertThat(TimeGranularity.DAY.truncate(date)).isEqualTo(date);
+        assertThat(TimeGranularity.WEEK.truncate(date)).isEqualTo(LocalDate.of(2025, 8, 11));
+        assertThat(TimeGranularity.MONTH.truncate(date)).isEqualTo(LocalDate.of(2025, 8, 1));
+        assertThat(TimeGranularity.QUARTER.truncate(date)).isEqualTo(LocalDate.of(2025, 7, 1));
+        assertThat(TimeGranularity.YEAR.truncate(date)).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(TimeGranularity.QUARTER.next(LocalDate.of(2025, 10, 1))).isEqualTo(LocalDate.of(2026, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should parse request values case-insensitively")
+    void shouldParseRequestValue() {
+        assertThat(TimeGranularity.from(" Month ")).isEqualTo(TimeGranularity.MONTH);
+        assertThat(TimeGranularity.from(null)).isNull();
+        assertThat(TimeGranularity.from("")).isNull();
+        assertThatThrownBy(() -> TimeGranularity.from("fortnight")).isInstanceOf(ValidationException.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.expensetracker.exporter;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exporters.CsvExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * CSV export throughput of {@link CsvExporter} against the string-joining formatter it replaced, writing
+ * UTF-8 to a discarding stream the way the export endpoints write to the response. Not a test; run it
+ * by hand, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     org.openjdk.jmh.Main CsvExporterBenchmark -prof gc
+ * </pre>
+ * {@code -prof gc} adds the bytes allocated per export ({@code gc.alloc.rate.norm}), which is where the
+ * two differ most. {@code -p rows=1000 -p descriptionLength=16} runs a single combination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvExporterBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    @Param({"16", "256"})
+    private int descriptionLength;
+
+    private List<ExpenseExportRow> expenses;
+    private CsvExporter exporter;
+
+    @Setup
+    public void setUp() {
+        String filler = "Lorem ipsum dolor sit amet ".repeat(descriptionLength / 27 + 1);
+        expenses = LongStream.rangeClosed(1, rows).mapToObj(id -> new ExpenseExportRow(
+                id,
+                LocalDate.of(2025, 1, 1).plusDays(id % 365),
+                id % 5 == 0 ? "Bills, Utilities" : "Food & Dining",
+                BigDecimal.valueOf(id % 50_000, 2),
+                // Every fourth description needs quoting, every eighth has quotes to double
+                describe(id, filler))).toList();
+        exporter = new CsvExporter(new AppProperties());
+    }
+
+    @Benchmark
+    public long lineBuffer() throws IOException {
+        try (Writer writer = sink()) {
+            return exporter.exportExpenses(writer, expenses.stream());
+        }
+    }
+
+    @Benchmark
+    public long stringJoin() throws IOException {
+        try (Writer writer = sink()) {
+            return LegacyCsvFormatter.export(writer, expenses);
+        }
+    }
+
+    private String describe(long id, String filler) {
+        String text = filler.substring(0, descriptionLength);
+        if (id % 8 == 0) {
+            return "\"" + text.substring(2) + "\"";
+        }
+        return id % 4 == 0 ? text.substring(1) + "," : text;
+    }
+
+    private static Writer sink() {
+        return new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The formatter as it was before the line buffer, kept here as the baseline: a string array per
+     * row joined into a line, and up to four passes over each escaped field.
+     */
+    private static final class LegacyCsvFormatter {
+        private static final int FLUSH_INTERVAL = new AppProperties().getStreaming().getFlushInterval();
+
+        static long export(Writer writer, List<ExpenseExportRow> expenses) throws IOException {
+            long written = 0;
+            writer.write("ID,Date,Category,Amount,Description\n");
+            for (ExpenseExportRow expense : expenses) {
+                writer.write(formatExpenseAsCsvLine(expense));
+                written++;
+                if (written % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            return written;
+        }
+
+        private static String formatExpenseAsCsvLine(ExpenseExportRow expense) {
+            String[] data = {
+                    expense.id().toString(),
+                    expense.date() != null ? expense.date().toString() : "",
+                    escapeCsvField(expense.categoryName()),
+                    expense.amount().toPlainString(),
+                    escapeCsvField(expense.description())
+            };
+            return String.join(",", data) + "\n";
+        }
+
+        private static String escapeCsvField(String field) {
+            if (field == null) {
+                return "";
+            }
+            String escapedField = field.replace("\"", "\"\"");
+            if (escapedField.contains(",") || escapedField.contains("\"") || escapedField.contains("\n")) {
+                return "\"" + escapedField + "\"";
+            }
+            return escapedField;
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package com.example.expensetracker.exporter;
 
-import com.example.expensetracker.entity.CategoryEntity;
-import com.example.expensetracker.entity.ExpenseEntity;
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
 import com.example.expensetracker.exporters.CsvExporter;
 import org.junit.jupiter.api.Test;
 
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -17,10 +19,10 @@ class CsvExporterTest {
 
     @Test
     void export_WithEmptyList_ShouldReturnOnlyHeader() {
-        CsvExporter exporter = new CsvExporter();
+        CsvExporter exporter = new CsvExporter(new AppProperties());
         StringWriter writer = new StringWriter();
 
-        exporter.exportExpenses(writer, Collections.emptyList());
+        exporter.exportExpenses(writer, Stream.empty());
 
         String expectedCsv = "ID,Date,Category,Amount,Description\n";
         assertEquals(expectedCsv, writer.toString());
@@ -28,21 +30,13 @@ class CsvExporterTest {
 
     @Test
     void export_WithOneExpense_ShouldReturnHeaderAndDataRow() {
-        CsvExporter exporter = new CsvExporter();
+        CsvExporter exporter = new CsvExporter(new AppProperties());
         StringWriter writer = new StringWriter();
 
-        CategoryEntity category = new CategoryEntity();
-        category.setName("Food");
+        ExpenseExportRow expense = new ExpenseExportRow(
+                1L, LocalDate.of(2025, 10, 23), "Food", new BigDecimal("12.99"), "Lunch");
 
-        ExpenseEntity expense = ExpenseEntity.builder()
-                .id(1L)
-                .date(LocalDate.of(2025, 10, 23))
-                .category(category)
-                .amount(new BigDecimal("12.99"))
-                .description("Lunch")
-                .build();
-
-        exporter.exportExpenses(writer, List.of(expense));
+        exporter.exportExpenses(writer, Stream.of(expense));
 
         String expectedCsv = """
                 ID,Date,Category,Amount,Description
@@ -53,21 +47,13 @@ class CsvExporterTest {
 
     @Test
     void export_WithCommaInDescription_ShouldQuoteField() {
-        CsvExporter exporter = new CsvExporter();
+        CsvExporter exporter = new CsvExporter(new AppProperties());
         StringWriter writer = new StringWriter();
 
-        CategoryEntity category = new CategoryEntity();
-        category.setName("Groceries");
-
-        ExpenseEntity expense = ExpenseEntity.builder()
-                .id(2L)
-                .date(LocalDate.of(2025, 10, 24))
-                .category(category)
-                .amount(new BigDecimal("50.00"))
-                .description("Milk, eggs, bread")
-                .build();
+        ExpenseExportRow expense = new ExpenseExportRow(
+                2L, LocalDate.of(2025, 10, 24), "Groceries", new BigDecimal("50.00"), "Milk, eggs, bread");
 
-        exporter.exportExpenses(writer, List.of(expense));
+        exporter.exportExpenses(writer, Stream.of(expense));
 
         String expectedCsv = """
                 ID,Date,Category,Amount,Description
@@ -75,4 +61,79 @@ class CsvExporterTest {
                 """;
         assertEquals(expectedCsv, writer.toString());
     }
+
+    @Test
+    void export_WithFilter_ShouldEchoItAboveHeader() {
+        CsvExporter exporter = new CsvExporter(new AppProperties());
+        StringWriter writer = new StringWriter();
+
+        ExpenseExportRow expense = new ExpenseExportRow(
+                1L, LocalDate.of(2025, 10, 23), "Food", new BigDecimal("12.99"), "Lunch");
+
+        exporter.exportExpenses(writer, Stream.of(expense), "fromDate=2025-10-01, toDate=2025-10-31");
+
+        String expectedCsv = """
+                # Filter: fromDate=2025-10-01, toDate=2025-10-31
+                ID,Date,Category,Amount,Description
+                1,2025-10-23,Food,12.99,Lunch
+                """;
+        assertEquals(expectedCsv, writer.toString());
+    }
+
+    @Test
+    void export_ShouldFlushEveryFlushIntervalRows() {
+        AppProperties properties = new AppProperties();
+        properties.getStreaming().setFlushInterval(2);
+        CsvExporter exporter = new CsvExporter(properties);
+        AtomicInteger flushes = new AtomicInteger();
+        StringWriter writer = new StringWriter() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        long written = exporter.exportExpenses(writer, LongStream.rangeClosed(1, 5)
+                .mapToObj(id -> new ExpenseExportRow(id, null, "Food", BigDecimal.ONE, null)));
+
+        assertEquals(5, written);
+        assertEquals(3, flushes.get());
+        assertEquals(6, writer.toString().lines().count());
+    }
+
+    @Test
+    void export_ShouldEscapeAndFormatEdgeCasesLikePlainStringFormatting() {
+        CsvExporter exporter = new CsvExporter(new AppProperties());
+        StringWriter writer = new StringWriter();
+        String longDescription = "x,\"y\"".repeat(5_000);
+        List<ExpenseExportRow> rows = List.of(
+                new ExpenseExportRow(0L, LocalDate.of(1, 1, 1), "A\"B", new BigDecimal("-0.50"), "\"quoted\""),
+                new ExpenseExportRow(Long.MAX_VALUE, LocalDate.of(12_345, 6, 7), "Food", new BigDecimal("1E+3"), "a\r\nb"),
+                new ExpenseExportRow(42L, LocalDate.of(-5, 12, 31), "", new BigDecimal("0.000"), "tail,"),
+                new ExpenseExportRow(7L, LocalDate.of(2025, 10, 9), "Travel", new BigDecimal("12"), longDescription));
+
+        // Enough rows to pass through the exporter's internal buffer several times
+        List<ExpenseExportRow> many = LongStream.rangeClosed(1, 2_000)
+                .mapToObj(id -> new ExpenseExportRow(id, LocalDate.of(2025, 1, 1).plusDays(id),
+                        id % 3 == 0 ? "Bills, Utilities" : "Food", BigDecimal.valueOf(id, 2), "Row " + id))
+                .toList();
+
+        exporter.exportExpenses(writer, Stream.concat(rows.stream(), many.stream()));
+
+        StringBuilder expected = new StringBuilder("ID,Date,Category,Amount,Description\n");
+        Stream.concat(rows.stream(), many.stream()).forEach(row -> expected
+                .append(row.id()).append(',')
+                .append(row.date()).append(',')
+                .append(quoted(row.categoryName())).append(',')
+                .append(row.amount().toPlainString()).append(',')
+                .append(quoted(row.description())).append('\n'));
+        assertEquals(expected.toString(), writer.toString());
+    }
+
+    private static String quoted(String field) {
+        String escaped = field.replace("\"", "\"\"");
+        return escaped.contains(",") || escaped.contains("\"") || escaped.contains("\n")
+                ? "\"" + escaped + "\""
+                : escaped;
+    }
 }
@@ -0,0 +1,128 @@
+package com.example.expensetracker.exporter;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.exporters.ExportCompression;
+import com.example.expensetracker.exporters.ExportCompression.Encoding;
+import com.github.luben.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportCompressionTest {
+
+    private static final String CSV = "ID,Date,Category,Amount,Description\n"
+            + "1,2025-10-23,Food,12.99,Lunch\n".repeat(1000);
+
+    private final AppProperties properties = new AppProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExportCompression compression = new ExportCompression(properties, meterRegistry);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "NULL", value = {
+            "NULL                       | IDENTITY",
+            "identity                   | IDENTITY",
+            "gzip, deflate, br          | GZIP",
+            "gzip, deflate, br, zstd    | ZSTD",
+            "zstd;q=0.5, gzip           | GZIP",
+            "zstd;q=0, gzip;q=0.1       | GZIP",
+            "gzip;q=0, *                | ZSTD",
+            "gzip;q=0, zstd;q=0         | IDENTITY",
+            "*;q=0.8                    | ZSTD",
+    })
+    void negotiate_ShouldHonourQualityValues(String acceptEncoding, Encoding expected) {
+        assertThat(compression.negotiate(acceptEncoding)).isEqualTo(expected);
+    }
+
+    @Test
+    void negotiate_WhenDisabled_ShouldNotCompress() {
+        properties.getExportCompression().setEnabled(false);
+
+        assertThat(compression.negotiate("gzip, zstd")).isEqualTo(Encoding.IDENTITY);
+    }
+
+    @Test
+    void open_WithGzip_ShouldCompressAndRecordSizes() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (OutputStream out = compression.open(response, "gzip", "csv")) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] body = response.getContentAsByteArray();
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(body)))).isEqualTo(CSV);
+        assertThat(recorded("gzip", "uncompressed")).isEqualTo(CSV.length());
+        assertThat(recorded("gzip", "compressed")).isEqualTo(body.length);
+        assertThat(body.length).isLessThan(CSV.length() / 10);
+    }
+
+    @Test
+    void open_WithZstd_ShouldCompress() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (OutputStream out = compression.open(response, "gzip, zstd", "csv")) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] body = response.getContentAsByteArray();
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("zstd");
+        assertThat(decode(new ZstdInputStream(new ByteArrayInputStream(body)))).isEqualTo(CSV);
+        assertThat(recorded("zstd", "compressed")).isEqualTo(body.length);
+    }
+
+    @Test
+    void open_WithGzip_ShouldSendRowsOnFlush() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (OutputStream out = compression.open(response, "gzip", "csv")) {
+            out.write("1,2025-10-23,Food,12.99,Lunch\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            // Readable up to the flush, before the stream has been finished
+            byte[] sofar = response.getContentAsByteArray();
+            InputStream in = new GZIPInputStream(new ByteArrayInputStream(sofar));
+            byte[] row = in.readNBytes(30);
+            assertThat(new String(row, StandardCharsets.UTF_8)).isEqualTo("1,2025-10-23,Food,12.99,Lunch\n");
+        }
+    }
+
+    @Test
+    void open_WithoutAcceptEncoding_ShouldSendAsIs() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (OutputStream out = compression.open(response, null, "jsonl")) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(CSV);
+        assertThat(recorded("identity", "compressed")).isEqualTo(CSV.length());
+    }
+
+    private double recorded(String encoding, String stage) {
+        DistributionSummary summary = meterRegistry.get("export.bytes")
+                .tag("encoding", encoding)
+                .tag("stage", stage)
+                .summary();
+        return summary.totalAmount();
+    }
+
+    private static String decode(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
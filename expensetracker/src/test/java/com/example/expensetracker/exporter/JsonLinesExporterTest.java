@@ -0,0 +1,52 @@
+package com.example.expensetracker.exporter;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exporters.JsonLinesExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonLinesExporterTest {
+
+    @Test
+    void export_ShouldWriteOneObjectPerLine() {
+        JsonLinesExporter exporter = new JsonLinesExporter(new ObjectMapper(), new AppProperties());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exporter.exportExpenses(out, Stream.of(
+                new ExpenseExportRow(1L, LocalDate.of(2025, 10, 23), "Food", new BigDecimal("12.90"), "Lunch, \"to go\""),
+                new ExpenseExportRow(2L, null, "Travel", new BigDecimal("100"), null)));
+
+        String expected = """
+                {"id":1,"date":"2025-10-23","category":"Food","amount":12.90,"description":"Lunch, \\"to go\\""}
+                {"id":2,"date":null,"category":"Travel","amount":100,"description":null}
+                """;
+        assertEquals(2, written);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_WithFilter_ShouldStartWithFilterLine() {
+        JsonLinesExporter exporter = new JsonLinesExporter(new ObjectMapper(), new AppProperties());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exporter.exportExpenses(out, Stream.of(
+                new ExpenseExportRow(1L, LocalDate.of(2025, 10, 23), "Food", new BigDecimal("12.90"), "Lunch")),
+                "search=lunch");
+
+        String expected = """
+                {"filter":"search=lunch"}
+                {"id":1,"date":"2025-10-23","category":"Food","amount":12.90,"description":"Lunch"}
+                """;
+        assertEquals(1, written);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+}
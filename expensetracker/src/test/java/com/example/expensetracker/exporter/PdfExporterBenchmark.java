@@ -0,0 +1,114 @@
+package com.example.expensetracker.exporter;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exporters.PdfExporter;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Heap used by PDF exports of growing size. Not a test; run it by hand with a small heap, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx96m -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.example.expensetracker.exporter.PdfExporterBenchmark 1000 10000 100000 1000000
+ * </pre>
+ * For each size it prints the largest heap still live right after a garbage collection while the
+ * export ran, which should stay the same from the smallest export to the largest. Add
+ * {@code -Dparallelism=1} to compare against rendering on a single thread, and {@code -DchunkRows=N}
+ * to change the size of parallel chunks.
+ */
+public final class PdfExporterBenchmark {
+
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    private PdfExporterBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long[] sizes = args.length > 0
+                ? Stream.of(args).mapToLong(Long::parseLong).toArray()
+                : new long[] {1_000, 10_000, 100_000, 1_000_000};
+        boolean pageTotals = Boolean.parseBoolean(System.getProperty("totals", "true"));
+        AppProperties properties = new AppProperties();
+        properties.getPdfExport().setParallelism(
+                Integer.getInteger("parallelism", properties.getPdfExport().getParallelism()));
+        properties.getPdfExport().setChunkRows(
+                Integer.getInteger("chunkRows", properties.getPdfExport().getChunkRows()));
+        PdfExporter exporter = new PdfExporter(properties);
+
+        // Warm-up, so class loading and JIT are not counted against the first size
+        exporter.exportExpenses(OutputStream.nullOutputStream(), rows(1_000), pageTotals);
+
+        System.out.printf("%10s %10s %14s %16s%n", "rows", "seconds", "pdf bytes", "live heap (MB)");
+        for (long size : sizes) {
+            System.gc();
+            AtomicLong liveHeap = new AtomicLong();
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    liveHeap.accumulateAndGet(liveHeapAfterGc(), Math::max);
+                    try {
+                        Thread.sleep(SAMPLE_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.setDaemon(true);
+            sampler.start();
+
+            CountingOutputStream out = new CountingOutputStream();
+            long started = System.nanoTime();
+            exporter.exportExpenses(out, rows(size), pageTotals);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            sampler.interrupt();
+            sampler.join();
+            System.out.printf("%10d %10.2f %14d %16.1f%n", size, seconds, out.count, liveHeap.get() / 1048576.0);
+        }
+        exporter.shutdown();
+    }
+
+    private static Stream<ExpenseExportRow> rows(long count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> new ExpenseExportRow(
+                id,
+                LocalDate.of(2025, 1, 1).plusDays(id % 365),
+                "Food & Dining",
+                BigDecimal.valueOf(id % 50_000, 2),
+                "Benchmark expense " + id));
+    }
+
+    private static long liveHeapAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
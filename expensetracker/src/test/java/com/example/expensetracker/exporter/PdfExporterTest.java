@@ -1,36 +1,34 @@
 package com.example.expensetracker.exporter;
 
-import com.example.expensetracker.entity.CategoryEntity;
-import com.example.expensetracker.entity.ExpenseEntity;
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
 import com.example.expensetracker.exporters.PdfExporter;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Collections;
-import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 class PdfExporterTest {
 
     private PdfExporter pdfExporter;
 
     @BeforeEach
     void setUp() {
-        pdfExporter = new PdfExporter();
+        pdfExporter = new PdfExporter(new AppProperties());
     }
 
     private String extractTextFromPdf(byte[] pdfBytes) throws IOException {
@@ -45,17 +43,10 @@ class PdfExporterTest {
 
     @Test
     void testExportExpenses_HappyPath() throws IOException {
-        CategoryEntity category = mock(CategoryEntity.class);
-        when(category.getName()).thenReturn("Food");
+        ExpenseExportRow expense1 = new ExpenseExportRow(
+                1L, LocalDate.of(2025, 10, 28), "Food", new BigDecimal("150.75"), "Weekly groceries");
 
-        ExpenseEntity expense1 = mock(ExpenseEntity.class);
-        when(expense1.getId()).thenReturn(1L);
-        when(expense1.getDate()).thenReturn(LocalDate.of(2025, 10, 28));
-        when(expense1.getCategory()).thenReturn(category);
-        when(expense1.getAmount()).thenReturn(new BigDecimal("150.75"));
-        when(expense1.getDescription()).thenReturn("Weekly groceries");
-
-        List<ExpenseEntity> expenses = List.of(expense1);
+        Stream<ExpenseExportRow> expenses = Stream.of(expense1);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
         pdfExporter.exportExpenses(baos, expenses);
@@ -78,7 +69,7 @@ class PdfExporterTest {
 
     @Test
     void testExportExpenses_EmptyList() throws IOException {
-        List<ExpenseEntity> expenses = Collections.emptyList();
+        Stream<ExpenseExportRow> expenses = Stream.empty();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
         pdfExporter.exportExpenses(baos, expenses);
@@ -93,22 +84,24 @@ class PdfExporterTest {
     }
 
     @Test
-    void testExportExpenses_HandlesNullValues() {
-        ExpenseEntity allNullExpense = mock(ExpenseEntity.class);
-        when(allNullExpense.getId()).thenReturn(null);
-        when(allNullExpense.getDate()).thenReturn(null);
-        when(allNullExpense.getCategory()).thenReturn(null);
-        when(allNullExpense.getAmount()).thenReturn(null);
-        when(allNullExpense.getDescription()).thenReturn(null);
+    void testExportExpenses_WithFilter_PrintsItUnderTitle() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
-        CategoryEntity nullNameCategory = mock(CategoryEntity.class);
-        when(nullNameCategory.getName()).thenReturn(null);
+        pdfExporter.exportExpenses(baos, Stream.empty(), false, "category=Food, minAmount=10");
 
-        ExpenseEntity nullCategoryNameExpense = mock(ExpenseEntity.class);
-        when(nullCategoryNameExpense.getCategory()).thenReturn(nullNameCategory);
-        when(nullCategoryNameExpense.getAmount()).thenReturn(new BigDecimal("10")); // для ідентифікації
+        String pdfText = extractTextFromPdf(baos.toByteArray());
+        assertThat(pdfText).contains("Expenses Report");
+        assertThat(pdfText).contains("Filter: category=Food, minAmount=10");
+    }
 
-        List<ExpenseEntity> expenses = List.of(allNullExpense, nullCategoryNameExpense);
+    @Test
+    void testExportExpenses_HandlesNullValues() {
+        ExpenseExportRow allNullExpense = new ExpenseExportRow(null, null, null, null, null);
+
+        ExpenseExportRow nullCategoryNameExpense = new ExpenseExportRow(
+                null, null, null, new BigDecimal("10"), null); // для ідентифікації
+
+        Stream<ExpenseExportRow> expenses = Stream.of(allNullExpense, nullCategoryNameExpense);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
         assertDoesNotThrow(() -> pdfExporter.exportExpenses(baos, expenses));
@@ -119,4 +112,78 @@ class PdfExporterTest {
             assertThat(pdfText).contains("10"); // Від другої сутності
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExportExpenses_WithPageTotals() throws IOException {
+        // 1.00 per row, spread over several pages and several table flushes
+        Stream<ExpenseExportRow> expenses = LongStream.rangeClosed(1, 250).mapToObj(id -> new ExpenseExportRow(
+                id, LocalDate.of(2025, 10, 28), "Food", new BigDecimal("1.00"), "Row " + id));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        long written = pdfExporter.exportExpenses(baos, expenses, true);
+
+        assertThat(written).isEqualTo(250L);
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())))) {
+            int pages = pdfDoc.getNumberOfPages();
+            assertThat(pages).isGreaterThan(1);
+
+            BigDecimal subtotals = BigDecimal.ZERO;
+            for (int page = 1; page <= pages; page++) {
+                String text = PdfTextExtractor.getTextFromPage(pdfDoc.getPage(page));
+                assertThat(text).contains("Amount");
+                Matcher subtotal = Pattern.compile("Page subtotal: ([0-9.]+)").matcher(text);
+                assertThat(subtotal.find()).isTrue();
+                subtotals = subtotals.add(new BigDecimal(subtotal.group(1)));
+                assertThat(text).contains("Running total: " + subtotals.toPlainString());
+            }
+            assertThat(subtotals).isEqualByComparingTo("250.00");
+        }
+    }
+
+    @Test
+    void testExportExpenses_InParallelChunks_ReadsAsOneDocument() throws IOException {
+        AppProperties properties = new AppProperties();
+        properties.getPdfExport().setChunkRows(60);
+        PdfExporter chunkedExporter = new PdfExporter(properties);
+
+        Stream<ExpenseExportRow> expenses = LongStream.rangeClosed(1, 250).mapToObj(id -> new ExpenseExportRow(
+                id, LocalDate.of(2025, 10, 28), "Food", new BigDecimal("1.00"), "Row " + id));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        long written;
+        try {
+            written = chunkedExporter.exportExpenses(baos, expenses, true);
+        } finally {
+            chunkedExporter.shutdown();
+        }
+
+        assertThat(written).isEqualTo(250L);
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())))) {
+            int pages = pdfDoc.getNumberOfPages();
+            assertThat(pages).isGreaterThan(5);
+
+            long lastRow = 0;
+            BigDecimal subtotals = BigDecimal.ZERO;
+            for (int page = 1; page <= pages; page++) {
+                String text = PdfTextExtractor.getTextFromPage(pdfDoc.getPage(page));
+                assertThat(text.contains("Expenses Report")).isEqualTo(page == 1);
+                assertThat(text).contains("Page " + page);
+
+                Matcher subtotal = Pattern.compile("Page subtotal: ([0-9.]+)").matcher(text);
+                assertThat(subtotal.find()).isTrue();
+                subtotals = subtotals.add(new BigDecimal(subtotal.group(1)));
+                assertThat(text).contains("Running total: " + subtotals.toPlainString());
+
+                // Chunks are merged in the order of their rows
+                Matcher row = Pattern.compile("Row (\\d+)").matcher(text);
+                while (row.find()) {
+                    long id = Long.parseLong(row.group(1));
+                    assertThat(id).isEqualTo(lastRow + 1);
+                    lastRow = id;
+                }
+            }
+            assertThat(lastRow).isEqualTo(250L);
+            assertThat(subtotals).isEqualByComparingTo("250.00");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.expensetracker.exporter;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseExportRow;
+import com.example.expensetracker.exporters.XlsxExporter;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XlsxExporterTest {
+
+    @Test
+    void export_ShouldWriteTypedCellsAndTotalsRow() throws IOException {
+        XlsxExporter exporter = new XlsxExporter(new AppProperties());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exporter.exportExpenses(out, Stream.of(
+                new ExpenseExportRow(1L, LocalDate.of(2025, 10, 23), "Food", new BigDecimal("12.99"), "Lunch"),
+                new ExpenseExportRow(2L, null, "Travel", new BigDecimal("100.01"), null)));
+
+        assertThat(written).isEqualTo(2);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getRow(0).getCell(3).getStringCellValue()).isEqualTo("Amount");
+
+            Row first = sheet.getRow(1);
+            assertThat(first.getCell(0).getNumericCellValue()).isEqualTo(1.0);
+            assertThat(DateUtil.isCellDateFormatted(first.getCell(1))).isTrue();
+            assertThat(first.getCell(1).getLocalDateTimeCellValue().toLocalDate()).isEqualTo(LocalDate.of(2025, 10, 23));
+            assertThat(first.getCell(3).getCellType()).isEqualTo(CellType.NUMERIC);
+            assertThat(first.getCell(3).getNumericCellValue()).isEqualTo(12.99);
+            assertThat(first.getCell(4).getStringCellValue()).isEqualTo("Lunch");
+
+            Row totals = sheet.getRow(3);
+            assertThat(totals.getCell(2).getStringCellValue()).isEqualTo("Total");
+            assertThat(totals.getCell(3).getCellFormula()).isEqualTo("SUM('Expenses'!D2:D3)");
+            assertThat(totals.getCell(3).getNumericCellValue()).isEqualTo(113.0);
+        }
+    }
+
+    @Test
+    void export_ShouldKeepOnlyTheRowWindowInMemory() throws IOException {
+        AppProperties properties = new AppProperties();
+        properties.getStreaming().setXlsxRowWindow(10);
+        XlsxExporter exporter = new XlsxExporter(properties);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exporter.exportExpenses(out, LongStream.rangeClosed(1, 5_000)
+                .mapToObj(id -> new ExpenseExportRow(id, LocalDate.of(2025, 1, 1), "Food", BigDecimal.ONE, null)));
+
+        assertThat(written).isEqualTo(5_000);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getLastRowNum()).isEqualTo(5_001);
+            assertThat(sheet.getRow(5_000).getCell(0).getNumericCellValue()).isEqualTo(5_000.0);
+            assertThat(sheet.getRow(5_001).getCell(3).getNumericCellValue()).isEqualTo(5_000.0);
+        }
+    }
+
+    @Test
+    void export_WithFilter_ShouldEchoItAboveHeader() throws IOException {
+        XlsxExporter exporter = new XlsxExporter(new AppProperties());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.exportExpenses(out, Stream.of(
+                new ExpenseExportRow(1L, LocalDate.of(2025, 10, 23), "Food", new BigDecimal("12.99"), "Lunch")),
+                "fromDate=2025-10-01");
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("Filter: fromDate=2025-10-01");
+            assertThat(sheet.getRow(1).getCell(0).getStringCellValue()).isEqualTo("ID");
+            assertThat(sheet.getRow(2).getCell(0).getNumericCellValue()).isEqualTo(1.0);
+            assertThat(sheet.getRow(3).getCell(3).getCellFormula()).isEqualTo("SUM('Expenses'!D3:D3)");
+        }
+    }
+
+    @Test
+    void export_WithNoRows_ShouldWriteHeaderAndZeroTotal() throws IOException {
+        XlsxExporter exporter = new XlsxExporter(new AppProperties());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.exportExpenses(out, Stream.empty());
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Row totals = workbook.getSheetAt(0).getRow(1);
+            assertThat(totals.getCell(3).getCellType()).isEqualTo(CellType.NUMERIC);
+            assertThat(totals.getCell(3).getNumericCellValue()).isZero();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.expensetracker.integration;
+
+import com.example.expensetracker.entity.CategoryEntity;
+import com.example.expensetracker.entity.UserEntity;
+import com.example.expensetracker.repository.CategoryRepository;
+import com.example.expensetracker.repository.UserRepository;
+import com.example.expensetracker.security.SecurityUser;
+import com.example.expensetracker.testutil.factory.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replica routing against two databases. The "replica" is a second Postgres with the same schema that
+ * only accepts read-only transactions, like a hot standby, and holds one user the primary does not have,
+ * so a read shows which database served it. Each test runs inside one request-scoped EntityManager, the
+ * way open-in-view binds it.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Read Replica Routing Integration Tests")
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final String REPLICA_ONLY_EMAIL = "only-on-replica@example.com";
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("expense_tracker_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("expense_tracker_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("app.replica.url", replica::getJdbcUrl);
+        registry.add("app.replica.username", replica::getUsername);
+        registry.add("app.replica.password", replica::getPassword);
+        registry.add("app.replica.pin-after-write-ms", () -> "60000");
+
+        registry.add("jwt.secret", () -> "test-access-secret-key-for-integration-tests-min-32-chars");
+        registry.add("jwt.refresh-secret", () -> "test-refresh-secret-key-for-integration-tests-min-32-chars");
+    }
+
+    @BeforeAll
+    static void prepareReplica() throws SQLException {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        try (Connection connection = DriverManager.getConnection(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password) VALUES ('replica', '"
+                    + REPLICA_ONLY_EMAIL + "', 'x') ON CONFLICT DO NOTHING");
+            // From here on it rejects writes the way a hot standby does
+            statement.execute("ALTER DATABASE " + replica.getDatabaseName() + " SET default_transaction_read_only = on");
+        }
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(TestDataFactory.userEntity().email(UUID.randomUUID() + "@example.com").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should run a write on the primary after a replica read in the same request")
+    void readThenWrite_ShouldWriteToPrimary() {
+        inRequest(() -> {
+            assertThat(readOnly(() -> userRepository.findByEmail(REPLICA_ONLY_EMAIL).isPresent())).isTrue();
+
+            readWrite(() -> categoryRepository.save(TestDataFactory.createCategory(user)));
+        });
+
+        assertThat(categoryRepository.findByUserId(user.getId())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should read from the replica after a write in the same request")
+    void writeThenRead_ShouldReadFromReplica() {
+        inRequest(() -> {
+            readWrite(() -> categoryRepository.save(TestDataFactory.createCategory(user)));
+
+            assertThat(readOnly(() -> userRepository.findByEmail(REPLICA_ONLY_EMAIL).isPresent())).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Should pin the writer to the primary once a write follows a read in the same request")
+    void readThenWrite_ShouldPinWriter() {
+        SecurityUser principal = new SecurityUser(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        inRequest(() -> {
+            assertThat(readOnly(() -> userRepository.findByEmail(REPLICA_ONLY_EMAIL).isPresent())).isTrue();
+
+            CategoryEntity saved = readWrite(() -> categoryRepository.save(TestDataFactory.createCategory(user)));
+
+            // Only the primary has the category, and the user now reads from there
+            assertThat(readOnly(() -> categoryRepository.findByIdAndUserId(saved.getId(), user.getId()))).isPresent();
+            assertThat(readOnly(() -> userRepository.findByEmail(REPLICA_ONLY_EMAIL).isPresent())).isFalse();
+        });
+    }
+
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> work.get());
+    }
+
+    private <T> T readWrite(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    // What OpenEntityManagerInViewInterceptor does around a request
+    private void inRequest(Runnable work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            work.run();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            EntityManagerFactoryUtils.closeEntityManager(entityManager);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.expensetracker.integration;
+
+import com.example.expensetracker.entity.CategoryEntity;
+import com.example.expensetracker.entity.UserEntity;
+import com.example.expensetracker.repository.CategoryRepository;
+import com.example.expensetracker.repository.ExpenseRepository;
+import com.example.expensetracker.repository.UserRepository;
+import com.example.expensetracker.service.StatementService;
+import com.example.expensetracker.testutil.AbstractPostgresContainerTest;
+import com.example.expensetracker.testutil.factory.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claims, resumes and retries of statement partitions against the Flyway schema. Each test owns one
+ * statement month, planned as a single partition, and sets up the partition row the way a crashed
+ * or failing node would have left it.
+ */
+@DisplayName("StatementService Integration Tests")
+class StatementServiceIntegrationTest extends AbstractPostgresContainerTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @TempDir
+    static Path statements;
+
+    @DynamicPropertySource
+    static void configureStatements(DynamicPropertyRegistry registry) {
+        registry.add("app.statements.directory", () -> statements.toString());
+        registry.add("app.statements.partition-size", () -> "1000000");
+        registry.add("app.statements.workers", () -> "1");
+        registry.add("app.statements.max-attempts", () -> String.valueOf(MAX_ATTEMPTS));
+        // Only the tests start passes
+        registry.add("app.statements.cron", () -> "-");
+        registry.add("app.statements.resume-delay-ms", () -> "3600000");
+    }
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserEntity first;
+    private UserEntity second;
+
+    @BeforeEach
+    void setUp() {
+        first = createUser();
+        second = createUser();
+    }
+
+    @Test
+    @DisplayName("Should resume a range after its last finished user once the claim has expired")
+    void expiredClaim_ShouldResumeAfterLastFinishedUser() {
+        LocalDate period = planWithExpenses(LocalDate.of(2001, 1, 1));
+        jdbcTemplate.update("""
+                UPDATE statement_partitions
+                SET status = 'RUNNING', attempts = 1, claimed_by = 'dead-node', resume_after_user_id = ?,
+                    claimed_at = CURRENT_TIMESTAMP - INTERVAL '1 hour'
+                WHERE period = ?
+                """, first.getId(), period);
+
+        statementService.processPending();
+
+        Map<String, Object> partition = partition(period);
+        assertThat(partition.get("status")).isEqualTo("DONE");
+        assertThat(partition.get("attempts")).isEqualTo(2);
+        assertThat(partition.get("resume_after_user_id")).isEqualTo(second.getId());
+        assertThat(statementsOf(first, period)).doesNotExist();
+        assertThat(statementsOf(second, period).resolve("statement-2001-01.csv")).exists();
+        assertThat(statementsOf(second, period).resolve("statement-2001-01.pdf")).exists();
+    }
+
+    @Test
+    @DisplayName("Should leave a range alone while its claim is live")
+    void liveClaim_ShouldBeLeftAlone() {
+        LocalDate period = planWithExpenses(LocalDate.of(2001, 2, 1));
+        jdbcTemplate.update("""
+                UPDATE statement_partitions
+                SET status = 'RUNNING', attempts = 1, claimed_by = 'live-node', claimed_at = CURRENT_TIMESTAMP
+                WHERE period = ?
+                """, period);
+
+        statementService.processPending();
+
+        Map<String, Object> partition = partition(period);
+        assertThat(partition.get("status")).isEqualTo("RUNNING");
+        assertThat(partition.get("claimed_by")).isEqualTo("live-node");
+        assertThat(partition.get("attempts")).isEqualTo(1);
+        assertThat(statementsOf(first, period)).doesNotExist();
+        assertThat(statementsOf(second, period)).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should retry a failing range until max attempts and then mark it failed")
+    void failingRange_ShouldBeRetriedUntilFailed() throws IOException {
+        LocalDate period = planWithExpenses(LocalDate.of(2001, 3, 1));
+        // A file where the month's directory belongs makes every attempt fail
+        Files.writeString(statements.resolve("2001-03"), "not a directory");
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            statementService.processPending();
+            assertThat(partition(period)).containsEntry("status", "PENDING").containsEntry("attempts", attempt);
+            expireClaim(period);
+        }
+        statementService.processPending();
+
+        Map<String, Object> partition = partition(period);
+        assertThat(partition).containsEntry("status", "FAILED").containsEntry("attempts", MAX_ATTEMPTS);
+        assertThat((String) partition.get("last_error")).contains("2001-03");
+
+        expireClaim(period);
+        statementService.processPending();
+        assertThat(partition(period)).containsEntry("status", "FAILED").containsEntry("attempts", MAX_ATTEMPTS);
+    }
+
+    @Test
+    @DisplayName("Should mark a range failed when its claim expires on the last attempt")
+    void expiredClaimOnLastAttempt_ShouldMarkFailed() {
+        LocalDate period = planWithExpenses(LocalDate.of(2001, 4, 1));
+        jdbcTemplate.update("""
+                UPDATE statement_partitions
+                SET status = 'RUNNING', attempts = ?, claimed_by = 'dead-node',
+                    claimed_at = CURRENT_TIMESTAMP - INTERVAL '1 hour'
+                WHERE period = ?
+                """, MAX_ATTEMPTS, period);
+
+        statementService.processPending();
+
+        Map<String, Object> partition = partition(period);
+        assertThat(partition).containsEntry("status", "FAILED").containsEntry("attempts", MAX_ATTEMPTS);
+        assertThat(partition.get("claimed_by")).isNull();
+        assertThat((String) partition.get("last_error")).contains("dead-node", "expired on attempt 3");
+        assertThat(statementsOf(first, period)).doesNotExist();
+    }
+
+    private UserEntity createUser() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(TestDataFactory.userEntity().username(name).email(name + "@example.com").build());
+    }
+
+    // Plans the month from scratch, with one expense for each of the two users
+    private LocalDate planWithExpenses(LocalDate period) {
+        jdbcTemplate.update("DELETE FROM statement_partitions WHERE period = ?", period);
+        for (UserEntity user : new UserEntity[]{first, second}) {
+            CategoryEntity category = categoryRepository.save(TestDataFactory.createCategory(user));
+            expenseRepository.save(TestDataFactory.expenseEntity()
+                    .user(user)
+                    .category(category)
+                    .date(period.plusDays(4))
+                    .build());
+        }
+        assertThat(statementService.plan(period)).isEqualTo(1);
+        return period;
+    }
+
+    private void expireClaim(LocalDate period) {
+        jdbcTemplate.update("UPDATE statement_partitions SET claimed_at = CURRENT_TIMESTAMP - INTERVAL '1 hour' "
+                + "WHERE period = ?", period);
+    }
+
+    private Map<String, Object> partition(LocalDate period) {
+        return jdbcTemplate.queryForMap("SELECT * FROM statement_partitions WHERE period = ?", period);
+    }
+
+    private static Path statementsOf(UserEntity user, LocalDate period) {
+        return statements.resolve(period.toString().substring(0, 7)).resolve(user.getId().toString());
+    }
+}
@@ -213,5 +213,51 @@ class ExpenseRepositoryTest {
         assertThat(expenseEntity.getUser().getClass().getSimpleName())
                 .isEqualTo("UserEntity");
     }
-}
 
+    @Test
+    @DisplayName("Should keep daily rollup in sync on insert, update and delete")
+    void shouldMaintainDailyRollup() {
+        // Given
+        ExpenseEntity expense = TestDataFactory.createExpense(user, category);
+        expense.setAmount(new BigDecimal("40.00"));
+        expense = entityManager.persistAndFlush(expense);
+        ExpenseEntity second = TestDataFactory.createExpense(user, category);
+        second.setAmount(new BigDecimal("2.50"));
+        second.setDate(expense.getDate());
+        entityManager.persistAndFlush(second);
+
+        // Then
+        assertThat(rollupFor(expense)).containsExactly(new BigDecimal("42.50"), 2L);
+
+        // When
+        expense.setAmount(new BigDecimal("10.00"));
+        entityManager.persistAndFlush(expense);
+
+        // Then
+        assertThat(rollupFor(expense)).containsExactly(new BigDecimal("12.50"), 2L);
+
+        // When
+        entityManager.remove(expense);
+        entityManager.remove(second);
+        entityManager.flush();
+
+        // Then
+        assertThat(rollupFor(second)).isEmpty();
+    }
+
+    private List<Object> rollupFor(ExpenseEntity expense) {
+        List<?> rows = entityManager.getEntityManager().createNativeQuery("""
+                SELECT total_amount, expense_count FROM expense_daily_rollup
+                WHERE user_id = :userId AND team_id IS NULL AND category_id = :categoryId AND date = :date
+                """)
+                .setParameter("userId", user.getId())
+                .setParameter("categoryId", category.getId())
+                .setParameter("date", expense.getDate())
+                .getResultList();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return List.of(row[0], ((Number) row[1]).longValue());
+    }
+}
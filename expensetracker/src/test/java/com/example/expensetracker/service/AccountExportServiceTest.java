@@ -0,0 +1,163 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.TeamDto;
+import com.example.expensetracker.dto.UserDto;
+import com.example.expensetracker.entity.CategoryEntity;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.mapper.CategoryMapper;
+import com.example.expensetracker.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountExportService Unit Tests")
+class AccountExportServiceTest {
+
+    private static final UserDto USER = UserDto.builder().id(7L).username("alice").email("alice@example.com").build();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TeamService teamService;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @TempDir
+    private Path storage;
+
+    private AccountExportService service;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        service = new AccountExportService(entityManager, new AppProperties(), exportService, categoryRepository,
+                new CategoryMapper(), teamService, fileStorageService, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should write expenses, categories, teams and receipt files into one archive")
+    void exportAccount_ShouldWriteAllEntries() throws IOException {
+        byte[] receipt = new byte[300_000];
+        new Random(42).nextBytes(receipt);
+        Files.write(storage.resolve("a1b2.PDF"), receipt);
+        Files.writeString(storage.resolve("c3d4.png"), "png");
+        stubAccount(new Object[]{11L, "a1b2.PDF"}, new Object[]{12L, "c3d4.png"});
+        doAnswer(invocation -> {
+            invocation.getArgument(2, Writer.class).write("ID,Date,Category,Amount,Description\n");
+            return null;
+        }).when(exportService).exportUserExpensesToCsv(eq(7L), any(), any(Writer.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int receipts = service.exportAccount(USER, AccountExportService.Format.CSV, out);
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertThat(receipts).isEqualTo(2);
+        assertThat(entries.keySet()).containsExactly(
+                "account.json", "expenses.csv", "categories.json", "teams.json",
+                "receipts/expense-11.pdf", "receipts/expense-12.png");
+        assertThat(text(entries, "account.json")).contains("\"username\" : \"alice\"", "\"exportedAt\"");
+        assertThat(text(entries, "expenses.csv")).isEqualTo("ID,Date,Category,Amount,Description\n");
+        assertThat(text(entries, "categories.json")).contains("\"name\" : \"Food\"");
+        assertThat(text(entries, "teams.json")).contains("\"name\" : \"Household\"");
+        assertThat(entries.get("receipts/expense-11.pdf")).isEqualTo(receipt);
+        assertThat(text(entries, "receipts/expense-12.png")).isEqualTo("png");
+    }
+
+    @Test
+    @DisplayName("Should leave out receipts whose file is missing and export expenses as JSON Lines")
+    void exportAccount_WithMissingReceiptFile_ShouldSkipIt() throws IOException {
+        stubAccount(new Object[]{11L, "gone.jpg"});
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportUserExpensesToJsonLines(eq(7L), any(), any(OutputStream.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int receipts = service.exportAccount(USER, AccountExportService.Format.JSONL, out);
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertThat(receipts).isZero();
+        assertThat(entries.keySet()).containsExactly("account.json", "expenses.jsonl", "categories.json", "teams.json");
+        assertThat(text(entries, "expenses.jsonl")).isEqualTo("{\"id\":1}\n");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown expense formats")
+    void format_WithUnknownValue_ShouldThrow() {
+        assertThat(AccountExportService.Format.of(" JSONL ")).isEqualTo(AccountExportService.Format.JSONL);
+        assertThatThrownBy(() -> AccountExportService.Format.of("pdf"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("expected 'csv' or 'jsonl'");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubAccount(Object[]... receiptRows) {
+        when(categoryRepository.findByUserId(7L))
+                .thenReturn(List.of(CategoryEntity.builder().id(3L).name("Food").build()));
+        when(teamService.listMyTeams(7L)).thenReturn(List.of(TeamDto.builder().id(1L).name("Household").build()));
+        TypedQuery<Object[]> query = mock(TypedQuery.class, RETURNS_SELF);
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of(receiptRows));
+        when(fileStorageService.load(anyString()))
+                .thenAnswer(invocation -> storage.resolve(invocation.getArgument(0, String.class)));
+    }
+
+    private static Map<String, byte[]> unzip(byte[] archive) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static String text(Map<String, byte[]> entries, String name) {
+        return new String(entries.get(name), StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.expensetracker.service;
 import com.example.expensetracker.dto.CategoryDto;
 import com.example.expensetracker.entity.CategoryEntity;
 import com.example.expensetracker.entity.UserEntity;
+import com.example.expensetracker.event.CategoryChangedEvent;
 import com.example.expensetracker.exception.CategoryAlreadyExistsException;
 import com.example.expensetracker.exception.CategoryNotFoundException;
 import com.example.expensetracker.exception.ConflictException;
@@ -23,6 +24,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -47,6 +49,9 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Spy
     @InjectMocks
     private CategoryServiceImpl categoryService;
@@ -88,6 +93,7 @@ class CategoryServiceImplTest {
         assertThat(result.getName()).isEqualTo("Groceries");
         verify(categoryRepository).existsByNameAndUserId("Groceries", 1L);
         verify(categoryRepository).save(any(CategoryEntity.class));
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent(1L));
     }
 
     @Test
@@ -321,6 +327,7 @@ class CategoryServiceImplTest {
         verify(categoryRepository).findByIdAndUserId(1L, 1L);
         verify(expenseRepository).existsByCategoryId(1L);
         verify(categoryRepository).delete(category);
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent(1L));
     }
 
     @Test
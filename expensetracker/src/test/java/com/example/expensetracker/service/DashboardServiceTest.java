@@ -0,0 +1,190 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.CategoryPieStatsDto;
+import com.example.expensetracker.dto.CursorPageResponse;
+import com.example.expensetracker.dto.DashboardDto;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.dto.ExpenseStatsDto;
+import com.example.expensetracker.dto.TeamDashboardDto;
+import com.example.expensetracker.dto.TimeSeriesStatsDto;
+import com.example.expensetracker.enums.TimeGranularity;
+import com.example.expensetracker.exception.AppException;
+import com.example.expensetracker.exception.ForbiddenException;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.util.TeamAcl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardService Unit Tests")
+class DashboardServiceTest {
+
+    private static final ExpenseFilterRequest FILTER = ExpenseFilterRequest.builder().build();
+
+    @Mock
+    private ExpenseFilterService filterService;
+
+    @Mock
+    private TeamAcl teamAcl;
+
+    private DashboardService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DashboardService(filterService, teamAcl, new AppProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run personal and team queries concurrently and assemble one payload")
+    void shouldAssembleAllScopesInParallel() {
+        when(teamAcl.listMyTeamIds(1L)).thenReturn(List.of(3L, 4L));
+        // Every query waits for the others: the dashboard only completes if they all run at once
+        CountDownLatch started = new CountDownLatch(4);
+        ExpenseStatsDto stats = ExpenseStatsDto.builder().totalAmount(BigDecimal.TEN).count(1L).build();
+        when(filterService.getStatistics(eq(1L), any())).thenAnswer(invocation -> awaitOthers(started, stats));
+        when(filterService.getTimeSeriesStatistics(eq(1L), any(), eq(TimeGranularity.MONTH), any()))
+                .thenAnswer(invocation -> awaitOthers(started, TimeSeriesStatsDto.builder().build()));
+        when(filterService.getCategoryPieStatistics(eq(1L), any()))
+                .thenAnswer(invocation -> awaitOthers(started, CategoryPieStatsDto.builder().build()));
+        when(filterService.getFilteredExpenses(eq(1L), any()))
+                .thenAnswer(invocation -> awaitOthers(started, CursorPageResponse.of(List.of(), null, false)));
+        when(filterService.getCheckedTeamTimeSeriesStatistics(eq(1L), anyLong(), any(), eq(TimeGranularity.MONTH), any()))
+                .thenAnswer(invocation -> TimeSeriesStatsDto.builder().count(invocation.getArgument(1)).build());
+        when(filterService.getCheckedTeamCategoryPieStatistics(eq(1L), anyLong(), any()))
+                .thenAnswer(invocation -> CategoryPieStatsDto.builder().totalCount(invocation.getArgument(1)).build());
+
+        DashboardDto dashboard = service.getDashboard(1L, FILTER, null, "month", null, 5);
+
+        assertThat(dashboard.getPersonal().getStats()).isSameAs(stats);
+        assertThat(dashboard.getPersonal().getItems().getItems()).isEmpty();
+        assertThat(dashboard.getTeams()).extracting(TeamDashboardDto::getTeamId).containsExactly(3L, 4L);
+        assertThat(dashboard.getTeams().get(1).getTimeSeries().getCount()).isEqualTo(4L);
+        assertThat(dashboard.getTeams().get(1).getCategoryPie().getTotalCount()).isEqualTo(4L);
+        verify(filterService).getFilteredExpenses(eq(1L), eq(FILTER.toBuilder().limit(5).build()));
+        verify(teamAcl, never()).requireMembership(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should only query the requested scopes")
+    void shouldHonourScopes() {
+        when(teamAcl.listMyTeamIds(1L)).thenReturn(List.of(3L, 4L));
+
+        DashboardDto dashboard = service.getDashboard(1L, FILTER, List.of("team:4", "TEAM:4"), null, null, 20);
+
+        assertThat(dashboard.getPersonal()).isNull();
+        assertThat(dashboard.getTeams()).extracting(TeamDashboardDto::getTeamId).containsExactly(4L);
+        verify(filterService, never()).getStatistics(any(), any());
+        verify(filterService, never()).getCheckedTeamCategoryPieStatistics(any(), eq(3L), any());
+    }
+
+    @Test
+    @DisplayName("Should reject foreign teams and malformed scopes before running any query")
+    void shouldValidateScopes() {
+        when(teamAcl.listMyTeamIds(1L)).thenReturn(List.of(3L));
+
+        assertThatThrownBy(() -> service.getDashboard(1L, FILTER, List.of("personal", "team:9"), null, null, 20))
+                .isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.getDashboard(1L, FILTER, List.of("team:abc"), null, null, 20))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.getDashboard(1L, FILTER, List.of("everything"), null, null, 20))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(filterService);
+    }
+
+    @Test
+    @DisplayName("Should surface a failing query's own error")
+    void shouldPropagateQueryErrors() {
+        when(teamAcl.listMyTeamIds(1L)).thenReturn(List.of());
+        when(filterService.getStatistics(eq(1L), any())).thenThrow(new ValidationException("teamIds accepts at most 100 values"));
+
+        assertThatThrownBy(() -> service.getDashboard(1L, FILTER, List.of("personal"), null, null, 20))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("teamIds accepts at most 100 values");
+    }
+
+    @Test
+    @DisplayName("Should interrupt the running queries when the dashboard times out")
+    void shouldInterruptQueriesOnTimeout() throws InterruptedException {
+        AppProperties properties = new AppProperties();
+        properties.getDashboard().setTimeoutMs(200);
+        service.shutdown();
+        service = new DashboardService(filterService, teamAcl, properties);
+        when(teamAcl.listMyTeamIds(1L)).thenReturn(List.of());
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(filterService.getStatistics(eq(1L), any())).thenAnswer(invocation -> blockUntilInterrupted(interrupted));
+
+        assertThatThrownBy(() -> service.getDashboard(1L, FILTER, List.of("personal"), null, null, 20))
+                .isInstanceOf(AppException.class)
+                .hasMessage("Dashboard queries timed out");
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should cancel the queries already submitted when the pool rejects one")
+    void shouldCancelSubmittedQueriesOnRejection() {
+        AppProperties properties = new AppProperties();
+        properties.getDashboard().setPoolSize(1);
+        properties.getDashboard().setQueueCapacity(2);
+        properties.getDashboard().setTimeoutMs(5000);
+        service.shutdown();
+        service = new DashboardService(filterService, teamAcl, properties);
+        when(teamAcl.listMyTeamIds(1L)).thenReturn(List.of(3L));
+        // Cancelled either while it blocks or before it starts
+        lenient().when(filterService.getStatistics(eq(1L), any()))
+                .thenAnswer(invocation -> blockUntilInterrupted(new CountDownLatch(1)));
+
+        // Four personal queries do not fit one worker and two queue slots
+        assertThatThrownBy(() -> service.getDashboard(1L, FILTER, List.of("personal"), null, null, 20))
+                .isInstanceOf(AppException.class)
+                .hasMessage("Too many dashboard requests, try again shortly");
+
+        // Only fits once the first request's queries have left the queue
+        DashboardDto dashboard = service.getDashboard(1L, FILTER, List.of("team:3"), null, null, 20);
+        assertThat(dashboard.getTeams()).extracting(TeamDashboardDto::getTeamId).containsExactly(3L);
+    }
+
+    private static <T> T blockUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            throw new IllegalStateException("Dashboard query was not interrupted");
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw new IllegalStateException("Dashboard query interrupted", e);
+        }
+    }
+
+    private static <T> T awaitOthers(CountDownLatch started, T result) throws InterruptedException {
+        started.countDown();
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Dashboard queries did not run concurrently");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.exception.ValidationException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseSearchService Unit Tests")
+class ExpenseSearchServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ExpenseSearchService searchService;
+
+    @Test
+    @DisplayName("Should split query into letter/digit tokens")
+    void shouldTokenizeQuery() {
+        assertThat(ExpenseSearchService.tokenize("coffee  shop #12")).containsExactly("coffee", "shop", "12");
+        assertThat(ExpenseSearchService.tokenize("кава, чай")).containsExactly("кава", "чай");
+    }
+
+    @Test
+    @DisplayName("Should drop tsquery operators from user input")
+    void shouldNotPassTsQueryOperatorsThrough() {
+        List<String> tokens = ExpenseSearchService.tokenize("a:*|b & !c");
+
+        assertThat(ExpenseSearchService.toPrefixQuery(tokens)).isEqualTo("a:* & b:* & c:*");
+    }
+
+    @Test
+    @DisplayName("Should return no hits without querying when input has no searchable characters")
+    void shouldReturnEmptyForPunctuationOnlyQuery() {
+        assertThat(searchService.search(1L, "&|!", null, null)).isEmpty();
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should reject blank query and out-of-range limit")
+    void shouldValidateParameters() {
+        assertThatThrownBy(() -> searchService.search(1L, "  ", null, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> searchService.search(1L, "food", null, 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> searchService.search(1L, "food", null, 101))
+                .isInstanceOf(ValidationException.class);
+    }
+}
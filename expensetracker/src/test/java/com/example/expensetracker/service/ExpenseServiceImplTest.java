@@ -6,6 +6,7 @@ import com.example.expensetracker.dto.UpdateExpenseRequest;
 import com.example.expensetracker.entity.CategoryEntity;
 import com.example.expensetracker.entity.ExpenseEntity;
 import com.example.expensetracker.entity.UserEntity;
+import com.example.expensetracker.event.ExpenseChangedEvent;
 import com.example.expensetracker.exception.CategoryNotFoundException;
 import com.example.expensetracker.exception.NotFoundException;
 import com.example.expensetracker.exception.ValidationException;
@@ -24,6 +25,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -48,6 +50,9 @@ class ExpenseServiceImplTest {
     @Mock
     private ExpenseMapper mapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Spy
     @InjectMocks
     private ExpenseServiceImpl expenseService;
@@ -90,6 +95,7 @@ class ExpenseServiceImplTest {
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getCategoryId()).isEqualTo(1L);
         verify(expenseRepository).save(any(ExpenseEntity.class));
+        verify(eventPublisher).publishEvent(any(ExpenseChangedEvent.class));
     }
 
     @Test
@@ -251,20 +257,22 @@ class ExpenseServiceImplTest {
     @DisplayName("Should delete expense successfully")
     void shouldDeleteExpenseSuccessfully() {
         // Given
-        when(expenseRepository.existsByIdAndUserId(1L, 1L)).thenReturn(true);
+        CategoryEntity category = TestDataFactory.createCategory(1L, testUser);
+        ExpenseEntity expense = TestDataFactory.createExpense(1L, testUser, category);
+        when(expenseRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(expense));
 
         // When
         expenseService.delete(1L);
 
         // Then
-        verify(expenseRepository).deleteById(1L);
+        verify(expenseRepository).delete(expense);
     }
 
     @Test
     @DisplayName("Should throw NotFoundException when deleting non-existent expense")
     void shouldThrowNotFoundExceptionWhenDeletingNonExistentExpense() {
         // Given
-        when(expenseRepository.existsByIdAndUserId(999L, 1L)).thenReturn(false);
+        when(expenseRepository.findByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> expenseService.delete(999L))
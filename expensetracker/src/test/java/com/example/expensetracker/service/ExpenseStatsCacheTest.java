@@ -0,0 +1,159 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.enums.TimeGranularity;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.event.ExpenseSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseStatsCache Unit Tests")
+class ExpenseStatsCacheTest {
+
+    private static final Set<ExpenseStatsEngine.Grouping> BY_CATEGORY = EnumSet.of(ExpenseStatsEngine.Grouping.CATEGORY);
+    private static final ExpenseStatsEngine.Aggregate RESULT =
+            new ExpenseStatsEngine.Aggregate(BigDecimal.TEN, 1, List.of(), List.of());
+
+    @Mock
+    private ExpenseStatsEngine engine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpenseStatsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ExpenseStatsCache(engine, new AppProperties(), transactionManager, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should load in a read-only transaction of its own")
+    void shouldLoadInNewReadOnlyTransaction() {
+        when(engine.aggregate(eq(1L), any(), eq(BY_CATEGORY), eq(TimeGranularity.DAY))).thenReturn(RESULT);
+
+        cache.aggregate(1L, new ExpenseFilterRequest(), BY_CATEGORY);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        assertThat(definition.getValue().getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    @DisplayName("Should serve equivalent filters from one entry")
+    void shouldHitForNormalizedFilter() {
+        when(engine.aggregate(eq(1L), any(), eq(BY_CATEGORY), eq(TimeGranularity.DAY))).thenReturn(RESULT);
+
+        cache.aggregate(1L, ExpenseFilterRequest.builder().categoryIds(List.of(2L, 1L)).build(), BY_CATEGORY);
+        ExpenseStatsEngine.Aggregate second = cache.aggregate(
+                1L, ExpenseFilterRequest.builder().categoryIds(List.of(1L, 2L, 1L)).limit(5).build(), BY_CATEGORY);
+
+        assertThat(second).isSameAs(RESULT);
+        verify(engine, times(1)).aggregate(eq(1L), any(), eq(BY_CATEGORY), eq(TimeGranularity.DAY));
+        assertThat(meterRegistry.counter("expense.stats.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("expense.stats.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should recompute after a write in the same scope only")
+    void shouldInvalidateOnWrite() {
+        ExpenseFilterRequest request = new ExpenseFilterRequest();
+        when(engine.aggregate(any(), any(), any(), any())).thenReturn(RESULT);
+
+        cache.aggregate(1L, request, BY_CATEGORY);
+        cache.aggregate(2L, request, BY_CATEGORY);
+        cache.onExpenseChanged(ExpenseChangedEvent.created(new ExpenseSnapshot(
+                10L, 1L, null, 3L, "Food", BigDecimal.ONE, LocalDate.now(), "lunch")));
+        cache.aggregate(1L, request, BY_CATEGORY);
+        cache.aggregate(2L, request, BY_CATEGORY);
+
+        verify(engine, times(2)).aggregate(1L, request, BY_CATEGORY, TimeGranularity.DAY);
+        verify(engine, times(1)).aggregate(2L, request, BY_CATEGORY, TimeGranularity.DAY);
+    }
+
+    @Test
+    @DisplayName("Should run one computation for concurrent misses on the same key")
+    void shouldCollapseConcurrentMisses() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(engine.aggregate(any(), any(), any(), any())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return RESULT;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ExpenseStatsEngine.Aggregate> first =
+                    executor.submit(() -> cache.aggregate(1L, new ExpenseFilterRequest(), BY_CATEGORY));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<ExpenseStatsEngine.Aggregate>> waiters = List.of(
+                    executor.submit(() -> cache.aggregate(1L, new ExpenseFilterRequest(), BY_CATEGORY)),
+                    executor.submit(() -> cache.aggregate(1L, new ExpenseFilterRequest(), BY_CATEGORY))
+            );
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(RESULT);
+            for (Future<ExpenseStatsEngine.Aggregate> waiter : waiters) {
+                assertThat(waiter.get(5, TimeUnit.SECONDS)).isSameAs(RESULT);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(engine, times(1)).aggregate(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not cache failures and should stay within the memory budget")
+    void shouldRetryFailuresAndEvictOverBudget() {
+        AppProperties properties = new AppProperties();
+        properties.getStatsCache().setMemoryBudgetBytes(1);
+        cache = new ExpenseStatsCache(engine, properties, transactionManager, meterRegistry);
+        ExpenseFilterRequest request = new ExpenseFilterRequest();
+        when(engine.aggregate(any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(RESULT);
+
+        assertThatThrownBy(() -> cache.aggregate(1L, request, BY_CATEGORY)).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.size()).isZero();
+
+        cache.aggregate(1L, request, BY_CATEGORY);
+        cache.aggregate(2L, request, BY_CATEGORY);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(meterRegistry.counter("expense.stats.cache.evictions").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.enums.TimeGranularity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ExpenseStatsEngine Unit Tests")
+class ExpenseStatsEngineTest {
+
+    @Test
+    @DisplayName("Should number comparison buckets from the period start")
+    void shouldComputeBucketIndex() {
+        LocalDate start = LocalDate.of(2025, 11, 20);
+
+        assertThat(ExpenseStatsEngine.bucketIndex(TimeGranularity.DAY, start, LocalDate.of(2025, 12, 1))).isEqualTo(11);
+        assertThat(ExpenseStatsEngine.bucketIndex(TimeGranularity.WEEK, start, LocalDate.of(2025, 11, 26))).isZero();
+        assertThat(ExpenseStatsEngine.bucketIndex(TimeGranularity.WEEK, start, LocalDate.of(2025, 11, 27))).isEqualTo(1);
+        assertThat(ExpenseStatsEngine.bucketIndex(TimeGranularity.MONTH, start, LocalDate.of(2026, 2, 1))).isEqualTo(3);
+        assertThat(ExpenseStatsEngine.bucketIndex(TimeGranularity.QUARTER, start, LocalDate.of(2026, 2, 1))).isEqualTo(1);
+        assertThat(ExpenseStatsEngine.bucketIndex(TimeGranularity.YEAR, start, LocalDate.of(2026, 10, 31))).isZero();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.SuggestionDto;
+import com.example.expensetracker.dto.TermCount;
+import com.example.expensetracker.enums.SuggestionType;
+import com.example.expensetracker.event.CategoryChangedEvent;
+import com.example.expensetracker.event.ExpenseChangedEvent;
+import com.example.expensetracker.event.ExpenseSnapshot;
+import com.example.expensetracker.repository.CategoryRepository;
+import com.example.expensetracker.repository.ExpenseRepository;
+import com.example.expensetracker.security.SecurityUser;
+import com.example.expensetracker.testutil.factory.TestDataFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseSuggestionService Unit Tests")
+class ExpenseSuggestionServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private ExpenseSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExpenseSuggestionService(expenseRepository, categoryRepository, new AppProperties());
+        SecurityUser principal = new SecurityUser(TestDataFactory.createUser(USER_ID));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count categories as uses plus one whether loaded or changed later")
+    void shouldApplyCategoryBaselineOnLoadAndChange() {
+        when(expenseRepository.countDescriptionsByUserId(USER_ID)).thenReturn(List.of());
+        when(categoryRepository.countCategoryUsageByUserId(USER_ID))
+                .thenReturn(List.of(new TermCount("Food", 0L), new TermCount("Fuel", 2L)));
+        assertThat(suggest("f")).containsExactly(category("Fuel", 3), category("Food", 1));
+
+        // A category the index has not seen yet starts from the same baseline
+        service.onExpenseChanged(ExpenseChangedEvent.created(expense("Flights")));
+        service.onExpenseChanged(ExpenseChangedEvent.created(expense("Food")));
+        assertThat(suggest("f")).containsExactly(category("Fuel", 3), category("Flights", 2), category("Food", 2));
+
+        service.onExpenseChanged(ExpenseChangedEvent.deleted(expense("Flights")));
+        service.onExpenseChanged(ExpenseChangedEvent.deleted(expense("Food")));
+        assertThat(suggest("f")).containsExactly(category("Fuel", 3), category("Flights", 1), category("Food", 1));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index after a category change")
+    void shouldRebuildAfterCategoryChange() {
+        when(expenseRepository.countDescriptionsByUserId(USER_ID)).thenReturn(List.of());
+        when(categoryRepository.countCategoryUsageByUserId(USER_ID))
+                .thenReturn(List.of(new TermCount("Food", 0L)))
+                .thenReturn(List.of(new TermCount("Groceries", 0L)));
+        assertThat(suggest("f")).containsExactly(category("Food", 1));
+
+        service.onCategoryChanged(new CategoryChangedEvent(USER_ID));
+
+        assertThat(suggest("f")).isEmpty();
+        assertThat(suggest("g")).containsExactly(category("Groceries", 1));
+        verify(categoryRepository, times(2)).countCategoryUsageByUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should reload instead of caching an index when a change commits during the load")
+    void shouldReloadWhenChangeCommitsDuringLoad() {
+        when(expenseRepository.countDescriptionsByUserId(USER_ID))
+                .thenAnswer(invocation -> {
+                    // Committed after this read, so the first load misses it
+                    service.onExpenseChanged(ExpenseChangedEvent.created(expense("Food")));
+                    return List.of();
+                })
+                .thenReturn(List.of(new TermCount("Lunch", 1L)));
+        when(categoryRepository.countCategoryUsageByUserId(USER_ID)).thenReturn(List.of(new TermCount("Food", 1L)));
+
+        assertThat(suggest("l")).containsExactly(description("Lunch", 1));
+        assertThat(suggest("l")).containsExactly(description("Lunch", 1));
+        verify(expenseRepository, times(2)).countDescriptionsByUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should not cache an index loaded while a change for the user is committing")
+    void shouldNotCacheWhileCommitting() {
+        when(expenseRepository.countDescriptionsByUserId(USER_ID))
+                .thenReturn(List.of(), List.of(), List.of())
+                .thenReturn(List.of(new TermCount("Lunch", 1L)));
+        when(categoryRepository.countCategoryUsageByUserId(USER_ID)).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        service.onExpenseChanged(ExpenseChangedEvent.created(expense("Food")));
+
+        // Whether the loads saw the commit is unknown, so none of them is kept
+        assertThat(suggest("l")).isEmpty();
+        verify(expenseRepository, times(3)).countDescriptionsByUserId(USER_ID);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(suggest("l")).containsExactly(description("Lunch", 1));
+        assertThat(suggest("l")).containsExactly(description("Lunch", 1));
+        verify(expenseRepository, times(4)).countDescriptionsByUserId(USER_ID);
+    }
+
+    private List<SuggestionDto> suggest(String prefix) {
+        return service.suggest(prefix, 20);
+    }
+
+    private static ExpenseSnapshot expense(String categoryName) {
+        return new ExpenseSnapshot(10L, USER_ID, null, 5L, categoryName, BigDecimal.ONE, LocalDate.now(), null);
+    }
+
+    private static SuggestionDto category(String text, int count) {
+        return new SuggestionDto(text, SuggestionType.CATEGORY, count);
+    }
+
+    private static SuggestionDto description(String text, int count) {
+        return new SuggestionDto(text, SuggestionType.DESCRIPTION, count);
+    }
+}
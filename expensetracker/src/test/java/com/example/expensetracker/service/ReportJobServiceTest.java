@@ -0,0 +1,236 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.AppProperties;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import com.example.expensetracker.dto.ExpenseStatsDto;
+import com.example.expensetracker.dto.ReportJobDto;
+import com.example.expensetracker.dto.ReportJobRequest;
+import com.example.expensetracker.enums.ReportJobStatus;
+import com.example.expensetracker.enums.ReportType;
+import com.example.expensetracker.exception.AppException;
+import com.example.expensetracker.exception.ConflictException;
+import com.example.expensetracker.exception.NotFoundException;
+import com.example.expensetracker.exception.ValidationException;
+import com.example.expensetracker.util.TeamAcl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportJobService Unit Tests")
+class ReportJobServiceTest {
+
+    private static final ExpenseStatsDto STATS = ExpenseStatsDto.builder()
+            .totalAmount(BigDecimal.TEN)
+            .count(1L)
+            .build();
+
+    @Mock
+    private ExpenseFilterService filterService;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private TeamAcl teamAcl;
+
+    private AppProperties properties;
+    private ReportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AppProperties();
+        properties.getReportJobs().setMaxActivePerUser(2);
+        service = new ReportJobService(filterService, exportService, teamAcl, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run a stats report and serve its result to the owner only")
+    void shouldRunStatsReport() throws Exception {
+        when(filterService.getStatistics(eq(1L), any())).thenReturn(STATS);
+
+        ReportJobDto job = service.submit(1L, statsRequest(LocalDate.of(2020, 1, 1)));
+        ReportJobDto finished = awaitFinished(1L, job.getId());
+
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.SUCCEEDED);
+        assertThat(finished.getResultUrl()).endsWith("/" + job.getId() + "/result");
+        assertThat(finished.getExpiresAt()).isNotNull();
+        assertThat(service.result(1L, job.getId()).data()).isSameAs(STATS);
+        assertThatThrownBy(() -> service.result(2L, job.getId())).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should share identical in-flight requests and cap unfinished jobs per user")
+    void shouldDeduplicateAndLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(filterService.getStatistics(eq(1L), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return STATS;
+        });
+
+        ReportJobDto first = service.submit(1L, statsRequest(LocalDate.of(2020, 1, 1)));
+        ReportJobDto duplicate = service.submit(1L, statsRequest(LocalDate.of(2020, 1, 1)));
+        ReportJobDto second = service.submit(1L, statsRequest(LocalDate.of(2021, 1, 1)));
+
+        assertThat(duplicate.getId()).isEqualTo(first.getId());
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThatThrownBy(() -> service.result(1L, first.getId())).isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> service.submit(1L, statsRequest(LocalDate.of(2022, 1, 1))))
+                .isInstanceOfSatisfying(AppException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        release.countDown();
+        awaitFinished(1L, first.getId());
+        awaitFinished(1L, second.getId());
+        verify(filterService, times(2)).getStatistics(eq(1L), any());
+
+        // Finished jobs free their slot, and an identical request now starts a new job
+        assertThat(service.submit(1L, statsRequest(LocalDate.of(2020, 1, 1))).getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    @DisplayName("Should keep the report's error and drop jobs once their TTL passes")
+    void shouldKeepErrorsAndExpire() throws Exception {
+        properties.getReportJobs().setResultTtlMs(0);
+        when(filterService.getStatistics(eq(1L), any())).thenThrow(new ValidationException("fromDate cannot be after toDate"));
+
+        ReportJobDto job = service.submit(1L, statsRequest(LocalDate.of(2020, 1, 1)));
+        ReportJobDto finished = awaitFinished(1L, job.getId());
+
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+        assertThat(finished.getError()).isEqualTo("fromDate cannot be after toDate");
+        assertThatThrownBy(() -> service.result(1L, job.getId())).isInstanceOf(ValidationException.class);
+
+        service.removeExpired();
+        assertThatThrownBy(() -> service.get(1L, job.getId())).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should fail with a generic error when the report throws an Error")
+    void shouldFailWithGenericErrorOnError() throws Exception {
+        when(filterService.getStatistics(eq(1L), any())).thenThrow(new StackOverflowError());
+
+        ReportJobDto job = service.submit(1L, statsRequest(LocalDate.of(2020, 1, 1)));
+        ReportJobDto finished = awaitFinished(1L, job.getId());
+
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+        assertThat(finished.getError()).isEqualTo("Report failed");
+        assertThatThrownBy(() -> service.result(1L, job.getId()))
+                .isInstanceOfSatisfying(AppException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    @Test
+    @DisplayName("Should reject team options the report does not support")
+    void shouldValidateTeamScope() {
+        assertThatThrownBy(() -> service.submit(1L, ReportJobRequest.builder().type(ReportType.MEMBER_STATS).build()))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.submit(1L, ReportJobRequest.builder().type(ReportType.STATS).teamId(3L).build()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Should gzip CSV exports and hand out a just-finished export again instead of rerunning it")
+    void shouldCompressAndReuseExports(@TempDir Path directory) throws Exception {
+        properties.getReportJobs().setDirectory(directory.toString());
+        doAnswer(invocation -> {
+            invocation.getArgument(2, Writer.class).write("ID,Date,Category,Amount,Description\n");
+            return null;
+        }).when(exportService).exportUserExpensesToCsv(eq(1L), any(), any(Writer.class));
+
+        ReportJobDto job = service.submitExport(1L, null, "csv", false, new ExpenseFilterRequest());
+        assertThat(awaitFinished(1L, job.getId()).getStatus()).isEqualTo(ReportJobStatus.SUCCEEDED);
+
+        Path file = service.result(1L, job.getId()).file();
+        assertThat(file.getFileName().toString()).endsWith(".csv.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo("ID,Date,Category,Amount,Description\n");
+        }
+
+        assertThat(service.submitExport(1L, null, "csv", false, new ExpenseFilterRequest()).getId())
+                .isEqualTo(job.getId());
+        verify(exportService, times(1)).exportUserExpensesToCsv(eq(1L), any(), any(Writer.class));
+        assertThatThrownBy(() -> service.submitExport(1L, null, "xls", false, new ExpenseFilterRequest()))
+                .isInstanceOf(ValidationException.class);
+
+        // A different filter selects different rows, so it is a new export
+        ExpenseFilterRequest lastMonth = ExpenseFilterRequest.builder().fromDate(LocalDate.of(2025, 9, 1)).build();
+        ReportJobDto filtered = service.submitExport(1L, null, "csv", false, lastMonth);
+        assertThat(filtered.getId()).isNotEqualTo(job.getId());
+        awaitFinished(1L, filtered.getId());
+        verify(exportService).exportUserExpensesToCsv(eq(1L), eq(lastMonth), any(Writer.class));
+    }
+
+    @Test
+    @DisplayName("Should delete report files no job refers to once they are older than the TTL")
+    void shouldRemoveOrphanedFiles(@TempDir Path directory) throws Exception {
+        properties.getReportJobs().setDirectory(directory.toString());
+        properties.getReportJobs().setResultTtlMs(60_000);
+        Path orphan = Files.createFile(directory.resolve("report-" + UUID.randomUUID() + "-1.csv.gz"));
+        Path recent = Files.createFile(directory.resolve("report-" + UUID.randomUUID() + "-2.csv.gz"));
+        Path unrelated = Files.createFile(directory.resolve("notes.txt"));
+        FileTime old = FileTime.from(Instant.now().minusSeconds(3600));
+        Files.setLastModifiedTime(orphan, old);
+        Files.setLastModifiedTime(unrelated, old);
+
+        service.removeExpired();
+
+        assertThat(orphan).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(unrelated).exists();
+    }
+
+    private static ReportJobRequest statsRequest(LocalDate fromDate) {
+        return ReportJobRequest.builder()
+                .type(ReportType.STATS)
+                .filter(ExpenseFilterRequest.builder().fromDate(fromDate).categoryIds(List.of(1L)).build())
+                .build();
+    }
+
+    private ReportJobDto awaitFinished(Long userId, String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ReportJobDto job = service.get(userId, jobId);
+        while (!job.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = service.get(userId, jobId);
+        }
+        return job;
+    }
+}
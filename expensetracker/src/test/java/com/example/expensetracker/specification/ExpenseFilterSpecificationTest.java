@@ -189,5 +189,74 @@ class ExpenseFilterSpecificationTest {
         assertThat(expenses).hasSize(1);
         assertThat(expenses.get(0).getId()).isEqualTo(expense1.getId());
     }
-}
 
+    @Test
+    @DisplayName("Should match any of several categories and amount buckets")
+    void shouldFilterByCategorySetAndAmountBuckets() {
+        // Given
+        com.example.expensetracker.dto.ExpenseFilterRequest request = new com.example.expensetracker.dto.ExpenseFilterRequest();
+        request.setCategoryIds(List.of(category1.getId(), category2.getId()));
+        request.setAmountBuckets(List.of(
+                com.example.expensetracker.dto.AmountRange.parse("0-30"),
+                com.example.expensetracker.dto.AmountRange.parse("100-")
+        ));
+        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildSpecification(
+                user.getId(), request, null, null);
+
+        // When
+        List<ExpenseEntity> expenses = expenseRepository.findAll(spec);
+
+        // Then
+        assertThat(expenses).extracting(ExpenseEntity::getId)
+                .containsExactlyInAnyOrder(expense2.getId(), expense3.getId());
+    }
+
+    @Test
+    @DisplayName("Should match any of several disjoint date ranges")
+    void shouldFilterByDisjointDateRanges() {
+        // Given
+        LocalDate today = LocalDate.now();
+        com.example.expensetracker.dto.ExpenseFilterRequest request = new com.example.expensetracker.dto.ExpenseFilterRequest();
+        request.setDateRanges(List.of(
+                new com.example.expensetracker.dto.DateRange(today.minusDays(6), today.minusDays(4)),
+                new com.example.expensetracker.dto.DateRange(today.minusDays(1), null)
+        ));
+        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildSpecification(
+                user.getId(), request, null, null);
+
+        // When
+        List<ExpenseEntity> expenses = expenseRepository.findAll(spec);
+
+        // Then
+        assertThat(expenses).extracting(ExpenseEntity::getId)
+                .containsExactlyInAnyOrder(expense1.getId(), expense3.getId());
+    }
+
+    @Test
+    @DisplayName("Should filter a team's expenses across members, ignoring the request's teamId")
+    void shouldFilterTeamExpenses() {
+        // Given
+        com.example.expensetracker.entity.TeamEntity team = entityManager.persistAndFlush(TestDataFactory.createTeam(user));
+        UserEntity member = entityManager.persistAndFlush(TestDataFactory.createUser());
+        ExpenseEntity teamExpense = expenseRepository.findById(expense1.getId()).orElseThrow();
+        teamExpense.setTeam(team);
+        entityManager.persistAndFlush(teamExpense);
+        ExpenseEntity memberExpense = TestDataFactory.createExpense(member, category1);
+        memberExpense.setAmount(BigDecimal.valueOf(75.0));
+        memberExpense.setDate(LocalDate.now().minusDays(2));
+        memberExpense.setTeam(team);
+        memberExpense = entityManager.persistAndFlush(memberExpense);
+        entityManager.clear();
+
+        com.example.expensetracker.dto.ExpenseFilterRequest request = new com.example.expensetracker.dto.ExpenseFilterRequest();
+        request.setMinAmount(BigDecimal.valueOf(60.0));
+        request.setTeamId(team.getId() + 1);
+        Specification<ExpenseEntity> spec = ExpenseFilterSpecification.buildTeamSpecification(team.getId(), request);
+
+        // When
+        List<ExpenseEntity> expenses = expenseRepository.findAll(spec);
+
+        // Then
+        assertThat(expenses).extracting(ExpenseEntity::getId).containsExactly(memberExpense.getId());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.expensetracker.specification;
+
+import com.example.expensetracker.dto.AmountRange;
+import com.example.expensetracker.dto.DateRange;
+import com.example.expensetracker.dto.ExpenseFilterRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ExpenseFilterSql Unit Tests")
+class ExpenseFilterSqlTest {
+
+    @Test
+    @DisplayName("Should always scope by user")
+    void shouldAlwaysScopeByUser() {
+        ExpenseFilterSql sql = ExpenseFilterSql.build(7L, new ExpenseFilterRequest());
+
+        assertThat(sql.whereClause()).isEqualTo("e.user_id = :userId");
+        assertThat(sql.parameters()).containsExactlyEntriesOf(Map.of("userId", 7L));
+    }
+
+    @Test
+    @DisplayName("Should scope team-wide filters by team instead of user")
+    void shouldScopeTeamFiltersByTeam() {
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .teamId(99L)
+                .fromDate(LocalDate.of(2025, 1, 1))
+                .build();
+
+        ExpenseFilterSql sql = ExpenseFilterSql.buildForTeam(3L, request);
+
+        assertThat(sql.whereClause())
+                .contains("e.team_id = :teamId")
+                .contains("e.date >= :fromDate")
+                .doesNotContain("e.user_id");
+        assertThat(sql.parameters()).containsEntry("teamId", 3L).doesNotContainKey("userId");
+    }
+
+    @Test
+    @DisplayName("Should bind every filter value as a parameter")
+    void shouldBindFilterValues() {
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .category(" Food ")
+                .categoryMatch("like")
+                .fromDate(LocalDate.of(2025, 1, 1))
+                .minAmount(new BigDecimal("10.00"))
+                .hasReceipt(false)
+                .teamId(3L)
+                .search("O'Brien")
+                .build();
+
+        ExpenseFilterSql sql = ExpenseFilterSql.build(1L, request);
+
+        assertThat(sql.whereClause())
+                .contains("lower(c.name) LIKE :categoryName")
+                .contains("e.date >= :fromDate")
+                .contains("e.amount >= :minAmount")
+                .contains("NOT e.has_receipt")
+                .contains("e.team_id = :teamId")
+                .contains("lower(e.description) LIKE :search")
+                .doesNotContain("O'Brien");
+        assertThat(sql.parameters())
+                .containsEntry("categoryName", "%food%")
+                .containsEntry("search", "%o'brien%");
+    }
+
+    @Test
+    @DisplayName("Should translate multi-value filters into IN lists and OR-ed ranges")
+    void shouldTranslateMultiValueFilters() {
+        ExpenseFilterRequest request = ExpenseFilterRequest.builder()
+                .categoryIds(List.of(1L, 2L))
+                .dateRanges(List.of(
+                        DateRange.parse("2025-03-01..2025-03-31"),
+                        DateRange.parse("2025-01-01..2025-01-31"),
+                        DateRange.parse("2025-01-15..2025-02-01")
+                ))
+                .amountBuckets(List.of(AmountRange.parse("0-50"), AmountRange.parse("100-")))
+                .build();
+
+        ExpenseFilterSql sql = ExpenseFilterSql.build(1L, request);
+
+        assertThat(sql.whereClause())
+                .contains("e.category_id IN (:categoryIds)")
+                .contains("((e.date >= :dateFrom0 AND e.date <= :dateTo0) OR (e.date >= :dateFrom1 AND e.date <= :dateTo1))")
+                .contains("((e.amount >= :bucketMin0 AND e.amount < :bucketMax0) OR (e.amount >= :bucketMin1))");
+        // Overlapping January ranges are merged before binding
+        assertThat(sql.parameters())
+                .containsEntry("dateFrom0", LocalDate.of(2025, 1, 1))
+                .containsEntry("dateTo0", LocalDate.of(2025, 2, 1))
+                .containsEntry("dateFrom1", LocalDate.of(2025, 3, 1))
+                .doesNotContainKey("bucketMax1");
+    }
+}
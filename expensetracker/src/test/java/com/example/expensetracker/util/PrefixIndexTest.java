@@ -0,0 +1,76 @@
+package com.example.expensetracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PrefixIndex Unit Tests")
+class PrefixIndexTest {
+
+    @Test
+    @DisplayName("Should rank matches by count then alphabetically")
+    void shouldRankMatchesByCount() {
+        PrefixIndex index = new PrefixIndex(100);
+        index.add("Coffee", 3);
+        index.add("Cinema", 5);
+        index.add("Car wash", 3);
+        index.add("Groceries", 10);
+
+        assertThat(index.top("c", 10))
+                .extracting(PrefixIndex.Entry::label)
+                .containsExactly("Cinema", "Car wash", "Coffee");
+        assertThat(index.top("c", 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should match case-insensitively and normalize whitespace")
+    void shouldMatchCaseInsensitively() {
+        PrefixIndex index = new PrefixIndex(100);
+        index.add("  Lunch   with team ", 1);
+        index.add("lunch with TEAM", 1);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.top("LUNCH W", 5))
+                .containsExactly(new PrefixIndex.Entry("lunch with TEAM", 2));
+    }
+
+    @Test
+    @DisplayName("Should drop terms whose count reaches zero")
+    void shouldDropTermsAtZero() {
+        PrefixIndex index = new PrefixIndex(100);
+        index.add("Taxi", 2);
+        long populated = index.estimatedBytes();
+        index.add("Taxi", -1);
+        assertThat(index.top("ta", 5)).hasSize(1);
+
+        index.add("Taxi", -1);
+        assertThat(index.top("ta", 5)).isEmpty();
+        assertThat(index.size()).isZero();
+        assertThat(index.estimatedBytes()).isLessThan(populated);
+    }
+
+    @Test
+    @DisplayName("Should truncate long terms and ignore blank input")
+    void shouldTruncateLongTerms() {
+        PrefixIndex index = new PrefixIndex(5);
+        index.add("Subscription", 1);
+        index.add("   ", 1);
+        index.add(null, 1);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.top("sub", 5)).containsExactly(new PrefixIndex.Entry("Subsc", 1));
+        assertThat(index.top(" ", 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report the count of a term regardless of spelling")
+    void shouldReportCount() {
+        PrefixIndex index = new PrefixIndex(100);
+        index.add("Coffee", 2);
+
+        assertThat(index.count(" COFFEE ")).isEqualTo(2);
+        assertThat(index.count("Tea")).isZero();
+        assertThat(index.count(null)).isZero();
+    }
+}
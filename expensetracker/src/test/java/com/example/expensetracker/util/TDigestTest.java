@@ -0,0 +1,118 @@
+package com.example.expensetracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("TDigest Unit Tests")
+class TDigestTest {
+
+    @Test
+    @DisplayName("Should be exact for small sets")
+    void shouldBeExactForSmallSets() {
+        TDigest digest = new TDigest(100);
+        for (double value : new double[]{30, 10, 120, 30}) {
+            digest.add(value);
+        }
+
+        assertThat(digest.size()).isEqualTo(4);
+        assertThat(digest.min()).isEqualTo(10);
+        assertThat(digest.max()).isEqualTo(120);
+        assertThat(digest.quantile(0.5)).isEqualTo(30);
+        assertThat(digest.quantile(0.99)).isEqualTo(120);
+        assertThat(digest.cdf(30)).isEqualTo(0.25);
+        assertThat(digest.cdf(31)).isEqualTo(0.75);
+    }
+
+    @Test
+    @DisplayName("Should estimate quantiles of a large skewed set within tolerance")
+    void shouldEstimateQuantiles() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian()) * 40;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(digest.centroidCount()).isLessThan(100);
+        for (double q : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            double estimate = digest.quantile(q);
+            double rank = Arrays.binarySearch(values, estimate);
+            double actualQ = (rank < 0 ? -rank - 1 : rank) / values.length;
+            assertThat(actualQ).isCloseTo(q, within(0.01));
+        }
+    }
+
+    @Test
+    @DisplayName("Should merge digests as if all values were added to one")
+    void shouldMerge() {
+        TDigest january = new TDigest(100);
+        TDigest february = new TDigest(100);
+        TDigest all = new TDigest(100);
+        for (int i = 1; i <= 5000; i++) {
+            (i % 2 == 0 ? january : february).add(i);
+            all.add(i);
+        }
+
+        TDigest merged = new TDigest(100);
+        merged.merge(january);
+        merged.merge(february);
+
+        assertThat(merged.size()).isEqualTo(5000);
+        assertThat(merged.min()).isEqualTo(1);
+        assertThat(merged.max()).isEqualTo(5000);
+        assertThat(merged.quantile(0.5)).isCloseTo(all.quantile(0.5), within(50.0));
+        assertThat(merged.quantile(0.9)).isCloseTo(4500, within(50.0));
+    }
+
+    @Test
+    @DisplayName("Should keep the true min and max when merging digests with heavy tail centroids")
+    void shouldKeepExtremesWhenMerging() {
+        Random random = new Random(7);
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < 200_000; i++) {
+            digest.add(1.01 + random.nextDouble() * 998.98);
+        }
+        digest.add(1.0);
+        digest.add(1000.0);
+        TDigest restored = TDigest.fromBytes(digest.toBytes());
+
+        TDigest merged = new TDigest(100);
+        merged.merge(restored);
+
+        assertThat(merged.size()).isEqualTo(200_002);
+        assertThat(merged.min()).isEqualTo(1.0);
+        assertThat(merged.max()).isEqualTo(1000.0);
+        assertThat(merged.quantile(0)).isEqualTo(1.0);
+        assertThat(merged.quantile(1)).isEqualTo(1000.0);
+    }
+
+    @Test
+    @DisplayName("Should survive a serialization roundtrip")
+    void shouldRoundtripBytes() {
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < 10_000; i++) {
+            digest.add(i % 997, 1 + i % 3);
+        }
+
+        byte[] bytes = digest.toBytes();
+        TDigest restored = TDigest.fromBytes(bytes);
+
+        assertThat(bytes.length).isLessThan(digest.centroidCount() * 11 + 40);
+        assertThat(restored.size()).isEqualTo(digest.size());
+        assertThat(restored.centroidCount()).isEqualTo(digest.centroidCount());
+        assertThat(restored.min()).isEqualTo(digest.min());
+        assertThat(restored.max()).isEqualTo(digest.max());
+        for (double q : new double[]{0, 0.25, 0.5, 0.9, 1}) {
+            assertThat(restored.quantile(q)).isEqualTo(digest.quantile(q));
+        }
+        assertThat(TDigest.fromBytes(new TDigest(100).toBytes()).size()).isZero();
+    }
+}